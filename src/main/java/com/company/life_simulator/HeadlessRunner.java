@@ -0,0 +1,176 @@
+package com.company.life_simulator;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.IntSupplier;
+
+/**
+ * Fast-forwards a world without UI until it reaches target tick, spends wall-clock budget or its dwellers die out,
+ * and periodically reports throughput.
+ * <p/>
+ * First {@code warmupTicks} ticks are not measured, so reports and summary show throughput of compiled code.
+ * Report gives ticks per second, dwellers per second (sum of population of measured ticks per second)
+ * and allocation rate of live threads, if JVM measures it.
+ * <br>
+ * Settings are read by {@link #fromProperties()}: {@code run.ticks}, {@code run.timeBudget} (seconds),
+ * {@code run.warmupTicks} and {@code run.reportInterval} (seconds), zero ticks or budget mean no limit.
+ */
+public class HeadlessRunner {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final int targetTicks;
+    private final Duration timeBudget;
+    private final int warmupTicks;
+    private final Duration reportInterval;
+    private final PrintStream out;
+
+    public HeadlessRunner(int targetTicks, Duration timeBudget, int warmupTicks, Duration reportInterval, PrintStream out)
+    {
+        if (targetTicks < 0 || warmupTicks < 0 || timeBudget.isNegative() || reportInterval.isNegative() || reportInterval.isZero())
+            throw new IllegalArgumentException("Wrong settings of run: ticks " + targetTicks + ", budget " + timeBudget +
+                    ", warm-up " + warmupTicks + ", report interval " + reportInterval);
+        this.targetTicks = targetTicks;
+        this.timeBudget = timeBudget;
+        this.warmupTicks = warmupTicks;
+        this.reportInterval = reportInterval;
+        this.out = out;
+    }
+
+    public static HeadlessRunner fromProperties()
+    {
+        return new HeadlessRunner(
+                Integer.valueOf(System.getProperty("run.ticks", "0")),
+                Duration.ofSeconds(Long.valueOf(System.getProperty("run.timeBudget", "0"))),
+                Integer.valueOf(System.getProperty("run.warmupTicks", "0")),
+                Duration.ofSeconds(Long.valueOf(System.getProperty("run.reportInterval", "5"))),
+                System.out);
+    }
+
+    /**
+     * Ticks the world in the current thread
+     *
+     * @param tick Makes one tick of the world
+     * @param currentTick Number of the last tick of the world
+     * @param population Number of dwellers of the world, run stops, when it is zero
+     * @return Throughput of measured ticks
+     */
+    public Report run(Runnable tick, IntSupplier currentTick, IntSupplier population)
+    {
+        long start = System.nanoTime();
+        long deadline = timeBudget.isZero() ? Long.MAX_VALUE : start + timeBudget.toNanos();
+        int firstTick = currentTick.getAsInt();
+
+        Measurement total = null;
+        Measurement interval = null;
+        while (population.getAsInt() > 0
+                && (targetTicks == 0 || currentTick.getAsInt() < targetTicks)
+                && System.nanoTime() < deadline) {
+            if (total == null && currentTick.getAsInt() - firstTick >= warmupTicks) {
+                total = new Measurement();
+                interval = new Measurement();
+            }
+            int dwellers = population.getAsInt();
+            tick.run();
+            if (total == null)
+                continue;
+            total.add(dwellers);
+            interval.add(dwellers);
+            if (System.nanoTime() - interval.start >= reportInterval.toNanos()) {
+                out.println("Tick " + currentTick.getAsInt() + ": " + interval.report() + ", " + population.getAsInt() + " dwellers");
+                interval = new Measurement();
+            }
+        }
+        Report report = total == null ? new Report(0, 0, 0, -1) : total.report();
+        out.println("Tick " + currentTick.getAsInt() + ", total: " + report);
+        return report;
+    }
+
+    /**
+     * @return Bytes, allocated by live threads, or -1, if JVM does not measure it
+     */
+    static long getAllocatedBytes()
+    {
+        if (!(THREADS instanceof com.sun.management.ThreadMXBean))
+            return -1;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+        if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled())
+            return -1;
+        long allocated = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0)
+                allocated += bytes;
+        }
+        return allocated;
+    }
+
+    /**
+     * Ticks and dwellers since the start of measurement
+     */
+    private static class Measurement {
+        private final long start = System.nanoTime();
+        private final long startAllocated = getAllocatedBytes();
+        private int ticks = 0;
+        private long dwellers = 0;
+
+        void add(int population)
+        {
+            ticks++;
+            dwellers += population;
+        }
+
+        Report report()
+        {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long allocated = getAllocatedBytes();
+            //threads, which died since start, take their bytes with them, so the rate is lower bound
+            double allocationRate = startAllocated < 0 || allocated < 0 ? -1 : Math.max(0, allocated - startAllocated) / seconds;
+            return new Report(ticks, ticks / seconds, dwellers / seconds, allocationRate);
+        }
+    }
+
+    public static class Report {
+        private final int ticks;
+        private final double ticksPerSecond;
+        private final double dwellersPerSecond;
+        private final double allocationRate;
+
+        Report(int ticks, double ticksPerSecond, double dwellersPerSecond, double allocationRate)
+        {
+            this.ticks = ticks;
+            this.ticksPerSecond = ticksPerSecond;
+            this.dwellersPerSecond = dwellersPerSecond;
+            this.allocationRate = allocationRate;
+        }
+
+        /**
+         * @return Number of measured ticks
+         */
+        public int getTicks() {
+            return ticks;
+        }
+
+        public double getTicksPerSecond() {
+            return ticksPerSecond;
+        }
+
+        public double getDwellersPerSecond() {
+            return dwellersPerSecond;
+        }
+
+        /**
+         * @return Bytes per second, or -1, if JVM does not measure allocations
+         */
+        public double getAllocationRate() {
+            return allocationRate;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d ticks, %.1f ticks/s, %.0f dwellers/s, %s", ticks, ticksPerSecond, dwellersPerSecond,
+                    allocationRate < 0 ? "allocation rate n/a" : String.format(Locale.ROOT, "%.1f MB/s allocated", allocationRate / (1 << 20)));
+        }
+    }
+}
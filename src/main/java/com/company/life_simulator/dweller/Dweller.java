@@ -1,50 +1,37 @@
 package com.company.life_simulator.dweller;
 
 import com.company.life_simulator.dweller.action.Action;
+import com.company.life_simulator.dweller.action.ActionBuffer;
 import com.company.life_simulator.world.World;
+import com.company.life_simulator.world.quadtree.Node;
+import com.company.life_simulator.world.quadtree.NodeHolder;
 import com.company.life_simulator.world.quadtree.Point;
 import com.company.life_simulator.world.quadtree.Vector;
 
 import java.util.Optional;
+import java.util.Random;
 
-public abstract class Dweller {
-    private final DwellerType type;
-    private final Integer id;
+public abstract class Dweller implements NodeHolder {
+    private static final ThreadLocal<ActionBuffer> ACTION = ThreadLocal.withInitial(ActionBuffer::new);
+
+    private final DwellerSpecies species;
+    private final int id;
     private final int birthTick;
-    private final double visibilityRange;
-    private final double actionRange;
-    private final double baseSpeed;
-    private final int reproductionRate;
-    private final double reproductionRange;
 
     private Point position;
     private int lastReproduction;
+    private Node<?> node;
 
-    protected Dweller(DwellerType type,
-                      Integer id,
-                      Point position,
-                      int currentTick,
-                      double visibilityRange,
-                      double actionRange,
-                      double baseSpeed,
-                      int reproductionRate,
-                      double reproductionRange)
+    protected Dweller(DwellerSpecies species, int id, Point position, int currentTick)
     {
-        this.type = type;
+        this.species = species;
         this.id = id;
         this.position = position;
         birthTick = currentTick;
-
-        this.visibilityRange = visibilityRange;
-        this.actionRange = actionRange;
-        this.baseSpeed = baseSpeed;
-
-        this.reproductionRate = reproductionRate;
-        this.reproductionRange = reproductionRange;
         lastReproduction = currentTick;
     }
 
-    public Integer getId() {
+    public int getId() {
         return id;
     }
 
@@ -54,7 +41,11 @@ public abstract class Dweller {
     }
 
     public DwellerType getType() {
-        return type;
+        return species.getType();
+    }
+
+    public DwellerSpecies getSpecies() {
+        return species;
     }
 
     public Point getPosition() {
@@ -66,23 +57,33 @@ public abstract class Dweller {
         this.position = position;
     }
 
+    @Override
+    public Node<?> getNode() {
+        return node;
+    }
+
+    @Override
+    public void setNode(Node<?> node) {
+        this.node = node;
+    }
+
     public double getVisibilityRange()
     {
-        return visibilityRange;
+        return species.getVisibilityRange();
     }
 
     public double getActionRange()
     {
-        return actionRange;
+        return species.getActionRange();
     }
 
     public double getSquareActionRange()
     {
-        return actionRange * actionRange;
+        return getActionRange() * getActionRange();
     }
 
     public double getSpeed() {
-        return baseSpeed;
+        return species.getBaseSpeed();
     }
 
     public double getSquareSpeed() {
@@ -90,35 +91,71 @@ public abstract class Dweller {
     }
 
     public double getBaseSpeed() {
-        return baseSpeed;
+        return species.getBaseSpeed();
     }
 
     public int getReproductionRate() {
-        return reproductionRate;
+        return species.getReproductionRate();
     }
 
     public double getReproductionRange() {
-        return reproductionRange;
+        return species.getReproductionRange();
     }
 
-    public abstract Optional<Action> doAI(int tick, World world);
+    /**
+     * Chooses action of the tick as object, see {@link #doAI(int, World, ActionBuffer)}
+     */
+    public Optional<Action> doAI(int tick, World world)
+    {
+        ActionBuffer buffer = ACTION.get();
+        buffer.clear();
+        doAI(tick, world, buffer);
+        return buffer.size() == 0 ? Optional.empty() : Optional.of(buffer.toAction(0));
+    }
+
+    /**
+     * Writes action of the tick into the buffer, dweller, which does nothing, writes nothing
+     */
+    public abstract void doAI(int tick, World world, ActionBuffer actions);
+
+    protected abstract Dweller produceChild(int id, Point position, int tick);
+
+    /**
+     * AI of sleeping dweller is skipped until its wake-up tick, if {@link World#TIMING_WHEEL timing wheel} is used.
+     * Dweller must not sleep through the tick, when it would act, unless other dwellers change it.
+     *
+     * @return The next tick, when the dweller may act. Dweller wakes up every tick by default
+     */
+    public int getNextWakeUp(int tick)
+    {
+        return tick + 1;
+    }
 
-    protected abstract Dweller produceChild(Integer id, Point position, int tick);
+    protected int getLastReproduction()
+    {
+        return lastReproduction;
+    }
 
     protected boolean canReproduce(int tick)
     {
-        return tick - lastReproduction >= reproductionRate;
+        return tick - lastReproduction >= getReproductionRate();
     }
 
     public void breed(int tick, World world)
     {
-        Vector childVector = Vector.getUnitVector(world.getRandom().nextDouble() * Math.PI * 2)
-                .scale(world.getRandom().nextDouble() * getReproductionRange());
-        Point childPoint = this.getPosition().delta(childVector);
+        Point childPoint = this.getPosition().delta(getChildOffset(world.getRandom(this), getReproductionRange()));
         world.addDweller(produceChild(world.getNextId(), childPoint, tick));
         lastReproduction = tick;
     }
 
+    /**
+     * @return Offset of a child from its parent: random direction and random distance within reproduction range
+     */
+    public static Vector getChildOffset(Random random, double reproductionRange)
+    {
+        return Vector.getUnitVector(random.nextDouble()).scale(random.nextDouble() * reproductionRange);
+    }
+
     @Override
     public String toString() {
         return String.format("[%s, %s]", getPosition(), getType());
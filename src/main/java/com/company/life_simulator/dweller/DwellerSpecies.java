@@ -0,0 +1,67 @@
+package com.company.life_simulator.dweller;
+
+/**
+ * Parameters, which are the same for all dwellers of one species. Dwellers share the descriptor of their species
+ * instead of keeping copies of the parameters.
+ */
+public class DwellerSpecies {
+    private final DwellerType type;
+    private final double visibilityRange;
+    private final double actionRange;
+    private final double baseSpeed;
+    private final int reproductionRate;
+    private final double reproductionRange;
+    private final double foodConsumption;
+    private final double foodSaturation;
+
+    public DwellerSpecies(DwellerType type,
+                          double visibilityRange,
+                          double actionRange,
+                          double baseSpeed,
+                          int reproductionRate,
+                          double reproductionRange,
+                          double foodConsumption,
+                          double foodSaturation)
+    {
+        this.type = type;
+        this.visibilityRange = visibilityRange;
+        this.actionRange = actionRange;
+        this.baseSpeed = baseSpeed;
+        this.reproductionRate = reproductionRate;
+        this.reproductionRange = reproductionRange;
+        this.foodConsumption = foodConsumption;
+        this.foodSaturation = foodSaturation;
+    }
+
+    public DwellerType getType() {
+        return type;
+    }
+
+    public double getVisibilityRange() {
+        return visibilityRange;
+    }
+
+    public double getActionRange() {
+        return actionRange;
+    }
+
+    public double getBaseSpeed() {
+        return baseSpeed;
+    }
+
+    public int getReproductionRate() {
+        return reproductionRate;
+    }
+
+    public double getReproductionRange() {
+        return reproductionRange;
+    }
+
+    public double getFoodConsumption() {
+        return foodConsumption;
+    }
+
+    public double getFoodSaturation() {
+        return foodSaturation;
+    }
+}
@@ -4,38 +4,26 @@ import com.company.life_simulator.world.World;
 import com.company.life_simulator.world.quadtree.Point;
 
 public abstract class EatingDweller extends Dweller {
-    private final double foodConsumption;
-    private final double foodSaturation;
     private double storedFood;
 
 
-    protected EatingDweller(
-            DwellerType type,
-            Integer id,
-            Point position,
-            int currentTick,
-            double visibilityRange,
-            double actionRange,
-            double baseSpeed,
-            int reproductionRate,
-            double reproductionRange,
-            double initialFood,
-            double foodConsumption,
-            double foodSaturation) {
-        super(type, id, position, currentTick, visibilityRange, actionRange, baseSpeed, reproductionRate, reproductionRange);
-        this.foodConsumption = foodConsumption;
-        this.foodSaturation = foodSaturation;
+    protected EatingDweller(DwellerSpecies species, int id, Point position, int currentTick, double initialFood) {
+        super(species, id, position, currentTick);
         this.storedFood = initialFood;
     }
 
+    public double getStoredFood() {
+        return storedFood;
+    }
+
     public void feed(Food food)
     {
-        storedFood = Math.min(storedFood + 25, foodSaturation);
+        storedFood = Math.min(storedFood + 25, getSpecies().getFoodSaturation());
     }
 
     public void consumeFood()
     {
-        storedFood -= foodConsumption;
+        storedFood -= getSpecies().getFoodConsumption();
     }
 
     public boolean isStarving()
@@ -45,7 +33,7 @@ public abstract class EatingDweller extends Dweller {
 
     protected boolean isSaturated()
     {
-        return storedFood >= foodSaturation;
+        return storedFood >= getSpecies().getFoodSaturation();
     }
 
     @Override
@@ -55,7 +43,7 @@ public abstract class EatingDweller extends Dweller {
 
     @Override
     public void breed(int tick, World world) {
-        storedFood -= foodSaturation / 2;
+        storedFood -= getSpecies().getFoodSaturation() / 2;
         super.breed(tick, world);
     }
 }
@@ -1,32 +1,42 @@
 package com.company.life_simulator.dweller;
 
-import com.company.life_simulator.dweller.action.Action;
-import com.company.life_simulator.dweller.action.ActionBreed;
+import com.company.life_simulator.dweller.action.ActionBuffer;
 import com.company.life_simulator.world.World;
 import com.company.life_simulator.world.quadtree.Point;
 
-import java.util.Optional;
-
 public class Food extends Dweller{
     public static final int REPRODUCTION_RATE = Integer.valueOf(System.getProperty("dweller.food.reproductionRate", "30"));
     public static final double REPRODUCTION_RANGE = Double.valueOf(System.getProperty("dweller.food.reproductionRange", "30"));
+    public static final DwellerSpecies SPECIES = new DwellerSpecies(DwellerType.food, 0, 0, 0, REPRODUCTION_RATE, REPRODUCTION_RANGE, 0, 0);
+
+    public Food(int id, Point position, int currentTick) {
+        this(SPECIES, id, position, currentTick);
+    }
 
-    public Food(Integer id, Point position, int currentTick) {
-        super(DwellerType.food, id, position, currentTick, 0, 0, 0, REPRODUCTION_RATE, REPRODUCTION_RANGE);
+    public Food(DwellerSpecies species, int id, Point position, int currentTick) {
+        super(species, id, position, currentTick);
     }
 
     @Override
-    public Optional<Action> doAI(int tick, World world) {
+    public void doAI(int tick, World world, ActionBuffer actions) {
         if(canReproduce(tick))
         {
-            return Optional.of(new ActionBreed(this.getId()));
+            actions.breed(this.getId());
         }
-        return Optional.empty();
+    }
+
+    /**
+     * Food does nothing, but breeds, so it sleeps until it can reproduce
+     */
+    @Override
+    public int getNextWakeUp(int tick)
+    {
+        return Math.max(tick + 1, getLastReproduction() + getReproductionRate());
     }
 
     @Override
-    protected Dweller produceChild(Integer id, Point position, int tick) {
-        return new Food(id, position, tick);
+    protected Dweller produceChild(int id, Point position, int tick) {
+        return new Food(getSpecies(), id, position, tick);
     }
 
 
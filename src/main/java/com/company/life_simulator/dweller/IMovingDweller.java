@@ -16,14 +16,17 @@ public interface IMovingDweller {
     {
         double squareDistance = this.getPosition().squareDistance(target);
         Vector targetVector = new Vector(this.getPosition(), target);
-        Vector speedVector;
-        if (squareDistance <= this.getSquareSpeed()) {
-            double length = targetVector.length();
-            speedVector = targetVector.scale((length - getActionRange() / 2) / length);
-        }
-        else
-            speedVector = targetVector.scale(this.getSpeed()/targetVector.length());
-        return this.getPosition().delta(speedVector);
+        return this.getPosition().delta(targetVector.scale(getStepScale(squareDistance, getSpeed(), getActionRange())));
+    }
+
+    /**
+     * @return Part of the offset to the target, which is passed in one tick: close target is approached
+     * to half of action range, otherwise dweller moves by its speed
+     */
+    static double getStepScale(double squareDistance, double speed, double actionRange)
+    {
+        double length = Math.sqrt(squareDistance);
+        return squareDistance <= speed * speed ? (length - actionRange / 2) / length : speed / length;
     }
 
     //TODO: optimize
@@ -2,14 +2,14 @@ package com.company.life_simulator.dweller.action;
 
 public abstract class Action {
     private final ActionType type;
-    private final Integer dwellerId;
+    private final int dwellerId;
 
-    protected Action(Integer id, ActionType type) {
+    protected Action(int id, ActionType type) {
         this.dwellerId = id;
         this.type = type;
     }
 
-    public Integer getDwellerId() {
+    public int getDwellerId() {
         return dwellerId;
     }
 
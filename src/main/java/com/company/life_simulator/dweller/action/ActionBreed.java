@@ -1,7 +1,7 @@
 package com.company.life_simulator.dweller.action;
 
 public class ActionBreed extends Action {
-    public ActionBreed(Integer dwellerId) {
+    public ActionBreed(int dwellerId) {
         super(dwellerId, ActionType.breed);
     }
 }
@@ -0,0 +1,109 @@
+package com.company.life_simulator.dweller.action;
+
+import com.company.life_simulator.world.quadtree.Point;
+
+import java.util.Arrays;
+
+/**
+ * Actions, encoded into primitive arrays: type, id of the dweller, id of the food for eat, target coordinates for move.
+ * <br>
+ * Buffer is filled by one thread and reused after {@link #clear}, so writing of action allocates nothing.
+ */
+public class ActionBuffer {
+    private static final ActionType[] TYPES = ActionType.values();
+
+    private byte[] types = new byte[64];
+    private int[] dwellerIds = new int[64];
+    private int[] foodIds = new int[64];
+    private double[] targetX = new double[64];
+    private double[] targetY = new double[64];
+    private int size = 0;
+
+    public void move(int dwellerId, double x, double y)
+    {
+        int index = append(ActionType.move, dwellerId);
+        targetX[index] = x;
+        targetY[index] = y;
+    }
+
+    public void move(int dwellerId, Point target)
+    {
+        move(dwellerId, target.getX(), target.getY());
+    }
+
+    public void eat(int dwellerId, int foodId)
+    {
+        int index = append(ActionType.eat, dwellerId);
+        foodIds[index] = foodId;
+    }
+
+    public void breed(int dwellerId)
+    {
+        append(ActionType.breed, dwellerId);
+    }
+
+    public void die(int dwellerId)
+    {
+        append(ActionType.die, dwellerId);
+    }
+
+    private int append(ActionType type, int dwellerId)
+    {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            dwellerIds = Arrays.copyOf(dwellerIds, capacity);
+            foodIds = Arrays.copyOf(foodIds, capacity);
+            targetX = Arrays.copyOf(targetX, capacity);
+            targetY = Arrays.copyOf(targetY, capacity);
+        }
+        types[size] = (byte) type.ordinal();
+        dwellerIds[size] = dwellerId;
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public ActionType getType(int index) {
+        return TYPES[types[index]];
+    }
+
+    public int getDwellerId(int index) {
+        return dwellerIds[index];
+    }
+
+    public int getFoodId(int index) {
+        return foodIds[index];
+    }
+
+    public double getTargetX(int index) {
+        return targetX[index];
+    }
+
+    public double getTargetY(int index) {
+        return targetY[index];
+    }
+
+    /**
+     * @return Action object, which is equal to the encoded action
+     */
+    public Action toAction(int index)
+    {
+        switch (getType(index)) {
+            case move:
+                return new ActionMove(dwellerIds[index], new Point(targetX[index], targetY[index]));
+            case eat:
+                return new ActionEat(dwellerIds[index], foodIds[index]);
+            case breed:
+                return new ActionBreed(dwellerIds[index]);
+            default:
+                return new ActionDie(dwellerIds[index]);
+        }
+    }
+}
@@ -2,7 +2,7 @@ package com.company.life_simulator.dweller.action;
 
 public class ActionDie extends Action{
 
-    public ActionDie(Integer dwellerId) {
+    public ActionDie(int dwellerId) {
         super(dwellerId, ActionType.die);
     }
 }
@@ -1,14 +1,14 @@
 package com.company.life_simulator.dweller.action;
 
 public class ActionEat extends Action {
-    private final Integer foodId;
+    private final int foodId;
 
-    public ActionEat(Integer dwellerId, Integer foodId) {
+    public ActionEat(int dwellerId, int foodId) {
         super(dwellerId, ActionType.eat);
         this.foodId = foodId;
     }
 
-    public Integer getFoodId() {
+    public int getFoodId() {
         return foodId;
     }
 }
@@ -5,7 +5,7 @@ import com.company.life_simulator.world.quadtree.Point;
 public class ActionMove extends Action {
     private final Point target;
 
-    public ActionMove(Integer dwellerId, Point target) {
+    public ActionMove(int dwellerId, Point target) {
         super(dwellerId, ActionType.move);
         this.target = target;
     }
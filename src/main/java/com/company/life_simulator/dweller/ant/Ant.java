@@ -1,17 +1,17 @@
 package com.company.life_simulator.dweller.ant;
 
 import com.company.life_simulator.dweller.Dweller;
+import com.company.life_simulator.dweller.DwellerSpecies;
 import com.company.life_simulator.dweller.DwellerType;
 import com.company.life_simulator.dweller.EatingDweller;
 import com.company.life_simulator.dweller.IMovingDweller;
-import com.company.life_simulator.dweller.action.Action;
+import com.company.life_simulator.dweller.action.ActionBuffer;
 import com.company.life_simulator.dweller.ant.ai.AntAIType;
 import com.company.life_simulator.dweller.ant.ai.IAntAI;
 import com.company.life_simulator.world.World;
+import com.company.life_simulator.world.WorldConfig;
 import com.company.life_simulator.world.quadtree.Point;
 
-import java.util.Optional;
-
 public class Ant extends EatingDweller implements IMovingDweller {
     public static final int REPRODUCTION_RATE = Integer.valueOf(System.getProperty("dweller.ant.reproductionRate", "20"));
     public static final double REPRODUCTION_RANGE = Double.valueOf(System.getProperty("dweller.ant.reproductionRange", "20"));
@@ -20,22 +20,28 @@ public class Ant extends EatingDweller implements IMovingDweller {
     public static final double BASE_SPEED = Double.valueOf(System.getProperty("dweller.ant.baseSpeed", "3"));
     public static final double FOOD_CONSUMPTION = Double.valueOf(System.getProperty("dweller.ant.foodConsumption", "1"));
     public static final double FOOD_SATURATION = Double.valueOf(System.getProperty("dweller.ant.foodSaturation", "50"));
+    public static final DwellerSpecies SPECIES = new DwellerSpecies(DwellerType.ant, VISIBILITY_RANGE, ACTION_RANGE, BASE_SPEED,
+            REPRODUCTION_RATE, REPRODUCTION_RANGE, FOOD_CONSUMPTION, FOOD_SATURATION);
     public static final AntAIType AI_TYPE = AntAIType.valueOf(System.getProperty("dweller.ant.ai.type", "angleDistance"));
 
     private final IAntAI aiImplementation;
 
-    public Ant(Integer id, Point position, int currentTick, double initialFood) {
-        super(DwellerType.ant, id, position, currentTick, VISIBILITY_RANGE, ACTION_RANGE, BASE_SPEED, REPRODUCTION_RATE, REPRODUCTION_RANGE, initialFood, FOOD_CONSUMPTION, FOOD_SATURATION);
-        aiImplementation = AI_TYPE.createAiImplementationInstance();
+    public Ant(int id, Point position, int currentTick, double initialFood) {
+        this(SPECIES, AI_TYPE.createAiImplementationInstance(WorldConfig.DEFAULT), id, position, currentTick, initialFood);
+    }
+
+    public Ant(DwellerSpecies species, IAntAI aiImplementation, int id, Point position, int currentTick, double initialFood) {
+        super(species, id, position, currentTick, initialFood);
+        this.aiImplementation = aiImplementation;
     }
 
     @Override
-    public Optional<Action> doAI(int tick, World world) {
-        return aiImplementation.doAI(this, tick, world);
+    public void doAI(int tick, World world, ActionBuffer actions) {
+        aiImplementation.doAI(this, tick, world, actions);
     }
 
     @Override
-    protected Dweller produceChild(Integer id, Point position, int tick) {
-        return new Ant(id, position, tick, FOOD_SATURATION / 2);
+    protected Dweller produceChild(int id, Point position, int tick) {
+        return new Ant(getSpecies(), aiImplementation.newInstance(), id, position, tick, getSpecies().getFoodSaturation() / 2);
     }
 }
@@ -2,21 +2,23 @@ package com.company.life_simulator.dweller.ant.ai;
 
 import com.company.life_simulator.dweller.ant.ai.implementation.AngleDistanceAI;
 import com.company.life_simulator.dweller.ant.ai.implementation.NearestFood;
+import com.company.life_simulator.world.WorldConfig;
 
-import java.util.function.Supplier;
+import java.util.function.Function;
 
 public enum AntAIType {
-    nearestFood(NearestFood::new),
-    angleDistance(AngleDistanceAI::new);
+    nearestFood(config -> new NearestFood()),
+    angleDistance(config -> new AngleDistanceAI(config.getDirectionDecisionAngle(),
+            config.getDirectionDecisionFoodCoefficient(), config.getDirectionDecisionAntCoefficient()));
 
-    private final Supplier<IAntAI> aiImplementation;
+    private final Function<WorldConfig, IAntAI> aiImplementation;
 
-    AntAIType(Supplier<IAntAI> aiImplementation)
+    AntAIType(Function<WorldConfig, IAntAI> aiImplementation)
     {
         this.aiImplementation = aiImplementation;
     }
 
-    public IAntAI createAiImplementationInstance() {
-        return aiImplementation.get();
+    public IAntAI createAiImplementationInstance(WorldConfig config) {
+        return aiImplementation.apply(config);
     }
 }
@@ -1,11 +1,14 @@
 package com.company.life_simulator.dweller.ant.ai;
 
-import com.company.life_simulator.dweller.action.Action;
+import com.company.life_simulator.dweller.action.ActionBuffer;
 import com.company.life_simulator.dweller.ant.Ant;
 import com.company.life_simulator.world.World;
 
-import java.util.Optional;
-
 public interface IAntAI {
-    Optional<Action> doAI(Ant self, int tick, World world);
+    /**
+     * @return AI of the same type with the same parameters for a child, state of this AI is not copied
+     */
+    IAntAI newInstance();
+
+    void doAI(Ant self, int tick, World world, ActionBuffer actions);
 }
@@ -2,23 +2,18 @@ package com.company.life_simulator.dweller.ant.ai.implementation;
 
 import com.company.life_simulator.dweller.Dweller;
 import com.company.life_simulator.dweller.DwellerType;
-import com.company.life_simulator.dweller.Food;
-import com.company.life_simulator.dweller.action.Action;
-import com.company.life_simulator.dweller.action.ActionBreed;
-import com.company.life_simulator.dweller.action.ActionDie;
-import com.company.life_simulator.dweller.action.ActionEat;
-import com.company.life_simulator.dweller.action.ActionMove;
+import com.company.life_simulator.dweller.action.ActionBuffer;
 import com.company.life_simulator.dweller.ant.Ant;
 import com.company.life_simulator.dweller.ant.ai.IAntAI;
+import com.company.life_simulator.world.NeighbourList;
 import com.company.life_simulator.world.World;
 import com.company.life_simulator.world.quadtree.Point;
 import com.company.life_simulator.world.quadtree.Vector;
-import org.javatuples.Pair;
-import org.javatuples.Triplet;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 public class AngleDistanceAI implements IAntAI
 {
@@ -26,33 +21,75 @@ public class AngleDistanceAI implements IAntAI
     public static final double DIRECTION_DECISION_FOOD_COEFFICIENT = Double.valueOf(System.getProperty("dweller.ant.ai.angle_distance.food_coefficient", "4"));
     public static final double DIRECTION_DECISION_ANT_COEFFICIENT = Double.valueOf(System.getProperty("dweller.ant.ai.angle_distance.ant_coefficient", "-2"));
 
+    //neighbours and scratch of the current thread, reused between ants to avoid allocation per decision
+    private static final ThreadLocal<List<Dweller>> NEIGHBOURS = ThreadLocal.withInitial(ArrayList::new);
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final double directionDecisionAngle;
+    private final double foodCoefficient;
+    private final double antCoefficient;
+    private final NeighbourList neighbourList = new NeighbourList();
     private Vector speedVector;
 
+    public AngleDistanceAI()
+    {
+        this(DIRECTION_DECISION_ANGLE, DIRECTION_DECISION_FOOD_COEFFICIENT, DIRECTION_DECISION_ANT_COEFFICIENT);
+    }
+
+    public AngleDistanceAI(double directionDecisionAngle, double foodCoefficient, double antCoefficient)
+    {
+        this.directionDecisionAngle = directionDecisionAngle;
+        this.foodCoefficient = foodCoefficient;
+        this.antCoefficient = antCoefficient;
+    }
+
     @Override
-    public Optional<Action> doAI(Ant self, int tick, World world) {
+    public IAntAI newInstance() {
+        return new AngleDistanceAI(directionDecisionAngle, foodCoefficient, antCoefficient);
+    }
+
+    @Override
+    public void doAI(Ant self, int tick, World world, ActionBuffer actions) {
         if(self.canReproduce(tick))
         {
-            return Optional.of(new ActionBreed(self.getId()));
+            actions.breed(self.getId());
+            return;
         }
         self.consumeFood();
         if (self.isStarving())
         {
-            return Optional.of(new ActionDie(self.getId()));
+            actions.die(self.getId());
+            return;
         }
-        List<Dweller> dwellers = world.getDwellersInRange(self.getPosition(), self.getVisibilityRange());
-        Optional<Food> nearFoodOptional = dwellers.stream()
-                .filter(dweller -> dweller.getType() == DwellerType.food)
-                .filter(dweller -> self.getPosition().distance(dweller.getPosition()) <= self.getActionRange())
-                .map(dweller -> (Food)dweller)
-                .findAny();
-
-        if (nearFoodOptional.isPresent())
-        {
-            speedVector = null;
-            return Optional.of(new ActionEat(self.getId(), nearFoodOptional.get().getId()));
+        List<Dweller> dwellers = NEIGHBOURS.get();
+        try {
+            int foodCount = neighbourList.getDwellersInRange(world, self.getPosition(), self.getVisibilityRange(), DwellerType.food, dwellers);
+            neighbourList.getDwellersInRange(world, self.getPosition(), self.getVisibilityRange(), DwellerType.ant, dwellers);
+            chooseAction(self, world, dwellers, foodCount, actions);
+        } finally {
+            dwellers.clear();
+        }
+    }
+
+    /**
+     * @param dwellers visible food, followed by visible ants
+     * @param foodCount number of food in dwellers
+     */
+    private void chooseAction(Ant self, World world, List<Dweller> dwellers, int foodCount, ActionBuffer actions)
+    {
+        Point selfPosition = self.getPosition();
+        Function<Dweller, Point> positionOf = dweller -> world.getImage(selfPosition, dweller.getPosition());
+        for (int i = 0; i < foodCount; i++) {
+            Dweller dweller = dwellers.get(i);
+            if (selfPosition.squareDistance(positionOf.apply(dweller)) <= self.getSquareActionRange()) {
+                speedVector = null;
+                actions.eat(self.getId(), dweller.getId());
+                return;
+            }
         }
 
-        Optional<Vector> foodOptional = chooseDirection(self.getPosition(), dwellers);
+        Optional<Vector> foodOptional = chooseDirection(selfPosition, dwellers, positionOf,
+                directionDecisionAngle, foodCoefficient, antCoefficient);
 
         Point target;
         if (foodOptional.isPresent())
@@ -63,52 +100,111 @@ public class AngleDistanceAI implements IAntAI
         else
         {
             if (speedVector == null)
-                speedVector = self.getRandomDirection(world.getRandom()).scale(self.getSpeed());
+                speedVector = self.getRandomDirection(world.getRandom(self)).scale(self.getSpeed());
             target = self.getPosition().delta(speedVector);
         }
-        return Optional.of(new ActionMove(self.getId(), target));
+        actions.move(self.getId(), target);
     }
 
+    /**
+     * Chooses food, which direction is supported by the most of other food and is not blocked by other ants
+     *
+     * @return Vector to the chosen food, empty if there is no food
+     */
     public static Optional<Vector> chooseDirection(Point selfPosition, List<Dweller> dwellers)
     {
-        long foodCount = dwellers.stream()
-                .filter(dweller -> dweller.getType().equals(DwellerType.food))
-                .count();
+        return chooseDirection(selfPosition, dwellers, Dweller::getPosition);
+    }
+
+    /**
+     * Chooses direction as {@link #chooseDirection(Point, List)} does, positions of dwellers are taken from the function
+     */
+    public static Optional<Vector> chooseDirection(Point selfPosition, List<Dweller> dwellers, Function<Dweller, Point> positionOf)
+    {
+        return chooseDirection(selfPosition, dwellers, positionOf,
+                DIRECTION_DECISION_ANGLE, DIRECTION_DECISION_FOOD_COEFFICIENT, DIRECTION_DECISION_ANT_COEFFICIENT);
+    }
+
+    private static Optional<Vector> chooseDirection(Point selfPosition, List<Dweller> dwellers, Function<Dweller, Point> positionOf,
+                                                    double directionDecisionAngle, double foodCoefficient, double antCoefficient)
+    {
+        int size = dwellers.size();
+        Scratch scratch = SCRATCH.get();
+        scratch.ensureCapacity(size);
 
+        //food goes first, order keeps index of the dweller for every position of scratch
+        int foodCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (dwellers.get(i).getType() == DwellerType.food)
+                scratch.order[foodCount++] = i;
+        }
         if (foodCount == 0)
             return Optional.empty();
+        int next = foodCount;
+        for (int i = 0; i < size; i++) {
+            if (dwellers.get(i).getType() != DwellerType.food)
+                scratch.order[next++] = i;
+        }
+        for (int k = 0; k < size; k++) {
+            Point position = positionOf.apply(dwellers.get(scratch.order[k]));
+            double dx = position.getX() - selfPosition.getX();
+            double dy = position.getY() - selfPosition.getY();
+            scratch.angles[k] = Vector.angle(dx, dy);
+            scratch.weights[k] = (k < foodCount ? foodCoefficient : antCoefficient) / (dx * dx + dy * dy);
+        }
 
-        List<Triplet<Vector, DwellerType, Double>> vectors = dwellers.stream()
-                .map(dweller -> {
-                    double coefficient;
-                    if (dweller.getType() == DwellerType.ant)
-                        coefficient = DIRECTION_DECISION_ANT_COEFFICIENT;
-                    else
-                        coefficient = DIRECTION_DECISION_FOOD_COEFFICIENT;
-                    Vector vector = new Vector(selfPosition, dweller.getPosition());
-                    return Triplet.with(vector, dweller.getType(), coefficient / vector.squareLength());
-                })
-                .collect(Collectors.toList());
-
-        return vectors.stream()
-                .filter(pair -> pair.getValue1() == DwellerType.food)
-                .map(current -> {
-                    double weight = vectors.stream()
-                            .map(triplet -> {
-                                double angle = Math.abs(triplet.getValue0().angle() - current.getValue0().angle());
-                                if (angle > 0.5)
-                                    angle -= 0.5;
-                                return Pair.with(DIRECTION_DECISION_ANGLE - angle, triplet.getValue2());
-                            })
-                            .filter(triplet -> triplet.getValue0() > 0)
-                            .map(pair -> pair.getValue0() * pair.getValue1())
-                            .mapToDouble(Double::doubleValue)
-                            .sum();
-                    return Pair.with(current.getValue0(), weight);
-                })
-                .sorted((o1, o2) -> -Double.compare(o1.getValue1(), o2.getValue1()))
-                .map(Pair::getValue0)
-                .findFirst();
+        int best = chooseFood(scratch.angles, scratch.weights, size, foodCount, directionDecisionAngle);
+        return Optional.of(new Vector(selfPosition, positionOf.apply(dwellers.get(scratch.order[best]))));
+    }
+
+    /**
+     * Chooses food, which direction is supported by the most of other food and is not blocked by other ants.
+     * Rule is shared by the dweller and entity worlds
+     *
+     * @param angles angle of every visible dweller in turns
+     * @param weights coefficient of every visible dweller, divided by square distance to it
+     * @param foodCount visible food are the first dwellers
+     * @return Index of the chosen food, -1 if there is no food
+     */
+    public static int chooseFood(double[] angles, double[] weights, int size, int foodCount, double directionDecisionAngle)
+    {
+        int best = -1;
+        double bestWeight = 0;
+        for (int i = 0; i < foodCount; i++) {
+            double currentAngle = angles[i];
+            double weight = 0;
+            for (int j = 0; j < size; j++) {
+                double angle = Math.abs(angles[j] - currentAngle);
+                if (angle > 0.5)
+                    angle -= 0.5;
+                double angleWeight = directionDecisionAngle - angle;
+                if (angleWeight > 0)
+                    weight += angleWeight * weights[j];
+            }
+            if (best < 0 || weight > bestWeight) {
+                best = i;
+                bestWeight = weight;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Angles, weights and order of visible dwellers, reused by the thread between decisions
+     */
+    private static class Scratch {
+        double[] angles = new double[64];
+        double[] weights = new double[64];
+        int[] order = new int[64];
+
+        void ensureCapacity(int size)
+        {
+            if (angles.length >= size)
+                return;
+            angles = new double[size * 2];
+            weights = new double[size * 2];
+            order = new int[size * 2];
+        }
     }
 
     @Override
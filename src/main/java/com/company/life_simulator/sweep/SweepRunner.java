@@ -0,0 +1,214 @@
+package com.company.life_simulator.sweep;
+
+import com.company.life_simulator.Main;
+import com.company.life_simulator.dweller.DwellerType;
+import com.company.life_simulator.world.World;
+import com.company.life_simulator.world.WorldBuilder;
+import com.company.life_simulator.world.WorldConfig;
+import com.company.life_simulator.world.executor.TickExecutorType;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a grid of simulations in one JVM: every combination of parameter values with every seed.
+ * <p/>
+ * Grid is given as properties: every parameter of {@link WorldConfig#fromProperties config} may have several values,
+ * separated by commas, and {@value #SEEDS} lists seeds. Parameters, which are not in the grid, take values of system properties.
+ * <br>
+ * Every world has its own config and ticks sequentially in one worker of the shared pool, so runs do not compete for threads.
+ * At most two runs per worker wait for the pool. Run lasts until ants die out or {@code maxTicks} pass, its result is
+ * written to the output as soon as it is done, so order of results is order of completion.
+ */
+public class SweepRunner {
+    public static final String SEEDS = "sweep.seeds";
+    private static final String[] RESULT_COLUMNS = {"seed", "lifetimeTicks", "extinct", "peakPopulation", "ticksPerSecond"};
+
+    private final int parallelism;
+    private final int maxTicks;
+
+    public SweepRunner(int parallelism, int maxTicks)
+    {
+        if (parallelism < 1 || maxTicks < 1)
+            throw new IllegalArgumentException("Parallelism and max ticks must be positive: " + parallelism + ", " + maxTicks);
+        this.parallelism = parallelism;
+        this.maxTicks = maxTicks;
+    }
+
+    /**
+     * Runs the grid, writes header and then a line of comma separated values per run: values of grid parameters and results
+     */
+    public void run(Properties grid, Writer output) throws IOException, InterruptedException
+    {
+        List<Integer> seeds = Arrays.stream(grid.getProperty(SEEDS, "0").split(","))
+                .map(seed -> Integer.valueOf(seed.trim()))
+                .collect(Collectors.toList());
+        Properties parameters = new Properties();
+        grid.stringPropertyNames().stream()
+                .filter(name -> !name.equals(SEEDS))
+                .forEach(name -> parameters.setProperty(name, grid.getProperty(name)));
+        List<Map<String, String>> parameterSets = expand(parameters);
+
+        List<String> header = new ArrayList<>(new TreeSet<>(parameters.stringPropertyNames()));
+        header.addAll(Arrays.asList(RESULT_COLUMNS));
+        output.write(String.join(",", header) + System.lineSeparator());
+        output.flush();
+
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism,
+                new ThreadFactoryBuilder().setNameFormat("SweepWorker-%d").setDaemon(true).build());
+        Semaphore queued = new Semaphore(parallelism * 3);
+        try {
+            for (Map<String, String> parameterSet : parameterSets) {
+                Properties properties = new Properties(System.getProperties());
+                parameterSet.forEach(properties::setProperty);
+                WorldConfig config = WorldConfig.fromProperties(properties);
+                for (int seed : seeds) {
+                    queued.acquire();
+                    pool.execute(() -> {
+                        try {
+                            RunResult result = run(config, seed);
+                            write(output, parameterSet, result);
+                        } catch (Exception e) {
+                            e.printStackTrace();
+                        } finally {
+                            queued.release();
+                        }
+                    });
+                }
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * @return Every combination of values of the parameters, parameters are sorted by names
+     */
+    static List<Map<String, String>> expand(Properties parameters)
+    {
+        List<Map<String, String>> parameterSets = new ArrayList<>();
+        parameterSets.add(new LinkedHashMap<>());
+        for (String name : new TreeSet<>(parameters.stringPropertyNames())) {
+            List<Map<String, String>> expanded = new ArrayList<>();
+            for (Map<String, String> parameterSet : parameterSets) {
+                for (String value : parameters.getProperty(name).split(",")) {
+                    Map<String, String> copy = new LinkedHashMap<>(parameterSet);
+                    copy.put(name, value.trim());
+                    expanded.add(copy);
+                }
+            }
+            parameterSets = expanded;
+        }
+        return parameterSets;
+    }
+
+    /**
+     * Runs one world in the current thread
+     */
+    RunResult run(WorldConfig config, int seed)
+    {
+        try (World world = WorldBuilder.createWorld(config, seed, TickExecutorType.sequential.createExecutor(1))) {
+            int peakPopulation = world.getDwellersCount();
+            long start = System.nanoTime();
+            while (world.getDwellersCount(DwellerType.ant) > 0 && world.getCurrentTick() < maxTicks) {
+                world.tick();
+                peakPopulation = Math.max(peakPopulation, world.getDwellersCount());
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            return new RunResult(seed, world.getCurrentTick(), world.getDwellersCount(DwellerType.ant) == 0, peakPopulation,
+                    seconds > 0 ? world.getCurrentTick() / seconds : 0);
+        }
+    }
+
+    private static void write(Writer output, Map<String, String> parameterSet, RunResult result) throws IOException
+    {
+        List<String> values = new ArrayList<>(parameterSet.values());
+        values.add(String.valueOf(result.getSeed()));
+        values.add(String.valueOf(result.getLifetimeTicks()));
+        values.add(String.valueOf(result.isExtinct()));
+        values.add(String.valueOf(result.getPeakPopulation()));
+        values.add(String.format(Locale.ROOT, "%.1f", result.getTicksPerSecond()));
+        synchronized (output) {
+            output.write(String.join(",", values) + System.lineSeparator());
+            output.flush();
+        }
+    }
+
+    /**
+     * Arguments: file of the grid and file of results. Number of parallel runs is set by {@code sweep.parallelism},
+     * limit of ticks per run by {@code sweep.maxTicks}
+     */
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        if (args.length != 2)
+            throw new IllegalArgumentException("Usage: SweepRunner <grid.properties> <results.csv>");
+        Main.loadProperties();
+        Properties grid = new Properties();
+        try (Reader reader = new FileReader(args[0])) {
+            grid.load(reader);
+        }
+        int parallelism = Integer.valueOf(System.getProperty("sweep.parallelism", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int maxTicks = Integer.valueOf(System.getProperty("sweep.maxTicks", "10000"));
+        try (Writer output = new FileWriter(args[1])) {
+            new SweepRunner(parallelism, maxTicks).run(grid, output);
+        }
+    }
+
+    public static class RunResult {
+        private final int seed;
+        private final int lifetimeTicks;
+        private final boolean extinct;
+        private final int peakPopulation;
+        private final double ticksPerSecond;
+
+        RunResult(int seed, int lifetimeTicks, boolean extinct, int peakPopulation, double ticksPerSecond)
+        {
+            this.seed = seed;
+            this.lifetimeTicks = lifetimeTicks;
+            this.extinct = extinct;
+            this.peakPopulation = peakPopulation;
+            this.ticksPerSecond = ticksPerSecond;
+        }
+
+        public int getSeed() {
+            return seed;
+        }
+
+        /**
+         * @return Tick, when the last ant died, or limit of ticks, if ants outlived it
+         */
+        public int getLifetimeTicks() {
+            return lifetimeTicks;
+        }
+
+        public boolean isExtinct() {
+            return extinct;
+        }
+
+        public int getPeakPopulation() {
+            return peakPopulation;
+        }
+
+        public double getTicksPerSecond() {
+            return ticksPerSecond;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.company.life_simulator.ui;
 import com.company.life_simulator.dweller.Dweller;
 import com.company.life_simulator.dweller.DwellerType;
 import com.company.life_simulator.world.World;
+import com.company.life_simulator.world.WorldSnapshot;
+import com.company.life_simulator.world.quadtree.Point;
 import com.company.life_simulator.world.quadtree.Rectangle;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
@@ -10,6 +12,7 @@ import javafx.scene.paint.Color;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 public class WorldDrawer {
     private static final Map<DwellerType, Color> COLOR_MAP = new HashMap<>();
@@ -21,7 +24,32 @@ public class WorldDrawer {
 
     public static void drawWorld(World world, Canvas canvas, boolean showVisibilityRange)
     {
-        Rectangle size = world.getSize();
+        Optional<WorldSnapshot> snapshot = world.getSnapshot();
+        if (snapshot.isPresent()) {
+            drawSnapshot(snapshot.get(), canvas, showVisibilityRange);
+            return;
+        }
+        double ratio = drawBackground(world.getSize(), canvas);
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        world.getDwellers()
+                .forEach(dweller -> drawDweller(gc, dweller.getPosition(), dweller, showVisibilityRange, ratio));
+    }
+
+    public static void drawSnapshot(WorldSnapshot snapshot, Canvas canvas, boolean showVisibilityRange)
+    {
+        double ratio = drawBackground(snapshot.getSize(), canvas);
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        snapshot.forEachDweller((position, dweller) -> {
+            drawDweller(gc, position, dweller, showVisibilityRange, ratio);
+            return true;
+        });
+    }
+
+    /**
+     * @return Ratio of the canvas to the world
+     */
+    private static double drawBackground(Rectangle size, Canvas canvas)
+    {
         double ratio = Math.min(canvas.getWidth() / size.getWidth(), canvas.getHeight() / size.getHeight());
         GraphicsContext gc = canvas.getGraphicsContext2D();
 
@@ -29,18 +57,17 @@ public class WorldDrawer {
         gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
         gc.setFill(Color.WHITE);
         gc.fillRect(0, 0, size.getWidth() * ratio, size.getHeight() * ratio);
-        world.getDwellers()
-                .forEach(dweller -> drawDweller(gc, dweller, showVisibilityRange, ratio));
+        return ratio;
     }
 
-    private static void drawDweller(GraphicsContext gc, Dweller dweller, boolean showVisibilityRange, double ratio)
+    private static void drawDweller(GraphicsContext gc, Point position, Dweller dweller, boolean showVisibilityRange, double ratio)
     {
         if (showVisibilityRange && dweller.getVisibilityRange() > 0) {
             gc.setStroke(Color.YELLOW);
             double radius = dweller.getVisibilityRange() * ratio;
-            gc.strokeOval(dweller.getPosition().getX() * ratio - radius, dweller.getPosition().getY() * ratio - radius, radius * 2 , radius * 2);
+            gc.strokeOval(position.getX() * ratio - radius, position.getY() * ratio - radius, radius * 2 , radius * 2);
         }
         gc.setFill(COLOR_MAP.get(dweller.getType()));
-        gc.fillRect(dweller.getPosition().getX() * ratio, dweller.getPosition().getY() * ratio, ratio, ratio);
+        gc.fillRect(position.getX() * ratio, position.getY() * ratio, ratio, ratio);
     }
 }
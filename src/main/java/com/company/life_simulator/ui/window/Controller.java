@@ -4,6 +4,7 @@ import com.company.life_simulator.ui.ResizableCanvas;
 import com.company.life_simulator.ui.WorldDrawer;
 import com.company.life_simulator.world.World;
 import com.company.life_simulator.world.WorldPlayer;
+import com.company.life_simulator.world.WorldSnapshot;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.canvas.GraphicsContext;
@@ -13,6 +14,9 @@ import javafx.scene.control.ToggleButton;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
 public class Controller {
     @FXML
     public ToggleButton toggleVisibility;
@@ -35,6 +39,23 @@ public class Controller {
         this.player = worldPlayer;
         this.world = worldPlayer.getWorld();
         redraw();
+        if (world.getSnapshot().isPresent()) {
+            //handler waits for the drawing, so the world runs at most one tick ahead of the canvas
+            world.addSnapshotHandler((tick, snapshot) -> {
+                FutureTask<Void> drawing = new FutureTask<>(() -> {
+                    if (snapshot.getDwellersCount() == 0)
+                        playButton.setSelected(false);
+                    onSnapshot(snapshot);
+                }, null);
+                Platform.runLater(drawing);
+                try {
+                    drawing.get();
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                }
+            }, 1);
+            return;
+        }
         world.addTickHandler((tick, world1) -> Platform.runLater(()->{
             if (world.getDwellersCount() == 0)
                 playButton.setSelected(false);
@@ -80,6 +101,13 @@ public class Controller {
         redraw();
     }
 
+    private void onSnapshot(WorldSnapshot snapshot)
+    {
+        tickLabel.setText(String.format("Tick: %d", snapshot.getTick()));
+        dwellersLabel.setText(String.format("Dwellers: %d", snapshot.getDwellersCount()));
+        WorldDrawer.drawSnapshot(snapshot, canvas, toggleVisibility.isSelected());
+    }
+
     private void redraw()
     {
         if (world != null)
@@ -0,0 +1,80 @@
+package com.company.life_simulator.util;
+
+import java.util.Random;
+
+/**
+ * Counter-based generator: n-th number is the SplitMix64 mix of the key and n. Key is mixed from its parts,
+ * e.g. seed, tick and id, so generators with the same key give the same numbers in any thread and in any order.
+ * <br>
+ * Generator is not thread-safe, it is created for one decision, or {@link #rekey re-keyed} by its thread for the next one.
+ */
+public class CounterRandom extends Random {
+    private static final long serialVersionUID = 1L;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    //generator of the current thread, re-keyed for every decision to avoid allocation per decision
+    private static final ThreadLocal<CounterRandom> OF_THREAD = ThreadLocal.withInitial(CounterRandom::new);
+
+    private long key;
+    private long counter = 0;
+
+    public CounterRandom(long... keyParts)
+    {
+        super(0);
+        long key = 0;
+        for (long part : keyParts)
+            key = mix(key + GOLDEN_GAMMA + part);
+        this.key = key;
+    }
+
+    /**
+     * @return Generator of the current thread with the key of three parts, it gives the same numbers as new generator with this key.
+     * Generator is valid until the next call in the same thread
+     */
+    public static CounterRandom ofThread(long first, long second, long third)
+    {
+        return OF_THREAD.get().rekey(first, second, third);
+    }
+
+    /**
+     * Replaces key of the generator and starts its numbers from the beginning
+     *
+     * @return This generator
+     */
+    public CounterRandom rekey(long first, long second, long third)
+    {
+        //drops state, which Random keeps beside the key
+        super.setSeed(0);
+        key = mix(mix(mix(GOLDEN_GAMMA + first) + GOLDEN_GAMMA + second) + GOLDEN_GAMMA + third);
+        counter = 0;
+        return this;
+    }
+
+    @Override
+    protected int next(int bits)
+    {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public long nextLong()
+    {
+        return mix(key + GOLDEN_GAMMA * ++counter);
+    }
+
+    @Override
+    public double nextDouble()
+    {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Finalizer of SplitMix64
+     */
+    private static long mix(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,130 @@
+package com.company.life_simulator.world;
+
+import com.company.life_simulator.dweller.Dweller;
+import com.company.life_simulator.dweller.DwellerType;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Dwellers by their ids. Id is index of the slot in the array, so lookup is an index into the array without boxing.
+ * <p/>
+ * Slot of the removed dweller is not reused until {@link #recycleRemoved()}, which world calls between ticks:
+ * ids of actions of the tick never refer to a dweller born in the same tick, and world keeps ids no longer than one tick.
+ * Number of dwellers is limited only by the array.
+ * <br>
+ * Registry is changed by single thread, lookups of unchanged registry may be done by any number of threads.
+ */
+class DwellerRegistry {
+    private static final byte FREE = 0;
+    private static final byte RESERVED = 1;
+    private static final byte USED = 2;
+    private static final byte REMOVED = 3;
+
+    private Dweller[] dwellers = new Dweller[16];
+    private byte[] states = new byte[16];
+    private int slots = 0;
+    private int[] freeSlots = new int[16];
+    private int freeCount = 0;
+    private int[] removedSlots = new int[16];
+    private int removedCount = 0;
+    private int count = 0;
+    private final int[] typeCounts = new int[DwellerType.values().length];
+
+    /**
+     * @return Id for new dweller, its slot is free until the dweller is {@link #put}
+     */
+    int reserve()
+    {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slots == dwellers.length) {
+                dwellers = Arrays.copyOf(dwellers, slots * 2);
+                states = Arrays.copyOf(states, slots * 2);
+            }
+            slot = slots++;
+        }
+        states[slot] = RESERVED;
+        return slot;
+    }
+
+    void put(Dweller dweller)
+    {
+        int slot = dweller.getId();
+        if (slot < 0 || slot >= slots || (states[slot] != RESERVED && states[slot] != USED)) {
+            throw new IllegalArgumentException("Id is not reserved: " + dweller.getId());
+        }
+        if (dwellers[slot] != null)
+            typeCounts[dwellers[slot].getType().ordinal()]--;
+        else
+            count++;
+        typeCounts[dweller.getType().ordinal()]++;
+        dwellers[slot] = dweller;
+        states[slot] = USED;
+    }
+
+    /**
+     * @return Dweller with the id, null if it was removed
+     */
+    Dweller get(int id)
+    {
+        if (id < 0 || id >= slots)
+            return null;
+        return dwellers[id];
+    }
+
+    /**
+     * Removes the dweller, its slot is reused after {@link #recycleRemoved()}
+     *
+     * @return False if the dweller was not in registry
+     */
+    boolean remove(Dweller dweller)
+    {
+        int slot = dweller.getId();
+        if (get(slot) != dweller)
+            return false;
+        dwellers[slot] = null;
+        states[slot] = REMOVED;
+        if (removedCount == removedSlots.length)
+            removedSlots = Arrays.copyOf(removedSlots, removedCount * 2);
+        removedSlots[removedCount++] = slot;
+        count--;
+        typeCounts[dweller.getType().ordinal()]--;
+        return true;
+    }
+
+    /**
+     * Frees slots of the dwellers removed since the previous call, ids of them may be issued again
+     */
+    void recycleRemoved()
+    {
+        if (freeCount + removedCount > freeSlots.length)
+            freeSlots = Arrays.copyOf(freeSlots, Math.max(freeSlots.length * 2, freeCount + removedCount));
+        for (int i = 0; i < removedCount; i++) {
+            states[removedSlots[i]] = FREE;
+            freeSlots[freeCount++] = removedSlots[i];
+        }
+        removedCount = 0;
+    }
+
+    int size()
+    {
+        return count;
+    }
+
+    int size(DwellerType type)
+    {
+        return typeCounts[type.ordinal()];
+    }
+
+    /**
+     * @return Dwellers in order of their slots, stream is backed by the array, so parallel stream splits it evenly
+     */
+    Stream<Dweller> stream()
+    {
+        return Arrays.stream(dwellers, 0, slots).filter(Objects::nonNull);
+    }
+}
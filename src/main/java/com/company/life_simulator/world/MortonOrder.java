@@ -0,0 +1,154 @@
+package com.company.life_simulator.world;
+
+import com.company.life_simulator.dweller.Dweller;
+import com.company.life_simulator.world.quadtree.Point;
+import com.company.life_simulator.world.quadtree.Rectangle;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Dwellers in Z-order(Morton order) of their positions, so neighbours in the array are mostly neighbours in the world.
+ * <br>
+ * New dwellers are appended to the end, dead ones are dropped by {@link #compact}, order is restored by {@link #sort}.
+ * Dwellers move little between sorts, so sort is incremental: dwellers of the previous sort are nearly in order and are
+ * sorted by insertion, new dwellers are sorted apart and merged with them.
+ */
+class MortonOrder {
+    private static final int COORDINATE_BITS = 15;
+    //sign bit of sort key stays clear
+    private static final int INDEX_BITS = 63 - 2 * COORDINATE_BITS;
+    //insertion sort gives up after so many shifts per dweller and falls back to full sort
+    private static final int SHIFTS_PER_DWELLER = 8;
+
+    private final Rectangle size;
+    private Dweller[] dwellers = new Dweller[16];
+    private int count = 0;
+    //dwellers before this index are ordered by the last sort
+    private int sortedCount = 0;
+    private Dweller[] buffer = new Dweller[0];
+    private long[] keys = new long[0];
+    private long[] mergedKeys = new long[0];
+
+    MortonOrder(Rectangle size) {
+        this.size = size;
+    }
+
+    void add(Dweller dweller) {
+        if (count == dwellers.length)
+            dwellers = Arrays.copyOf(dwellers, count * 2);
+        dwellers[count++] = dweller;
+    }
+
+    /**
+     * Drops dwellers, which are not alive anymore, keeping order of others
+     */
+    void compact(Predicate<Dweller> alive) {
+        int alives = 0;
+        int sortedAlives = 0;
+        for (int i = 0; i < count; i++) {
+            if (alive.test(dwellers[i])) {
+                dwellers[alives++] = dwellers[i];
+                if (i < sortedCount)
+                    sortedAlives++;
+            }
+        }
+        sortedCount = sortedAlives;
+        Arrays.fill(dwellers, alives, count, null);
+        count = alives;
+    }
+
+    /**
+     * Sorts dwellers by Morton codes of their current positions. Code and index of dweller are packed into one long,
+     * so sort of primitive array does the job.
+     */
+    void sort() {
+        if (keys.length < count) {
+            keys = new long[dwellers.length];
+            mergedKeys = new long[dwellers.length];
+        }
+        for (int i = 0; i < count; i++)
+            keys[i] = encode(dwellers[i].getPosition()) << INDEX_BITS | i;
+        if (!insertionSort(keys, sortedCount, (long) SHIFTS_PER_DWELLER * sortedCount))
+            Arrays.sort(keys, 0, sortedCount);
+        Arrays.sort(keys, sortedCount, count);
+        merge(keys, sortedCount, count, mergedKeys);
+
+        if (buffer.length != dwellers.length)
+            buffer = new Dweller[dwellers.length];
+        long indexMask = (1L << INDEX_BITS) - 1;
+        for (int i = 0; i < count; i++)
+            buffer[i] = dwellers[(int) (mergedKeys[i] & indexMask)];
+        Dweller[] sorted = buffer;
+        buffer = dwellers;
+        dwellers = sorted;
+        sortedCount = count;
+    }
+
+    /**
+     * Sorts keys[0, to) by insertion, which takes time of number of shifts for nearly sorted keys
+     *
+     * @return False, if the sort was stopped after the maximum number of shifts, keys are partly sorted then
+     */
+    static boolean insertionSort(long[] keys, int to, long maxShifts) {
+        long shifts = 0;
+        for (int i = 1; i < to; i++) {
+            long key = keys[i];
+            int j = i - 1;
+            if (keys[j] <= key)
+                continue;
+            while (j >= 0 && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            shifts += i - 1 - j;
+            if (shifts > maxShifts)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Merges sorted keys[0, middle) and keys[middle, to) into result
+     */
+    private static void merge(long[] keys, int middle, int to, long[] result) {
+        int left = 0;
+        int right = middle;
+        for (int i = 0; i < to; i++) {
+            if (right >= to || left < middle && keys[left] <= keys[right])
+                result[i] = keys[left++];
+            else
+                result[i] = keys[right++];
+        }
+    }
+
+    /**
+     * @return Dwellers in current order, parallel stream splits them into contiguous parts
+     */
+    Stream<Dweller> stream() {
+        return Arrays.stream(dwellers, 0, count);
+    }
+
+    /**
+     * @return Morton code of the point: interleaved bits of its coordinates, quantized to {@value #COORDINATE_BITS} bits
+     */
+    long encode(Point point) {
+        long maxCoordinate = (1L << COORDINATE_BITS) - 1;
+        long x = (long) ((point.getX() - size.getLeft()) / size.getWidth() * maxCoordinate);
+        long y = (long) ((point.getY() - size.getTop()) / size.getHeight() * maxCoordinate);
+        return spread(Math.max(0, Math.min(maxCoordinate, x))) | spread(Math.max(0, Math.min(maxCoordinate, y))) << 1;
+    }
+
+    /**
+     * @return Bits of the value, moved to even positions
+     */
+    private static long spread(long value) {
+        value = (value | value << 8) & 0x00FF00FFL;
+        value = (value | value << 4) & 0x0F0F0F0FL;
+        value = (value | value << 2) & 0x33333333L;
+        value = (value | value << 1) & 0x55555555L;
+        return value;
+    }
+}
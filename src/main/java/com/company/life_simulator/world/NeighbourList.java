@@ -0,0 +1,141 @@
+package com.company.life_simulator.world;
+
+import com.company.life_simulator.dweller.Dweller;
+import com.company.life_simulator.dweller.DwellerType;
+import com.company.life_simulator.world.quadtree.Point;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Verlet neighbour list of one dweller: dwellers of a layer within the range, enlarged by {@link World#NEIGHBOUR_LIST_SKIN skin},
+ * are found once and are filtered by distance, while they may still contain all dwellers within the range.
+ * <p/>
+ * List of the layer is rebuilt, when the owner has moved from the center of the list farther than the skin,
+ * less travel of the layer since the list was built, or when the list was not used for {@value RegionChanges#KEEP_TICKS} ticks.
+ * Otherwise dwellers, which were added near the list since the last use, are taken from {@link RegionChanges}
+ * and removed dwellers are skipped. Only layers, which did not move in the last tick, are kept: list of moving layer
+ * would be stale in a couple of ticks, so it is searched as usual.
+ * <br>
+ * List gives the same dwellers as search of the world, though in other order. It is used by the thread of its owner,
+ * world without skin or with tiles is always searched.
+ */
+public class NeighbourList {
+    //lists are allocated by the first search, which uses them
+    private List<Dweller>[] dwellers;
+    private Point[] centers;
+    private double[] radii;
+    private double[] travels;
+    private long[] sequences;
+    private int[] ticks;
+
+    @SuppressWarnings("unchecked")
+    private void allocate()
+    {
+        int types = DwellerType.values().length;
+        //generic array can not be created, array holds only lists of dwellers
+        dwellers = (List<Dweller>[]) new List<?>[types];
+        for (int i = 0; i < types; i++)
+            dwellers[i] = new ArrayList<>();
+        centers = new Point[types];
+        radii = new double[types];
+        travels = new double[types];
+        sequences = new long[types];
+        ticks = new int[types];
+    }
+
+    /**
+     * Adds dwellers of the type within range, except dweller at the point itself, to the result,
+     * as {@link World#getDwellersInRange(Point, double, DwellerType, Collection)} does
+     *
+     * @return Number of added dwellers
+     */
+    public int getDwellersInRange(World world, Point point, double range, DwellerType type, Collection<? super Dweller> result)
+    {
+        List<Dweller> candidates = getCandidates(world, point, range, type);
+        if (candidates == null)
+            return world.getDwellersInRange(point, range, type, result);
+        int count = 0;
+        for (Dweller dweller : candidates) {
+            if (isWithin(world, point, range, dweller)) {
+                result.add(dweller);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the nearest dweller of the type within range, except dweller at the point itself,
+     * as {@link World#getNearestDweller(Point, double, DwellerType, java.util.function.Predicate)} does without filter
+     */
+    public Optional<Dweller> getNearestDweller(World world, Point point, double range, DwellerType type)
+    {
+        List<Dweller> candidates = getCandidates(world, point, range, type);
+        if (candidates == null)
+            return world.getNearestDweller(point, range, type, dweller -> true);
+        Dweller nearest = null;
+        double nearestSquareDistance = Double.POSITIVE_INFINITY;
+        for (Dweller dweller : candidates) {
+            if (!isWithin(world, point, range, dweller))
+                continue;
+            double squareDistance = point.squareDistance(world.getImage(point, dweller.getPosition()));
+            if (squareDistance < nearestSquareDistance) {
+                nearest = dweller;
+                nearestSquareDistance = squareDistance;
+            }
+        }
+        return Optional.ofNullable(nearest);
+    }
+
+    private static boolean isWithin(World world, Point point, double range, Dweller dweller)
+    {
+        Point position = world.getImage(point, dweller.getPosition());
+        return !position.equals(point) && position.withinCircle(point, range) && world.contains(dweller);
+    }
+
+    /**
+     * @return Valid list of the layer, which is rebuilt or updated if needed, or null, if the layer is not kept.
+     * List may contain removed dwellers
+     */
+    private List<Dweller> getCandidates(World world, Point point, double range, DwellerType type)
+    {
+        RegionChanges changes = world.getRegionChanges();
+        if (changes == null)
+            return null;
+        if (centers == null)
+            allocate();
+        int i = type.ordinal();
+        Point center = centers[i];
+        List<Dweller> list = dwellers[i];
+        if (center != null
+                && changes.getTick() - ticks[i] <= RegionChanges.KEEP_TICKS
+                && range + point.distance(world.getImage(point, center)) + changes.getTravel(type) - travels[i] <= radii[i]) {
+            if (sequences[i] != changes.getSequence()) {
+                changes.forEachAddedSince(sequences[i], type, center, radii[i], dweller -> {
+                    if (dweller.getType() == type && world.getImage(center, dweller.getPosition()).withinCircle(center, radii[i]))
+                        list.add(dweller);
+                });
+                sequences[i] = changes.getSequence();
+            }
+            ticks[i] = changes.getTick();
+            return list;
+        }
+
+        list.clear();
+        if (changes.getLastStep(type) > 0) {
+            centers[i] = null;
+            return null;
+        }
+        centers[i] = point;
+        radii[i] = range + World.NEIGHBOUR_LIST_SKIN;
+        travels[i] = changes.getTravel(type);
+        sequences[i] = changes.getSequence();
+        ticks[i] = changes.getTick();
+        //dwellers at the point are kept too, as owner leaves the point
+        world.forEachInLayer(point, radii[i], type, (position, dweller) -> list.add(dweller));
+        return list;
+    }
+}
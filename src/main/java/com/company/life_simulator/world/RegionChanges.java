@@ -0,0 +1,214 @@
+package com.company.life_simulator.world;
+
+import com.company.life_simulator.dweller.Dweller;
+import com.company.life_simulator.dweller.DwellerType;
+import com.company.life_simulator.world.quadtree.Point;
+import com.company.life_simulator.world.quadtree.Rectangle;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Changes of layers, which {@link NeighbourList neighbour lists} follow: recent additions by regions
+ * and distance, which dwellers of every layer have travelled.
+ * <p/>
+ * World is split into square cells, dwellers, which were added in the last {@value #KEEP_TICKS} ticks, are logged
+ * by their cells with sequence number of the addition. Logs of cells are hashed into one array, so log may hold
+ * dwellers of other cells and layers. Cells of torus world fit its size, so cells, which are crossed by the edge, are wrapped exactly.
+ * <br>
+ * Travel of the layer is the sum of the longest moves of its dwellers in every tick: dweller moves at most once per tick,
+ * so none of them is farther than the travel from its position at any past tick.
+ * <br>
+ * Changes are recorded by single thread, between phases, where they are read by any number of threads.
+ */
+class RegionChanges {
+    /**
+     * Number of ticks, which additions are kept for. List, which was not used for longer, is rebuilt
+     */
+    static final int KEEP_TICKS = 4;
+    private static final int LOG_BITS = 16;
+    private static final int LOG_MASK = (1 << LOG_BITS) - 1;
+    //logs visited by the current thread, reused between queries to avoid allocation per query
+    private static final ThreadLocal<int[]> VISITED = ThreadLocal.withInitial(() -> new int[16]);
+
+    private final Log[] logs = new Log[1 << LOG_BITS];
+    private final boolean torus;
+    private final int columns;
+    private final int rows;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final double[] travels = new double[DwellerType.values().length];
+    private final double[] tickSteps = new double[DwellerType.values().length];
+    private final double[] lastSteps = new double[DwellerType.values().length];
+    private int tick = 0;
+    private long sequence = 0;
+
+    RegionChanges(Rectangle size, double cellSize, boolean torus)
+    {
+        this.torus = torus;
+        columns = torus ? Math.max(1, (int) (size.getWidth() / cellSize)) : Integer.MAX_VALUE;
+        rows = torus ? Math.max(1, (int) (size.getHeight() / cellSize)) : Integer.MAX_VALUE;
+        cellWidth = torus ? size.getWidth() / columns : cellSize;
+        cellHeight = torus ? size.getHeight() / rows : cellSize;
+    }
+
+    /**
+     * Logs the added dweller by cell of its position
+     */
+    void added(Dweller dweller)
+    {
+        int index = index(dweller.getType(), column(dweller.getPosition().getX()), row(dweller.getPosition().getY()));
+        if (logs[index] == null)
+            logs[index] = new Log();
+        logs[index].add(dweller, tick, ++sequence);
+    }
+
+    /**
+     * Records move of the dweller of the type by the distance in the current tick
+     */
+    void moved(DwellerType type, double distance)
+    {
+        tickSteps[type.ordinal()] = Math.max(tickSteps[type.ordinal()], distance);
+    }
+
+    /**
+     * Adds the longest moves of the passed tick to the travels
+     */
+    void nextTick(int tick)
+    {
+        this.tick = tick;
+        for (int i = 0; i < travels.length; i++) {
+            travels[i] += tickSteps[i];
+            lastSteps[i] = tickSteps[i];
+            tickSteps[i] = 0;
+        }
+    }
+
+    int getTick() {
+        return tick;
+    }
+
+    /**
+     * @return Sequence number of the last addition
+     */
+    long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return Distance, which dwellers of the layer have travelled since the start, including moves of the current tick
+     */
+    double getTravel(DwellerType type)
+    {
+        return travels[type.ordinal()] + tickSteps[type.ordinal()];
+    }
+
+    /**
+     * @return The longest move of dwellers of the layer in the passed tick
+     */
+    double getLastStep(DwellerType type)
+    {
+        return lastSteps[type.ordinal()];
+    }
+
+    /**
+     * Visits dwellers, which were added after the sequence number to cells, which cover the circle.
+     * Visited dwellers may be of other layers or out of the circle, and they may be removed since.
+     * Visitor must not query the changes again
+     */
+    void forEachAddedSince(long since, DwellerType type, Point center, double radius, Consumer<Dweller> visitor)
+    {
+        int left = column(center.getX() - radius);
+        int top = row(center.getY() - radius);
+        int width = Math.min(column(center.getX() + radius) - left, columns - 1);
+        int height = Math.min(row(center.getY() + radius) - top, rows - 1);
+        int[] visited = VISITED.get();
+        if (visited.length < (width + 1) * (height + 1)) {
+            visited = new int[(width + 1) * (height + 1)];
+            VISITED.set(visited);
+        }
+        int visitedCount = 0;
+        for (int column = left; column <= left + width; column++) {
+            for (int row = top; row <= top + height; row++) {
+                int index = index(type, column, row);
+                Log log = logs[index];
+                if (log == null || contains(visited, visitedCount, index))
+                    continue;
+                visited[visitedCount++] = index;
+                log.forEachSince(since, visitor);
+            }
+        }
+    }
+
+    /**
+     * Cells of the circle may share the log
+     */
+    private static boolean contains(int[] indexes, int count, int index)
+    {
+        for (int i = 0; i < count; i++) {
+            if (indexes[i] == index)
+                return true;
+        }
+        return false;
+    }
+
+    private int column(double x)
+    {
+        return (int) Math.floor(x / cellWidth);
+    }
+
+    private int row(double y)
+    {
+        return (int) Math.floor(y / cellHeight);
+    }
+
+    private int index(DwellerType type, int column, int row)
+    {
+        if (torus) {
+            column = Math.floorMod(column, columns);
+            row = Math.floorMod(row, rows);
+        }
+        int hash = (column * 0x9E3779B1 + row) * 0x85EBCA6B + type.ordinal();
+        return (hash ^ (hash >>> LOG_BITS)) & LOG_MASK;
+    }
+
+    /**
+     * Additions to one cell in order of their sequence numbers
+     */
+    private static class Log {
+        private Dweller[] dwellers = new Dweller[4];
+        private int[] ticks = new int[4];
+        private long[] sequences = new long[4];
+        private int size = 0;
+
+        void add(Dweller dweller, int tick, long sequence)
+        {
+            //additions, which are older than any valid list, are dropped
+            int expired = 0;
+            while (expired < size && ticks[expired] < tick - KEEP_TICKS)
+                expired++;
+            if (expired > 0) {
+                System.arraycopy(dwellers, expired, dwellers, 0, size - expired);
+                System.arraycopy(ticks, expired, ticks, 0, size - expired);
+                System.arraycopy(sequences, expired, sequences, 0, size - expired);
+                Arrays.fill(dwellers, size - expired, size, null);
+                size -= expired;
+            }
+            if (size == dwellers.length) {
+                dwellers = Arrays.copyOf(dwellers, size * 2);
+                ticks = Arrays.copyOf(ticks, size * 2);
+                sequences = Arrays.copyOf(sequences, size * 2);
+            }
+            dwellers[size] = dweller;
+            ticks[size] = tick;
+            sequences[size] = sequence;
+            size++;
+        }
+
+        void forEachSince(long since, Consumer<Dweller> visitor)
+        {
+            for (int i = size - 1; i >= 0 && sequences[i] > since; i--)
+                visitor.accept(dwellers[i]);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.company.life_simulator.world;
+
+import com.company.life_simulator.dweller.DwellerType;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.EnumMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.BiConsumer;
+
+/**
+ * Runs snapshot handler in its own thread, so the handler of tick N overlaps with the next ticks.
+ * <br>
+ * Snapshots wait for the handler in bounded queue: when the handler falls behind by capacity of the queue,
+ * the world waits for it before it publishes the next snapshot.
+ */
+class SnapshotHandlerQueue implements AutoCloseable {
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactoryBuilder().setNameFormat("WorldSnapshotHandler-%d").setDaemon(true).build();
+    //marks the end of snapshots
+    private static final WorldSnapshot CLOSED = new WorldSnapshot(-1, null, new EnumMap<>(DwellerType.class));
+
+    private final BiConsumer<Integer, WorldSnapshot> handler;
+    private final BlockingQueue<WorldSnapshot> queue;
+    private final Thread thread;
+
+    SnapshotHandlerQueue(BiConsumer<Integer, WorldSnapshot> handler, int capacity)
+    {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity of snapshot queue must be positive: " + capacity);
+        this.handler = handler;
+        queue = new ArrayBlockingQueue<>(capacity);
+        thread = THREAD_FACTORY.newThread(this::handle);
+        thread.start();
+    }
+
+    /**
+     * Queues the snapshot, waits while the queue is full
+     */
+    void put(WorldSnapshot snapshot) throws InterruptedException
+    {
+        queue.put(snapshot);
+    }
+
+    private void handle()
+    {
+        try {
+            for (WorldSnapshot snapshot = queue.take(); snapshot != CLOSED; snapshot = queue.take()) {
+                try {
+                    handler.accept(snapshot.getTick(), snapshot);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops the thread, after queued snapshots are handled
+     */
+    @Override
+    public void close()
+    {
+        try {
+            queue.put(CLOSED);
+        } catch (InterruptedException e) {
+            thread.interrupt();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.company.life_simulator.world;
+
+import com.company.life_simulator.dweller.Dweller;
+import com.company.life_simulator.world.quadtree.ArrayQuadTree;
+import com.company.life_simulator.world.quadtree.ConcurrentQuadTree;
+import com.company.life_simulator.world.quadtree.PersistentQuadTree;
+import com.company.life_simulator.world.quadtree.QuadTree;
+import com.company.life_simulator.world.quadtree.Rectangle;
+import com.company.life_simulator.world.quadtree.SpatialIndex;
+import com.company.life_simulator.world.quadtree.UniformGrid;
+
+import java.util.function.BiFunction;
+
+public enum SpatialIndexType {
+    quadTree((size, cellSize) -> new QuadTree<>(size, World.QUADTREE_LEAF_CAPACITY)),
+    arrayQuadTree((size, cellSize) -> new ArrayQuadTree<>(size, World.QUADTREE_LEAF_CAPACITY)),
+    grid((size, cellSize) -> new UniformGrid<>(size, cellSize)),
+    concurrentQuadTree((size, cellSize) -> new ConcurrentQuadTree<>(size, World.CONCURRENT_REGIONS, World.QUADTREE_LEAF_CAPACITY)),
+    persistentQuadTree((size, cellSize) -> new PersistentQuadTree<>(size, World.QUADTREE_LEAF_CAPACITY));
+
+    private final BiFunction<Rectangle, Double, SpatialIndex<Dweller>> indexFactory;
+
+    SpatialIndexType(BiFunction<Rectangle, Double, SpatialIndex<Dweller>> indexFactory)
+    {
+        this.indexFactory = indexFactory;
+    }
+
+    /**
+     * @param cellSize side of cells of grid index, other indexes ignore it
+     */
+    public SpatialIndex<Dweller> createIndex(Rectangle size, double cellSize) {
+        return indexFactory.apply(size, cellSize);
+    }
+}
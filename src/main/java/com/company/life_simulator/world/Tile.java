@@ -0,0 +1,154 @@
+package com.company.life_simulator.world;
+
+import com.company.life_simulator.dweller.Dweller;
+import com.company.life_simulator.dweller.DwellerType;
+import com.company.life_simulator.dweller.action.Action;
+import com.company.life_simulator.world.quadtree.Point;
+import com.company.life_simulator.world.quadtree.Rectangle;
+import com.company.life_simulator.world.quadtree.SpatialIndex;
+import com.company.life_simulator.world.quadtree.UniformGrid;
+import org.javatuples.Pair;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Part of the {@link TileGrid}: owns dwellers, which positions are inside of its area, and indexes them in its own layers.
+ * <p/>
+ * Halo layers keep read-only entries of the neighbour tiles within halo width of the area, in torus world entries may be
+ * images of dwellers. Halo is rebuilt by the grid, tile never changes it by itself.
+ * <br>
+ * Changes of the tick are scheduled first and committed at once, so tiles are committed by different threads.
+ */
+class Tile {
+    private final int column;
+    private final int row;
+    private final Rectangle area;
+    private final Rectangle haloArea;
+    //dwellers in order of arrival, so order of AI does not depend on hash codes
+    private final Set<Dweller> dwellers = new LinkedHashSet<>();
+    private final EnumMap<DwellerType, SpatialIndex<Dweller>> layers = new EnumMap<>(DwellerType.class);
+    private final EnumMap<DwellerType, SpatialIndex<Dweller>> halo = new EnumMap<>(DwellerType.class);
+    private final List<Pair<Dweller, Point>> removals = new ArrayList<>();
+    private final List<Pair<Dweller, Point>> moves = new ArrayList<>();
+    private final List<Pair<Dweller, Point>> arrivals = new ArrayList<>();
+
+    Tile(int column, int row, Rectangle area, double haloWidth, double cellSize)
+    {
+        this.column = column;
+        this.row = row;
+        this.area = area;
+        this.haloArea = new Rectangle(area.getLeft() - haloWidth, area.getTop() - haloWidth,
+                area.getRight() + haloWidth, area.getBottom() + haloWidth);
+        for (DwellerType type : DwellerType.values()) {
+            layers.put(type, World.INDEX_TYPE.createIndex(area, cellSize));
+            //grid keeps no handles in dwellers, so halo entries never take them from own layers
+            halo.put(type, new UniformGrid<>(haloArea, haloWidth));
+        }
+    }
+
+    int getColumn() {
+        return column;
+    }
+
+    int getRow() {
+        return row;
+    }
+
+    Rectangle getArea() {
+        return area;
+    }
+
+    Rectangle getHaloArea() {
+        return haloArea;
+    }
+
+    SpatialIndex<Dweller> getLayer(DwellerType type) {
+        return layers.get(type);
+    }
+
+    SpatialIndex<Dweller> getHalo(DwellerType type) {
+        return halo.get(type);
+    }
+
+    int getDwellersCount() {
+        return dwellers.size();
+    }
+
+    /**
+     * @return Actions, chosen by AI of own dwellers
+     */
+    List<Action> doAI(int currentTick, World world)
+    {
+        List<Action> actions = new ArrayList<>();
+        for (Dweller dweller : dwellers)
+            dweller.doAI(currentTick, world).ifPresent(actions::add);
+        return actions;
+    }
+
+    void add(Dweller dweller)
+    {
+        layers.get(dweller.getType()).put(dweller.getPosition(), dweller);
+        dwellers.add(dweller);
+    }
+
+    void remove(Dweller dweller)
+    {
+        layers.get(dweller.getType()).remove(dweller.getPosition(), dweller);
+        dwellers.remove(dweller);
+    }
+
+    void move(Dweller dweller, Point point)
+    {
+        layers.get(dweller.getType()).move(dweller.getPosition(), point, dweller);
+        dweller.setPosition(point);
+    }
+
+    /**
+     * Schedules removal of the dweller, which leaves the tile. Position is kept, as arrival to other tile may change it first
+     */
+    void scheduleRemoval(Dweller dweller)
+    {
+        removals.add(Pair.with(dweller, dweller.getPosition()));
+    }
+
+    void scheduleMove(Dweller dweller, Point point)
+    {
+        moves.add(Pair.with(dweller, point));
+    }
+
+    void scheduleArrival(Dweller dweller, Point point)
+    {
+        arrivals.add(Pair.with(dweller, point));
+    }
+
+    /**
+     * Applies scheduled removals, moves and arrivals. Only dwellers of this tile are changed
+     */
+    void commit()
+    {
+        for (Pair<Dweller, Point> removal : removals) {
+            Dweller dweller = removal.getValue0();
+            layers.get(dweller.getType()).remove(removal.getValue1(), dweller);
+            dwellers.remove(dweller);
+        }
+        for (Pair<Dweller, Point> move : moves)
+            move(move.getValue0(), move.getValue1());
+        for (Pair<Dweller, Point> arrival : arrivals) {
+            Dweller dweller = arrival.getValue0();
+            dweller.setPosition(arrival.getValue1());
+            add(dweller);
+        }
+        removals.clear();
+        moves.clear();
+        arrivals.clear();
+    }
+
+    void clearHalo()
+    {
+        halo.values().forEach(SpatialIndex::clear);
+    }
+}
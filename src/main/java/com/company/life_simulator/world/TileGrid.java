@@ -0,0 +1,195 @@
+package com.company.life_simulator.world;
+
+import com.company.life_simulator.dweller.Dweller;
+import com.company.life_simulator.dweller.DwellerType;
+import com.company.life_simulator.world.quadtree.EntryVisitor;
+import com.company.life_simulator.world.quadtree.Point;
+import com.company.life_simulator.world.quadtree.Rectangle;
+import com.company.life_simulator.world.quadtree.SpatialIndex;
+import com.company.life_simulator.world.quadtree.TorusIndex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Area of the world, split into tiles x tiles {@link Tile tiles}. Dweller belongs to the tile, which area contains its position.
+ * <p/>
+ * Halo of the tile is filled from its eight neighbours, so halo width may not exceed side of the tile.
+ * Search within halo width from a point of the world touches only the tile of the point: its own layer and its halo.
+ * Wider search, or search from a point outside of the world, visits own layers of all tiles.
+ */
+class TileGrid {
+    private final Rectangle size;
+    private final int tilesPerSide;
+    private final double tileWidth;
+    private final double tileHeight;
+    private final double haloWidth;
+    private final boolean torus;
+    private final List<Tile> tiles = new ArrayList<>();
+
+    /**
+     * @param size         area of the world
+     * @param tilesPerSide number of tiles along each side of the area
+     * @param haloWidth    width of the halo around each tile, the widest search, which is answered by one tile
+     * @param cellSize     side of cells of grid index of tiles
+     * @param torus        halo of the border tiles is filled from the opposite side of the area
+     */
+    TileGrid(Rectangle size, int tilesPerSide, double haloWidth, double cellSize, boolean torus)
+    {
+        if (tilesPerSide < 1) {
+            throw new IllegalArgumentException("Invalid number of tiles: " + tilesPerSide);
+        }
+        this.size = size;
+        this.tilesPerSide = tilesPerSide;
+        this.tileWidth = size.getWidth() / tilesPerSide;
+        this.tileHeight = size.getHeight() / tilesPerSide;
+        this.haloWidth = haloWidth;
+        this.torus = torus;
+        if (!(haloWidth > 0) || haloWidth > Math.min(tileWidth, tileHeight)) {
+            throw new IllegalArgumentException("Invalid halo width " + haloWidth + " for tile " + tileWidth + "x" + tileHeight);
+        }
+        for (int row = 0; row < tilesPerSide; row++) {
+            for (int column = 0; column < tilesPerSide; column++) {
+                double left = size.getLeft() + column * tileWidth;
+                double top = size.getTop() + row * tileHeight;
+                double right = column == tilesPerSide - 1 ? size.getRight() : left + tileWidth;
+                double bottom = row == tilesPerSide - 1 ? size.getBottom() : top + tileHeight;
+                tiles.add(new Tile(column, row, new Rectangle(left, top, right, bottom), haloWidth, cellSize));
+            }
+        }
+    }
+
+    List<Tile> getTiles() {
+        return Collections.unmodifiableList(tiles);
+    }
+
+    /**
+     * @return Tile, which area contains the point, point outside of the world goes to the closest tile
+     */
+    Tile tileOf(Point point)
+    {
+        int column = index(point.getX() - size.getLeft(), tileWidth);
+        int row = index(point.getY() - size.getTop(), tileHeight);
+        //coordinate on the border of tiles goes to the tile, which area contains it
+        Rectangle area = tiles.get(row * tilesPerSide + column).getArea();
+        if (point.getX() < area.getLeft() && column > 0)
+            column--;
+        else if (point.getX() >= area.getRight() && column < tilesPerSide - 1)
+            column++;
+        if (point.getY() < area.getTop() && row > 0)
+            row--;
+        else if (point.getY() >= area.getBottom() && row < tilesPerSide - 1)
+            row++;
+        return tiles.get(row * tilesPerSide + column);
+    }
+
+    private int index(double offset, double side)
+    {
+        return Math.max(0, Math.min(tilesPerSide - 1, (int) (offset / side)));
+    }
+
+    void add(Dweller dweller)
+    {
+        tileOf(dweller.getPosition()).add(dweller);
+    }
+
+    void remove(Dweller dweller)
+    {
+        tileOf(dweller.getPosition()).remove(dweller);
+    }
+
+    /**
+     * Moves the dweller at once, dweller, which crosses edge of its tile, migrates to the other tile
+     */
+    void move(Dweller dweller, Point point)
+    {
+        Tile from = tileOf(dweller.getPosition());
+        Tile to = tileOf(point);
+        if (from == to) {
+            from.move(dweller, point);
+            return;
+        }
+        from.remove(dweller);
+        dweller.setPosition(point);
+        to.add(dweller);
+    }
+
+    void scheduleRemoval(Dweller dweller)
+    {
+        tileOf(dweller.getPosition()).scheduleRemoval(dweller);
+    }
+
+    /**
+     * Schedules move of the dweller, dweller, which crosses edge of its tile, is scheduled to leave it and to arrive to the other tile
+     */
+    void scheduleMove(Dweller dweller, Point point)
+    {
+        Tile from = tileOf(dweller.getPosition());
+        Tile to = tileOf(point);
+        if (from == to) {
+            from.scheduleMove(dweller, point);
+        } else {
+            from.scheduleRemoval(dweller);
+            to.scheduleArrival(dweller, point);
+        }
+    }
+
+    /**
+     * Fills halo of the tile from own layers of its neighbours. Neighbours are only read,
+     * so halos of all tiles may be rebuilt at the same time, while nobody changes own layers
+     */
+    void rebuildHalo(Tile tile)
+    {
+        tile.clearHalo();
+        Rectangle haloArea = tile.getHaloArea();
+        for (int rowOffset = -1; rowOffset <= 1; rowOffset++) {
+            for (int columnOffset = -1; columnOffset <= 1; columnOffset++) {
+                if (rowOffset == 0 && columnOffset == 0)
+                    continue;
+                int column = tile.getColumn() + columnOffset;
+                int row = tile.getRow() + rowOffset;
+                boolean wrapped = column < 0 || column >= tilesPerSide || row < 0 || row >= tilesPerSide;
+                if (wrapped && !torus)
+                    continue;
+                //neighbour across the edge of torus is seen shifted by the size of the world
+                double shiftX = column < 0 ? -size.getWidth() : (column >= tilesPerSide ? size.getWidth() : 0);
+                double shiftY = row < 0 ? -size.getHeight() : (row >= tilesPerSide ? size.getHeight() : 0);
+                Tile neighbour = tiles.get(Math.floorMod(row, tilesPerSide) * tilesPerSide + Math.floorMod(column, tilesPerSide));
+                Rectangle search = new Rectangle(haloArea.getLeft() - shiftX, haloArea.getTop() - shiftY,
+                        haloArea.getRight() - shiftX, haloArea.getBottom() - shiftY);
+                for (DwellerType type : DwellerType.values()) {
+                    SpatialIndex<Dweller> halo = tile.getHalo(type);
+                    neighbour.getLayer(type).forEachWithin(search, (position, dweller) -> {
+                        halo.put(wrapped ? new Point(position.getX() + shiftX, position.getY() + shiftY) : position, dweller);
+                        return true;
+                    });
+                }
+            }
+        }
+    }
+
+    /**
+     * Visits entries of the type within range until visitor stops the search. Entry of halo may be an image of the dweller,
+     * search wider than halo visits own layers of all tiles and measures distance to the nearest images in torus world
+     *
+     * @return False if search was stopped by visitor, otherwise true
+     */
+    boolean forEachWithin(Point point, double range, DwellerType type, EntryVisitor<? super Dweller> visitor)
+    {
+        if (range <= haloWidth && size.contains(point)) {
+            Tile tile = tileOf(point);
+            return tile.getLayer(type).forEachWithin(point, range, visitor)
+                    && tile.getHalo(type).forEachWithin(point, range, visitor);
+        }
+        for (Tile tile : tiles) {
+            boolean completed = torus
+                    ? tile.getLayer(type).forEachWithin(tile.getArea(), (position, dweller) ->
+                            !TorusIndex.getImage(size, point, position).withinCircle(point, range) || visitor.visit(position, dweller))
+                    : tile.getLayer(type).forEachWithin(point, range, visitor);
+            if (!completed)
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,134 @@
+package com.company.life_simulator.world;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel: values are scheduled for future ticks and are taken back at their ticks.
+ * <p/>
+ * Each of {@value #LEVELS} wheels has {@value #SLOTS} slots, slot of level l spans 64^l ticks. Value is put into
+ * the lowest level, which reaches its tick, and moves down to lower levels, when time reaches the span of its slot.
+ * So schedule and advance to the next tick take constant time per value, however many values wait.
+ * Values, which are due later than the top level reaches, wait in overflow slot.
+ * <br>
+ * Wheel is used by single thread.
+ */
+class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final Slot[][] wheels = new Slot[LEVELS][SLOTS];
+    private Slot overflow = new Slot();
+    private int currentTick;
+    private int size = 0;
+
+    TimingWheel(int currentTick)
+    {
+        this.currentTick = currentTick;
+        for (Slot[] wheel : wheels) {
+            for (int slot = 0; slot < SLOTS; slot++)
+                wheel[slot] = new Slot();
+        }
+    }
+
+    /**
+     * Schedules the value for the tick, value for current or past tick is scheduled for the next tick
+     */
+    void schedule(T value, int tick)
+    {
+        place(value, Math.max(tick, currentTick + 1));
+        size++;
+    }
+
+    private void place(Object value, int tick)
+    {
+        int delta = tick - currentTick;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1 << (SLOT_BITS * (level + 1))) {
+                wheels[level][(tick >>> (SLOT_BITS * level)) & SLOT_MASK].add(tick, value);
+                return;
+            }
+        }
+        overflow.add(tick, value);
+    }
+
+    /**
+     * Advances time up to the tick
+     *
+     * @return Values, which are due at passed ticks, in order of their ticks
+     */
+    @SuppressWarnings("unchecked")
+    List<T> advance(int tick)
+    {
+        List<T> due = new ArrayList<>();
+        while (currentTick < tick) {
+            currentTick++;
+            cascade();
+            Slot slot = wheels[0][currentTick & SLOT_MASK];
+            for (int i = 0; i < slot.size; i++)
+                due.add((T) slot.values[i]);
+            size -= slot.size;
+            slot.clear();
+        }
+        return due;
+    }
+
+    /**
+     * Moves values of slots, which spans start at current tick, down to lower levels
+     */
+    private void cascade()
+    {
+        if ((currentTick & ((1 << (SLOT_BITS * LEVELS)) - 1)) == 0) {
+            Slot overflowed = overflow;
+            overflow = new Slot();
+            for (int i = 0; i < overflowed.size; i++)
+                place(overflowed.values[i], overflowed.ticks[i]);
+        }
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((currentTick & ((1 << (SLOT_BITS * level)) - 1)) != 0)
+                continue;
+            //values of the slot are due within its span, so they always go to lower levels
+            Slot slot = wheels[level][(currentTick >>> (SLOT_BITS * level)) & SLOT_MASK];
+            for (int i = 0; i < slot.size; i++)
+                place(slot.values[i], slot.ticks[i]);
+            slot.clear();
+        }
+    }
+
+    int getCurrentTick() {
+        return currentTick;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Values of one slot with their ticks
+     */
+    private static class Slot {
+        private int[] ticks = new int[4];
+        private Object[] values = new Object[4];
+        private int size = 0;
+
+        void add(int tick, Object value)
+        {
+            if (size == ticks.length) {
+                ticks = Arrays.copyOf(ticks, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            ticks[size] = tick;
+            values[size] = value;
+            size++;
+        }
+
+        void clear()
+        {
+            Arrays.fill(values, 0, size, null);
+            size = 0;
+        }
+    }
+}
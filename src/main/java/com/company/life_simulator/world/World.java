@@ -1,58 +1,175 @@
 package com.company.life_simulator.world;
 
 import com.company.life_simulator.dweller.Dweller;
+import com.company.life_simulator.dweller.DwellerType;
 import com.company.life_simulator.dweller.EatingDweller;
 import com.company.life_simulator.dweller.Food;
 import com.company.life_simulator.dweller.IMovingDweller;
 import com.company.life_simulator.dweller.action.Action;
+import com.company.life_simulator.dweller.action.ActionBuffer;
 import com.company.life_simulator.dweller.action.ActionEat;
 import com.company.life_simulator.dweller.action.ActionMove;
 import com.company.life_simulator.dweller.action.ActionType;
+import com.company.life_simulator.util.CounterRandom;
+import com.company.life_simulator.world.executor.TickExecutor;
+import com.company.life_simulator.world.executor.TickExecutorType;
+import com.company.life_simulator.world.quadtree.EntryVisitor;
+import com.company.life_simulator.world.quadtree.GrowingQuadTree;
+import com.company.life_simulator.world.quadtree.PersistentQuadTree;
 import com.company.life_simulator.world.quadtree.Point;
-import com.company.life_simulator.world.quadtree.QuadTree;
+import com.company.life_simulator.world.quadtree.QuadTreeSnapshot;
 import com.company.life_simulator.world.quadtree.Rectangle;
+import com.company.life_simulator.world.quadtree.SpatialIndex;
+import com.company.life_simulator.world.quadtree.TorusIndex;
 import com.google.common.collect.Lists;
+import org.javatuples.Pair;
 
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-public class World {
+public class World implements AutoCloseable {
+    public static final SpatialIndexType INDEX_TYPE = SpatialIndexType.valueOf(System.getProperty("world.index.type", "quadTree"));
+    public static final int QUADTREE_LEAF_CAPACITY = Integer.valueOf(System.getProperty("world.quadtree.leafCapacity", "1"));
+    public static final int CONCURRENT_REGIONS = Integer.valueOf(System.getProperty("world.concurrent.regions", "8"));
+    public static final boolean PARALLEL_APPLY = Boolean.valueOf(System.getProperty("world.parallelApply", "false"));
+    /**
+     * AI writes actions into buffers of its tasks instead of action objects, buffers are applied by action types
+     */
+    public static final boolean ACTION_BUFFERS = Boolean.valueOf(System.getProperty("world.actionBuffers", "false"));
+    private static final ActionType[] ACTION_BATCHES = {ActionType.die, ActionType.eat, ActionType.move, ActionType.breed};
+    public static final boolean MORTON_ORDER = Boolean.valueOf(System.getProperty("world.mortonOrder", "false"));
+    public static final int MORTON_ORDER_RESORT_INTERVAL = Integer.valueOf(System.getProperty("world.mortonOrder.resortInterval", "10"));
+    /**
+     * Only dwellers, which are due to wake up, enter AI phase, see {@link Dweller#getNextWakeUp}. Tiled world ignores it,
+     * Morton order is not kept with it: due dwellers are processed in order of registry slots
+     */
+    public static final boolean TIMING_WHEEL = Boolean.valueOf(System.getProperty("world.timingWheel", "false"));
+    /**
+     * Random decisions of dwellers depend only on seed of the world, tick and id of the dweller, and every layer is committed
+     * by one task, so seeded run gives the same result with any executor and parallelism
+     */
+    public static final boolean DETERMINISTIC = Boolean.valueOf(System.getProperty("world.deterministic", "false"));
+    public static final boolean UNBOUNDED = Boolean.valueOf(System.getProperty("world.unbounded", "false"));
+    public static final boolean TORUS = !UNBOUNDED && Boolean.valueOf(System.getProperty("world.torus", "false"));
+    /**
+     * Side of cells of {@link SpatialIndexType#grid grid} index and of {@link RegionChanges}, zero takes visibility range of ants of the config
+     */
+    public static final double GRID_CELL_SIZE = Double.valueOf(System.getProperty("world.grid.cellSize", "0"));
+    /**
+     * Number of tiles along each side of bounded world, zero disables tiles. Every tile is ticked by its own worker
+     */
+    public static final int TILES = UNBOUNDED ? 0 : Integer.valueOf(System.getProperty("world.tiles", "0"));
+    /**
+     * Width of halo of tiles, zero takes visibility range of ants of the config
+     */
+    public static final double TILE_HALO = Double.valueOf(System.getProperty("world.tiles.halo", "0"));
+    /**
+     * Enlargement of the range of {@link NeighbourList}, zero disables neighbour lists. Tiled world ignores it
+     */
+    public static final double NEIGHBOUR_LIST_SKIN = Double.valueOf(System.getProperty("world.neighbourList.skin", "0"));
+    /**
+     * Headless simulation keeps dwellers as entities of {@link com.company.life_simulator.world.ecs.EntityWorld}
+     */
+    public static final boolean ENTITY_STORAGE = Boolean.valueOf(System.getProperty("world.entityStorage", "false"));
+    /**
+     * Executor of parallel phases of the tick, which is created for every world, see {@link TickExecutorType}
+     */
+    public static final TickExecutorType EXECUTOR_TYPE = TickExecutorType.valueOf(System.getProperty("world.executor", "shared"));
+    public static final int EXECUTOR_PARALLELISM = Integer.valueOf(System.getProperty("world.executor.parallelism", String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+    private final WorldConfig config;
     private final Rectangle size;
     private final AtomicInteger tickCount = new AtomicInteger(0);
-    private final AtomicInteger idGenerator = new AtomicInteger(0);
     private final List<BiConsumer<Integer, World>> handlers = new ArrayList<>();
-    private final QuadTree<Dweller> quadTree;
-    private final Map<Integer, Dweller> dwellersMap;
+    private final List<SnapshotHandlerQueue> snapshotHandlers = new ArrayList<>();
+    private final EnumMap<DwellerType, SpatialIndex<Dweller>> layers;
+    private final EnumMap<DwellerType, PersistentQuadTree<Dweller>> persistentLayers;
+    private volatile WorldSnapshot snapshot;
+    private final MortonOrder mortonOrder;
+    private final TimingWheel<Dweller> timingWheel;
+    private final TileGrid tiles;
+    private final RegionChanges regionChanges;
+    private final DwellerRegistry dwellersRegistry;
+    private final int seed;
     private final Random random;
+    private final boolean deterministic;
+    private final boolean parallelApply;
     private final EnumMap<ActionType, Consumer<Action>> actionsMap;
-
-    private final ForkJoinPool executor = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    //buffer of every AI task, buffers are reused between ticks
+    private final List<ActionBuffer> actionBuffers = new ArrayList<>();
+    private final TickExecutor executor;
 
     public World(double width, double height)
     {
-        size = new Rectangle(0, 0, width, height);
-        quadTree = new QuadTree<>(size);
-        dwellersMap = new HashMap<>();
-        random = new Random();
-        actionsMap = new EnumMap<>(ActionType.class);
-        actionsMap.put(ActionType.die, this::processDieAction);
-        actionsMap.put(ActionType.eat, this::processEatAction);
-        actionsMap.put(ActionType.move, this::processMoveAction);
-        actionsMap.put(ActionType.breed, this::processBreedAction);
+        this(width, height, new Random().nextInt(), EXECUTOR_TYPE.createExecutor(EXECUTOR_PARALLELISM));
     }
 
     public World(double width, double height, int seed)
     {
-        size = new Rectangle(0, 0, width, height);
-        quadTree = new QuadTree<>(size);
-        dwellersMap = new HashMap<>();
-        random = new Random(seed);
+        this(width, height, seed, EXECUTOR_TYPE.createExecutor(EXECUTOR_PARALLELISM));
+    }
+
+    /**
+     * @param executor Executor of the tick, which is closed with the world
+     */
+    public World(double width, double height, int seed, TickExecutor executor)
+    {
+        this(width, height, seed, executor, DETERMINISTIC);
+    }
+
+    World(double width, double height, int seed, TickExecutor executor, boolean deterministic)
+    {
+        this(width, height, seed, executor, deterministic, PARALLEL_APPLY);
+    }
+
+    World(double width, double height, int seed, TickExecutor executor, boolean deterministic, boolean parallelApply)
+    {
+        this(WorldConfig.DEFAULT.withSize(width, height), seed, executor, deterministic, parallelApply);
+    }
+
+    /**
+     * @param config Parameters of the simulation, dwellers are created by {@link WorldBuilder#createWorld(WorldConfig, int, TickExecutor)}
+     * @param executor Executor of the tick, which is closed with the world
+     */
+    public World(WorldConfig config, int seed, TickExecutor executor)
+    {
+        this(config, seed, executor, DETERMINISTIC, PARALLEL_APPLY);
+    }
+
+    private World(WorldConfig config, int seed, TickExecutor executor, boolean deterministic, boolean parallelApply)
+    {
+        this.config = config;
+        this.executor = executor;
+        size = new Rectangle(0, 0, config.getWidth(), config.getHeight());
+        layers = new EnumMap<>(DwellerType.class);
+        persistentLayers = new EnumMap<>(DwellerType.class);
+        double visibilityRange = config.getAntSpecies().getVisibilityRange();
+        double gridCellSize = GRID_CELL_SIZE > 0 ? GRID_CELL_SIZE : visibilityRange;
+        //tiled world keeps layers in its tiles
+        tiles = TILES > 0 ? new TileGrid(size, TILES, TILE_HALO > 0 ? TILE_HALO : visibilityRange, gridCellSize, TORUS) : null;
+        if (tiles == null) {
+            for (DwellerType type : DwellerType.values()) {
+                SpatialIndex<Dweller> layer = UNBOUNDED ? new GrowingQuadTree<>(size, QUADTREE_LEAF_CAPACITY) : INDEX_TYPE.createIndex(size, gridCellSize);
+                if (layer instanceof PersistentQuadTree)
+                    persistentLayers.put(type, (PersistentQuadTree<Dweller>) layer);
+                layers.put(type, TORUS ? new TorusIndex<>(layer) : layer);
+            }
+        }
+        dwellersRegistry = new DwellerRegistry();
+        regionChanges = NEIGHBOUR_LIST_SKIN > 0 && tiles == null ? new RegionChanges(size, gridCellSize, TORUS) : null;
+        timingWheel = TIMING_WHEEL && tiles == null ? new TimingWheel<>(0) : null;
+        mortonOrder = MORTON_ORDER && tiles == null && timingWheel == null ? new MortonOrder(size) : null;
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.deterministic = deterministic;
+        this.parallelApply = parallelApply;
         actionsMap = new EnumMap<>(ActionType.class);
         actionsMap.put(ActionType.die, this::processDieAction);
         actionsMap.put(ActionType.eat, this::processEatAction);
@@ -60,6 +177,13 @@ public class World {
         actionsMap.put(ActionType.breed, this::processBreedAction);
     }
 
+    public WorldConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * @return Initial area of the world. Dwellers of unbounded world may leave it
+     */
     public Rectangle getSize() {
         return size;
     }
@@ -67,43 +191,325 @@ public class World {
     public void tick()
     {
         int currentTick = tickCount.incrementAndGet();
+        //ids of the previous tick are not used anymore
+        dwellersRegistry.recycleRemoved();
 
-        List<Action> actions;
         try {
-            actions = executor.submit(()-> {
-                return dwellersMap.values().stream()
-                        .parallel()
-                        .map(dweller -> dweller.doAI(currentTick, this))
-                        .filter(Optional::isPresent)
-                        .map(Optional::get)
-                        .collect(Collectors.toList());
-            }).get();
+            if (tiles != null)
+                tickTiles(currentTick);
+            else
+                tickLayers(currentTick);
         } catch (InterruptedException | ExecutionException e) {
             e.printStackTrace();
             return;
         }
-
-        actions.forEach(action -> {
-                    Consumer<Action> handler = actionsMap.get(action.getType());
-                    handler.accept(action);
-                });
+        publishSnapshot();
 
         for (BiConsumer<Integer, World> consumer: handlers)
             consumer.accept(currentTick, this);
+        try {
+            for (SnapshotHandlerQueue queue : snapshotHandlers)
+                queue.put(snapshot);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void tickLayers(int currentTick) throws InterruptedException, ExecutionException
+    {
+        if (regionChanges != null)
+            regionChanges.nextTick(currentTick);
+        Dweller[] dwellers = getProcessingOrder(currentTick).toArray(Dweller[]::new);
+        if (ACTION_BUFFERS) {
+            while (actionBuffers.size() < executor.getChunksCount(dwellers.length))
+                actionBuffers.add(new ActionBuffer());
+            executor.forEachChunk(dwellers.length, (chunk, from, to) -> {
+                ActionBuffer buffer = actionBuffers.get(chunk);
+                for (int i = from; i < to; i++)
+                    dwellers[i].doAI(currentTick, this, buffer);
+            });
+            applyActionBuffers(currentTick);
+        } else {
+            List<Action> actions = new ArrayList<>();
+            executor.mapChunks(dwellers.length, (chunk, from, to) -> {
+                List<Action> chunkActions = new ArrayList<>();
+                for (int i = from; i < to; i++)
+                    dwellers[i].doAI(currentTick, this).ifPresent(chunkActions::add);
+                return chunkActions;
+            }).forEach(actions::addAll);
+
+            if (parallelApply) {
+                applyActionsInParallel(actions, currentTick);
+            } else {
+                actions.forEach(action -> {
+                            Consumer<Action> handler = actionsMap.get(action.getType());
+                            handler.accept(action);
+                        });
+            }
+        }
+
+        //woken dwellers fall asleep after their actions are applied, as breeding changes their wake-up tick
+        if (timingWheel != null) {
+            for (Dweller dweller : dwellers) {
+                if (dwellersRegistry.get(dweller.getId()) == dweller)
+                    timingWheel.schedule(dweller, dweller.getNextWakeUp(currentTick));
+            }
+        }
+    }
+
+    /**
+     * Applies actions of all buffers in batches by type: deaths, eating, moves, breeding.
+     * Food goes to the first eater of the batch, so eaten food does not breed in the same tick
+     */
+    private void applyActionBuffers(int currentTick)
+    {
+        for (ActionType type : ACTION_BATCHES) {
+            for (ActionBuffer buffer : actionBuffers) {
+                for (int i = 0; i < buffer.size(); i++) {
+                    if (buffer.getType(i) != type)
+                        continue;
+                    Dweller dweller = dwellersRegistry.get(buffer.getDwellerId(i));
+                    if (dweller == null)
+                        continue;
+                    switch (type) {
+                        case die:
+                            removeDweller(dweller);
+                            break;
+                        case eat:
+                            Food food = (Food) dwellersRegistry.get(buffer.getFoodId(i));
+                            if (food != null) {
+                                removeDweller(food);
+                                ((EatingDweller) dweller).feed(food);
+                            }
+                            break;
+                        case move:
+                            moveDweller(dweller, new Point(buffer.getTargetX(i), buffer.getTargetY(i)));
+                            break;
+                        case breed:
+                            dweller.breed(currentTick, this);
+                            break;
+                    }
+                }
+            }
+        }
+        actionBuffers.forEach(ActionBuffer::clear);
+    }
+
+    /**
+     * Tick of tiled world:
+     * <ol>
+     *     <li>halos are rebuilt from own layers of the tiles, so they see changes, which were done since the last tick</li>
+     *     <li>every tile runs AI of its dwellers, searches of AI touch only the tile of the dweller</li>
+     *     <li>actions are applied as in {@link #applyActionsInParallel}, but changes are sorted by tile,
+     *     dwellers, which cross edges of tiles, migrate, and every tile commits its own changes</li>
+     * </ol>
+     */
+    private void tickTiles(int currentTick) throws InterruptedException, ExecutionException
+    {
+        List<Tile> tileList = tiles.getTiles();
+        List<Runnable> rebuilds = new ArrayList<>();
+        List<Callable<List<Action>>> tileAIs = new ArrayList<>();
+        for (Tile tile : tileList) {
+            rebuilds.add(() -> tiles.rebuildHalo(tile));
+            tileAIs.add(() -> tile.doAI(currentTick, this));
+        }
+        executor.runAll(rebuilds);
+        List<Action> actions = new ArrayList<>();
+        executor.invokeAll(tileAIs).forEach(actions::addAll);
+
+        Map<Integer, ActionEat> eatWinners = getEatWinners(actions);
+        List<Dweller> removals = new ArrayList<>();
+        List<Pair<EatingDweller, Food>> feeds = new ArrayList<>();
+        List<Dweller> breeders = new ArrayList<>();
+        for (Action action : actions) {
+            Dweller dweller = dwellersRegistry.get(action.getDwellerId());
+            if (dweller == null)
+                continue;
+            switch (action.getType()) {
+                case die:
+                    removals.add(dweller);
+                    break;
+                case eat:
+                    ActionEat actionEat = (ActionEat) action;
+                    Food food = (Food) dwellersRegistry.get(actionEat.getFoodId());
+                    if (food != null && eatWinners.get(food.getId()) == actionEat) {
+                        removals.add(food);
+                        feeds.add(Pair.with((EatingDweller) dweller, food));
+                    }
+                    break;
+                case move:
+                    tiles.scheduleMove(dweller, wrap(((ActionMove) action).getTarget()));
+                    break;
+                case breed:
+                    breeders.add(dweller);
+                    break;
+            }
+        }
+        for (Dweller dweller : removals) {
+            tiles.scheduleRemoval(dweller);
+            dwellersRegistry.remove(dweller);
+        }
+
+        List<Runnable> commits = new ArrayList<>();
+        commits.add(() -> feeds.forEach(feed -> feed.getValue0().feed(feed.getValue1())));
+        tileList.forEach(tile -> commits.add(tile::commit));
+        executor.runAll(commits);
+
+        for (Dweller breeder : breeders) {
+            if (dwellersRegistry.get(breeder.getId()) == breeder)
+                breeder.breed(currentTick, this);
+        }
+    }
+
+    /**
+     * @return Dwellers in order of AI phase: order of registry slots, or Morton order of positions, which is restored every few ticks.
+     * Timing wheel gives only dwellers, which wake up at the tick, in order of registry slots
+     */
+    private Stream<Dweller> getProcessingOrder(int currentTick)
+    {
+        if (timingWheel != null) {
+            return timingWheel.advance(currentTick).stream()
+                    .filter(dweller -> dwellersRegistry.get(dweller.getId()) == dweller)
+                    .sorted(Comparator.comparingInt(Dweller::getId));
+        }
+        if (mortonOrder == null)
+            return dwellersRegistry.stream();
+        mortonOrder.compact(dweller -> dwellersRegistry.get(dweller.getId()) == dweller);
+        if (currentTick % MORTON_ORDER_RESORT_INTERVAL == 0)
+            mortonOrder.sort();
+        return mortonOrder.stream();
+    }
+
+    /**
+     * Applies actions, which were chosen by AI from the current state, as one change of the state:
+     * <ol>
+     *     <li>eat conflicts are resolved: food goes to the eater with the smallest id</li>
+     *     <li>changes are sorted by kind and layer, dead and eaten dwellers leave the dwellers map</li>
+     *     <li>feeding, removals and moves are committed in parallel: layers are changed at the same time,
+     *     concurrent layer is also changed by several tasks</li>
+     *     <li>breeding is done in order of actions, as it takes ids and, unless world is deterministic, random numbers from the world</li>
+     * </ol>
+     * Dweller does at most one action per tick, so food, which is eaten, does not breed in the same tick.
+     * <br>
+     * Result of the phase does not depend on number of threads, except order of entries in concurrent layer.
+     * Only deterministic world gives the same result of the whole tick with any number of threads,
+     * as AI of other world takes random numbers from the shared generator in order of threads.
+     */
+    private void applyActionsInParallel(List<Action> actions, int currentTick) throws InterruptedException, ExecutionException
+    {
+        Map<Integer, ActionEat> eatWinners = getEatWinners(actions);
+
+        EnumMap<DwellerType, List<Dweller>> removals = new EnumMap<>(DwellerType.class);
+        EnumMap<DwellerType, List<Pair<Dweller, Point>>> moves = new EnumMap<>(DwellerType.class);
+        for (DwellerType type : DwellerType.values()) {
+            removals.put(type, new ArrayList<>());
+            moves.put(type, new ArrayList<>());
+        }
+        List<Pair<EatingDweller, Food>> feeds = new ArrayList<>();
+        List<Dweller> breeders = new ArrayList<>();
+        for (Action action : actions) {
+            Dweller dweller = dwellersRegistry.get(action.getDwellerId());
+            if (dweller == null)
+                continue;
+            switch (action.getType()) {
+                case die:
+                    removals.get(dweller.getType()).add(dweller);
+                    break;
+                case eat:
+                    ActionEat actionEat = (ActionEat) action;
+                    Food food = (Food) dwellersRegistry.get(actionEat.getFoodId());
+                    if (food != null && eatWinners.get(food.getId()) == actionEat) {
+                        removals.get(food.getType()).add(food);
+                        feeds.add(Pair.with((EatingDweller) dweller, food));
+                    }
+                    break;
+                case move:
+                    Point target = wrap(((ActionMove) action).getTarget());
+                    moves.get(dweller.getType()).add(Pair.with(dweller, target));
+                    recordMove(dweller, target);
+                    break;
+                case breed:
+                    breeders.add(dweller);
+                    break;
+            }
+        }
+        removals.values().forEach(dwellers -> dwellers.forEach(dweller -> dwellersRegistry.remove(dweller)));
+
+        List<Runnable> commits = new ArrayList<>();
+        commits.add(() -> feeds.forEach(feed -> feed.getValue0().feed(feed.getValue1())));
+        for (DwellerType type : DwellerType.values())
+            addLayerCommits(commits, layers.get(type), removals.get(type), moves.get(type));
+        executor.runAll(commits);
+
+        for (Dweller breeder : breeders) {
+            if (dwellersRegistry.get(breeder.getId()) == breeder)
+                breeder.breed(currentTick, this);
+        }
+    }
+
+    /**
+     * @return Winner of every eat conflict by id of the food: the eater with the smallest id
+     */
+    private Map<Integer, ActionEat> getEatWinners(List<Action> actions) throws InterruptedException, ExecutionException
+    {
+        Map<Integer, ActionEat> eatWinners = new HashMap<>();
+        executor.mapChunks(actions.size(), (chunk, from, to) -> {
+            Map<Integer, ActionEat> chunkWinners = new HashMap<>();
+            for (int i = from; i < to; i++) {
+                Action action = actions.get(i);
+                if (action.getType() == ActionType.eat)
+                    chunkWinners.merge(((ActionEat) action).getFoodId(), (ActionEat) action, World::getEarlierEater);
+            }
+            return chunkWinners;
+        }).forEach(chunkWinners -> chunkWinners.forEach((foodId, eat) -> eatWinners.merge(foodId, eat, World::getEarlierEater)));
+        return eatWinners;
+    }
+
+    private static ActionEat getEarlierEater(ActionEat eat1, ActionEat eat2)
+    {
+        return eat1.getDwellerId() < eat2.getDwellerId() ? eat1 : eat2;
+    }
+
+    /**
+     * Adds tasks, which remove and move dwellers of the layer. Work of concurrent layer is split between several tasks,
+     * unless world is deterministic, other layer is changed by one task
+     */
+    private void addLayerCommits(List<Runnable> commits, SpatialIndex<Dweller> layer, List<Dweller> removals, List<Pair<Dweller, Point>> moves)
+    {
+        //order of entries, which are put into the same node by several tasks, depends on threads
+        if (!layer.isConcurrent() || deterministic) {
+            commits.add(() -> {
+                removals.forEach(dweller -> layer.remove(dweller.getPosition(), dweller));
+                moves.forEach(move -> moveInLayer(layer, move));
+            });
+            return;
+        }
+        int parallelism = executor.getParallelism();
+        for (List<Dweller> part : Lists.partition(removals, Math.max(1, (removals.size() + parallelism - 1) / parallelism)))
+            commits.add(() -> part.forEach(dweller -> layer.remove(dweller.getPosition(), dweller)));
+        for (List<Pair<Dweller, Point>> part : Lists.partition(moves, Math.max(1, (moves.size() + parallelism - 1) / parallelism)))
+            commits.add(() -> part.forEach(move -> moveInLayer(layer, move)));
+    }
+
+    private static void moveInLayer(SpatialIndex<Dweller> layer, Pair<Dweller, Point> move)
+    {
+        Dweller dweller = move.getValue0();
+        layer.move(dweller.getPosition(), move.getValue1(), dweller);
+        dweller.setPosition(move.getValue1());
     }
 
     private void processDieAction(Action action)
     {
-        this.removeDweller(dwellersMap.get(action.getDwellerId()));
+        this.removeDweller(dwellersRegistry.get(action.getDwellerId()));
     }
 
     private void processEatAction(Action action)
     {
         ActionEat actionEat = (ActionEat) action;
-        EatingDweller dweller = (EatingDweller) dwellersMap.get(actionEat.getDwellerId());
+        EatingDweller dweller = (EatingDweller) dwellersRegistry.get(actionEat.getDwellerId());
         if (dweller == null)
             return;
-        Food food = (Food) dwellersMap.get(actionEat.getFoodId());
+        Food food = (Food) dwellersRegistry.get(actionEat.getFoodId());
         if (food == null)
             return;
         this.removeDweller(food);
@@ -112,47 +518,132 @@ public class World {
 
     private void processMoveAction(Action action) {
         ActionMove actionMove = (ActionMove) action;
-        IMovingDweller dweller = (IMovingDweller) dwellersMap.get(actionMove.getDwellerId());
+        IMovingDweller dweller = (IMovingDweller) dwellersRegistry.get(actionMove.getDwellerId());
         if (dweller == null)
             return;
         this.moveDweller((Dweller) dweller, actionMove.getTarget());
     }
 
     private void processBreedAction(Action action) {
-        Dweller dweller = dwellersMap.get(action.getDwellerId());
+        Dweller dweller = dwellersRegistry.get(action.getDwellerId());
         if (dweller != null)
             dweller.breed(tickCount.get(), this);
     }
 
-    public Integer getNextId() {
-        return idGenerator.incrementAndGet();
+    /**
+     * @return Id for new dweller. Id of removed dweller may be given again with other generation, stale id finds nothing
+     */
+    public int getNextId() {
+        return dwellersRegistry.reserve();
     }
 
     public void addDweller(Dweller dweller)
     {
-        if (!size.contains(dweller.getPosition()))
-        {
-            dweller.setPosition(new Point((dweller.getPosition().getX() + size.getWidth()) % size.getWidth(), (dweller.getPosition().getY() + size.getHeight()) % size.getHeight()));
+        dweller.setPosition(wrap(dweller.getPosition()));
+        if (tiles != null)
+            tiles.add(dweller);
+        else
+            layers.get(dweller.getType()).put(dweller.getPosition(), dweller);
+        dwellersRegistry.put(dweller);
+        if (regionChanges != null)
+            regionChanges.added(dweller);
+        if (mortonOrder != null)
+            mortonOrder.add(dweller);
+        if (timingWheel != null)
+            timingWheel.schedule(dweller, dweller.getNextWakeUp(tickCount.get()));
+    }
+
+    /**
+     * Adds all dwellers at once, empty world builds index of every layer in one pass
+     */
+    public void addDwellers(Collection<? extends Dweller> dwellers)
+    {
+        EnumMap<DwellerType, List<Dweller>> dwellersByType = new EnumMap<>(DwellerType.class);
+        for (Dweller dweller : dwellers) {
+            dweller.setPosition(wrap(dweller.getPosition()));
+            dwellersRegistry.put(dweller);
+            if (regionChanges != null)
+                regionChanges.added(dweller);
+            dwellersByType.computeIfAbsent(dweller.getType(), type -> new ArrayList<>()).add(dweller);
+            if (mortonOrder != null)
+                mortonOrder.add(dweller);
+            if (timingWheel != null)
+                timingWheel.schedule(dweller, dweller.getNextWakeUp(tickCount.get()));
         }
-        quadTree.put(dweller.getPosition(), dweller);
-        dwellersMap.put(dweller.getId(), dweller);
+        if (mortonOrder != null)
+            mortonOrder.sort();
+        if (tiles != null)
+            dwellersByType.values().forEach(typeDwellers -> typeDwellers.forEach(tiles::add));
+        else
+            dwellersByType.forEach((type, typeDwellers) -> layers.get(type).putAll(typeDwellers, Dweller::getPosition));
+        publishSnapshot();
+    }
+
+    /**
+     * Publishes snapshot of persistent layers, world with other types of index has no snapshots
+     */
+    private void publishSnapshot()
+    {
+        if (persistentLayers.isEmpty())
+            return;
+        EnumMap<DwellerType, QuadTreeSnapshot<Dweller>> snapshots = new EnumMap<>(DwellerType.class);
+        persistentLayers.forEach((type, layer) -> snapshots.put(type, layer.snapshot()));
+        snapshot = new WorldSnapshot(tickCount.get(), size, snapshots);
+    }
+
+    /**
+     * @return Snapshot, published at the end of the last tick. It is present only with index type {@link SpatialIndexType#persistentQuadTree}
+     */
+    public Optional<WorldSnapshot> getSnapshot()
+    {
+        return Optional.ofNullable(snapshot);
     }
 
     public void removeDweller(Dweller dweller)
     {
-        quadTree.remove(dweller.getPosition());
-        dwellersMap.remove(dweller.getId());
+        if (tiles != null)
+            tiles.remove(dweller);
+        else
+            layers.get(dweller.getType()).remove(dweller.getPosition(), dweller);
+        dwellersRegistry.remove(dweller);
     }
 
     public void moveDweller(Dweller dweller, Point point)
     {
-        if (!size.contains(point))
-        {
-            point = new Point(point.getX() % size.getWidth(), point.getY() % size.getHeight());
+        point = wrap(point);
+        if (tiles != null) {
+            tiles.move(dweller, point);
+            return;
         }
-        removeDweller(dweller);
+        recordMove(dweller, point);
+        layers.get(dweller.getType()).move(dweller.getPosition(), point, dweller);
         dweller.setPosition(point);
-        addDweller(dweller);
+    }
+
+    private void recordMove(Dweller dweller, Point point)
+    {
+        if (regionChanges != null)
+            regionChanges.moved(dweller.getType(), getImage(dweller.getPosition(), point).distance(dweller.getPosition()));
+    }
+
+    /**
+     * @return Position of the point, as it is seen from other point. In torus world it is the image of the point, closest to other point
+     */
+    public Point getImage(Point from, Point point)
+    {
+        return TORUS ? TorusIndex.getImage(size, from, point) : point;
+    }
+
+    /**
+     * @return Point inside of the world, unbounded world keeps points as they are
+     */
+    private Point wrap(Point point)
+    {
+        if (UNBOUNDED || size.contains(point))
+            return point;
+        double x = point.getX() % size.getWidth();
+        double y = point.getY() % size.getHeight();
+        return new Point(x < 0 ? x + size.getWidth() : x, y < 0 ? y + size.getHeight() : y);
     }
 
     public void addTickHandler(BiConsumer<Integer, World> handler)
@@ -160,23 +651,195 @@ public class World {
         handlers.add(handler);
     }
 
+    /**
+     * Adds handler, which is called on ticks, divisible by the interval, instead of every tick
+     */
+    public void addTickHandler(BiConsumer<Integer, World> handler, int interval)
+    {
+        if (interval < 1)
+            throw new IllegalArgumentException("Interval of tick handler must be positive: " + interval);
+        handlers.add((tick, world) -> {
+            if (tick % interval == 0)
+                handler.accept(tick, world);
+        });
+    }
+
+    /**
+     * Adds handler, which runs in its own thread on snapshots of ticks, while the world runs the next ticks.
+     * When handler falls behind by capacity snapshots, tick waits for it. Snapshots are published only with
+     * index type {@link SpatialIndexType#persistentQuadTree}, handler is stopped, when the world is closed
+     */
+    public void addSnapshotHandler(BiConsumer<Integer, WorldSnapshot> handler, int capacity)
+    {
+        if (persistentLayers.isEmpty())
+            throw new IllegalStateException("Snapshots are published only with index type " + SpatialIndexType.persistentQuadTree);
+        snapshotHandlers.add(new SnapshotHandlerQueue(handler, capacity));
+    }
+
     public Stream<Dweller> getDwellers()
     {
-        return Lists.newArrayList(dwellersMap.values()).stream();
+        return dwellersRegistry.stream().collect(Collectors.toList()).stream();
     }
 
     public int getDwellersCount()
     {
-        return dwellersMap.size();
+        return dwellersRegistry.size();
+    }
+
+    public int getDwellersCount(DwellerType type)
+    {
+        return dwellersRegistry.size(type);
     }
 
     public List<Dweller> getDwellersInRange(Point point, double range)
     {
-        return quadTree.searchWithin(point, range)
-                .filter(dweller -> !dweller.getPosition().equals(point))
+        List<Dweller> dwellers = new ArrayList<>();
+        getDwellersInRange(point, range, dwellers);
+        return dwellers;
+    }
+
+    public List<Dweller> getDwellersInRange(Point point, double range, DwellerType type)
+    {
+        List<Dweller> dwellers = new ArrayList<>();
+        getDwellersInRange(point, range, type, dwellers);
+        return dwellers;
+    }
+
+    /**
+     * Adds dwellers within range, except dweller at the point itself, to the result
+     *
+     * @return Number of added dwellers
+     */
+    public int getDwellersInRange(Point point, double range, Collection<? super Dweller> result)
+    {
+        int size = result.size();
+        forEachDwellerInRange(point, range, (position, dweller) -> result.add(dweller));
+        return result.size() - size;
+    }
+
+    /**
+     * Adds dwellers of the type within range, except dweller at the point itself, to the result
+     *
+     * @return Number of added dwellers
+     */
+    public int getDwellersInRange(Point point, double range, DwellerType type, Collection<? super Dweller> result)
+    {
+        int size = result.size();
+        forEachDwellerInRange(point, range, type, (position, dweller) -> result.add(dweller));
+        return result.size() - size;
+    }
+
+    /**
+     * Visits dwellers within range, except dweller at the point itself, until visitor stops the search
+     *
+     * @return False if search was stopped by visitor, otherwise true
+     */
+    public boolean forEachDwellerInRange(Point point, double range, EntryVisitor<? super Dweller> visitor)
+    {
+        for (DwellerType type : DwellerType.values()) {
+            if (!forEachDwellerInRange(point, range, type, visitor))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Visits dwellers of the type within range, except dweller at the point itself, until visitor stops the search.
+     * Only layer of the type is searched.
+     *
+     * @return False if search was stopped by visitor, otherwise true
+     */
+    public boolean forEachDwellerInRange(Point point, double range, DwellerType type, EntryVisitor<? super Dweller> visitor)
+    {
+        //halo of tiled torus world may keep an image of the dweller at the point itself
+        if (tiles != null)
+            return tiles.forEachWithin(point, range, type, (position, dweller) -> dweller.getPosition().equals(point) || visitor.visit(position, dweller));
+        return layers.get(type).forEachWithin(point, range, (position, dweller) -> position.equals(point) || visitor.visit(position, dweller));
+    }
+
+    /**
+     * Visits dwellers of the layer within range, including dwellers at the point, world must not have tiles
+     */
+    boolean forEachInLayer(Point point, double range, DwellerType type, EntryVisitor<? super Dweller> visitor)
+    {
+        return layers.get(type).forEachWithin(point, range, visitor);
+    }
+
+    RegionChanges getRegionChanges() {
+        return regionChanges;
+    }
+
+    /**
+     * @return True if the dweller was not removed
+     */
+    boolean contains(Dweller dweller)
+    {
+        return dwellersRegistry.get(dweller.getId()) == dweller;
+    }
+
+    /**
+     * Finds the nearest dweller within range, except dweller at the point itself, which matches the filter
+     */
+    public Optional<Dweller> getNearestDweller(Point point, double range, Predicate<? super Dweller> filter)
+    {
+        Optional<Dweller> nearest = Optional.empty();
+        double nearestSquareDistance = Double.POSITIVE_INFINITY;
+        for (DwellerType type : DwellerType.values()) {
+            Optional<Dweller> dweller = getNearestDweller(point, range, type, filter);
+            if (dweller.isPresent()) {
+                double squareDistance = point.squareDistance(getImage(point, dweller.get().getPosition()));
+                if (squareDistance < nearestSquareDistance) {
+                    nearest = dweller;
+                    nearestSquareDistance = squareDistance;
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Finds the nearest dweller of the type within range, except dweller at the point itself, which matches the filter
+     */
+    public Optional<Dweller> getNearestDweller(Point point, double range, DwellerType type, Predicate<? super Dweller> filter)
+    {
+        if (tiles != null)
+            return getNearestDwellers(point, 1, range, type, filter).stream().findFirst();
+        return layers.get(type).nearest(point, range, dweller -> !dweller.getPosition().equals(point) && filter.test(dweller));
+    }
+
+    /**
+     * Finds up to count nearest dwellers within range, except dweller at the point itself, which match the filter
+     *
+     * @return Dwellers ordered by distance from the point
+     */
+    public List<Dweller> getNearestDwellers(Point point, int count, double range, Predicate<? super Dweller> filter)
+    {
+        return Arrays.stream(DwellerType.values())
+                .flatMap(type -> getNearestDwellers(point, count, range, type, filter).stream())
+                .sorted(Comparator.comparingDouble(dweller -> point.squareDistance(getImage(point, dweller.getPosition()))))
+                .limit(count)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Finds up to count nearest dwellers of the type within range, except dweller at the point itself, which match the filter
+     *
+     * @return Dwellers ordered by distance from the point
+     */
+    public List<Dweller> getNearestDwellers(Point point, int count, double range, DwellerType type, Predicate<? super Dweller> filter)
+    {
+        if (tiles != null) {
+            List<Dweller> dwellers = new ArrayList<>();
+            forEachDwellerInRange(point, range, type, (position, dweller) -> !filter.test(dweller) || dwellers.add(dweller));
+            return dwellers.stream()
+                    .distinct()
+                    .sorted(Comparator.comparingDouble(dweller -> point.squareDistance(getImage(point, dweller.getPosition()))))
+                    .limit(count)
+                    .collect(Collectors.toList());
+        }
+        return layers.get(type).nearest(point, count, range, dweller -> !dweller.getPosition().equals(point) && filter.test(dweller));
+    }
+
     public int getCurrentTick()
     {
         return tickCount.get();
@@ -185,4 +848,24 @@ public class World {
     public Random getRandom() {
         return random;
     }
+
+    /**
+     * @return Generator for random decisions of the dweller at the current tick. Deterministic world gives generator of the thread,
+     * keyed by seed of the world, the tick and id of the dweller, it is valid until the next call in the thread.
+     * Other world gives its {@link #getRandom shared generator}
+     */
+    public Random getRandom(Dweller dweller)
+    {
+        return deterministic ? CounterRandom.ofThread(seed, tickCount.get(), dweller.getId()) : random;
+    }
+
+    /**
+     * Closes executor of the tick and stops snapshot handlers, after they handle queued snapshots. World can not be ticked after that
+     */
+    @Override
+    public void close()
+    {
+        executor.close();
+        snapshotHandlers.forEach(SnapshotHandlerQueue::close);
+    }
 }
@@ -1,34 +1,84 @@
 package com.company.life_simulator.world;
 
+import com.company.life_simulator.dweller.Dweller;
+import com.company.life_simulator.dweller.DwellerSpecies;
+import com.company.life_simulator.dweller.DwellerType;
 import com.company.life_simulator.dweller.Food;
 import com.company.life_simulator.dweller.ant.Ant;
 import com.company.life_simulator.util.StreamUtil;
+import com.company.life_simulator.world.ecs.EntityWorld;
+import com.company.life_simulator.world.executor.TickExecutor;
 import com.company.life_simulator.world.quadtree.Point;
+import org.javatuples.Pair;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.function.BiFunction;
 import java.util.stream.Stream;
 
 public class WorldBuilder {
     public static World createWorld(int seed)
     {
-        double width = Double.valueOf(System.getProperty("world.width", "200"));
-        double height = Double.valueOf(System.getProperty("world.height", "200"));
-        int initialFood = Integer.valueOf(System.getProperty("world.initialFood", "30"));
+        return createWorld(WorldConfig.fromProperties(System.getProperties()), seed,
+                World.EXECUTOR_TYPE.createExecutor(World.EXECUTOR_PARALLELISM));
+    }
+
+    /**
+     * Creates world of the config with one ant in the center and initial food
+     */
+    public static World createWorld(WorldConfig config, int seed, TickExecutor executor)
+    {
+        double width = config.getWidth();
+        double height = config.getHeight();
+        DwellerSpecies antSpecies = config.getAntSpecies();
+        DwellerSpecies foodSpecies = config.getFoodSpecies();
+
+        World world = new World(config, seed, executor);
 
-        World world = new World(width, height, seed);
+        List<Dweller> dwellers = new ArrayList<>(config.getInitialFood() + 1);
+        dwellers.add(new Ant(antSpecies, config.createAntAI(), world.getNextId(), new Point(width/2, height/2), 0, antSpecies.getFoodSaturation() / 2));
+        initialFood(seed, width, height, config.getInitialFood(), foodSpecies.getReproductionRate(),
+                (point, integer) -> new Food(foodSpecies, world.getNextId(), point, integer))
+                .forEach(dwellers::add);
+        world.addDwellers(dwellers);
+        return world;
+    }
 
-        world.addDweller(new Ant(world.getNextId(), new Point(width/2, height/2), 0, Ant.FOOD_SATURATION / 2));
+    public static EntityWorld createEntityWorld(int seed)
+    {
+        return createEntityWorld(WorldConfig.fromProperties(System.getProperties()), seed,
+                World.EXECUTOR_TYPE.createExecutor(World.EXECUTOR_PARALLELISM));
+    }
 
+    /**
+     * Creates the same world as {@link #createWorld(WorldConfig, int, TickExecutor)} does, but with dwellers as entities
+     */
+    public static EntityWorld createEntityWorld(WorldConfig config, int seed, TickExecutor executor)
+    {
+        double width = config.getWidth();
+        double height = config.getHeight();
+
+        EntityWorld world = new EntityWorld(config, seed, executor);
+        world.addDweller(DwellerType.ant, new Point(width/2, height/2), 0, config.getAntSpecies().getFoodSaturation() / 2);
+        initialFood(seed, width, height, config.getInitialFood(), config.getFoodSpecies().getReproductionRate(), Pair::with)
+                .forEach(food -> world.addDweller(DwellerType.food, food.getValue0(), food.getValue1(), 0));
+        return world;
+    }
+
+    /**
+     * @return Food at random points with random last reproduction ticks
+     */
+    private static <T> Stream<T> initialFood(int seed, double width, double height, int count, int reproductionRate, BiFunction<Point, Integer, T> food)
+    {
         Random random = new Random(seed);
-        Stream<Double> xStream = random.doubles(initialFood, 0, width).boxed();
-        Stream<Double> yStream = random.doubles(initialFood, 0, height).boxed();
-        Stream<Integer> tickStream = random.ints(initialFood, -Food.REPRODUCTION_RATE, 0).boxed();
+        Stream<Double> xStream = random.doubles(count, 0, width).boxed();
+        Stream<Double> yStream = random.doubles(count, 0, height).boxed();
+        Stream<Integer> tickStream = random.ints(count, -reproductionRate, 0).boxed();
 
-        StreamUtil.zip(
+        return StreamUtil.zip(
                 StreamUtil.zip(xStream, yStream, Point::new),
                 tickStream,
-                (point, integer) -> new Food(world.getNextId(), point, integer))
-                .forEach(world::addDweller);
-        return world;
+                food);
     }
 }
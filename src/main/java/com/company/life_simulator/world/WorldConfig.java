@@ -0,0 +1,151 @@
+package com.company.life_simulator.world;
+
+import com.company.life_simulator.dweller.DwellerSpecies;
+import com.company.life_simulator.dweller.DwellerType;
+import com.company.life_simulator.dweller.Food;
+import com.company.life_simulator.dweller.ant.Ant;
+import com.company.life_simulator.dweller.ant.ai.AntAIType;
+import com.company.life_simulator.dweller.ant.ai.IAntAI;
+import com.company.life_simulator.dweller.ant.ai.implementation.AngleDistanceAI;
+
+import java.util.Properties;
+
+/**
+ * Parameters of one simulation: size of the world, initial food, species of dwellers and AI of ants.
+ * Config is immutable, so worlds with different configs live in one JVM.
+ * <br>
+ * Settings of the engine, e.g. type of index or executor, are not part of config, they stay in {@link World}.
+ */
+public class WorldConfig {
+    /**
+     * Config of system properties, it has the same parameters as static fields of {@link Ant}, {@link Food} and {@link AngleDistanceAI}
+     */
+    public static final WorldConfig DEFAULT = fromProperties(System.getProperties());
+
+    private final double width;
+    private final double height;
+    private final int initialFood;
+    private final DwellerSpecies foodSpecies;
+    private final DwellerSpecies antSpecies;
+    private final AntAIType antAIType;
+    private final double directionDecisionAngle;
+    private final double directionDecisionFoodCoefficient;
+    private final double directionDecisionAntCoefficient;
+
+    public WorldConfig(double width,
+                       double height,
+                       int initialFood,
+                       DwellerSpecies foodSpecies,
+                       DwellerSpecies antSpecies,
+                       AntAIType antAIType,
+                       double directionDecisionAngle,
+                       double directionDecisionFoodCoefficient,
+                       double directionDecisionAntCoefficient)
+    {
+        if (foodSpecies.getType() != DwellerType.food || antSpecies.getType() != DwellerType.ant)
+            throw new IllegalArgumentException("Wrong species: " + foodSpecies.getType() + ", " + antSpecies.getType());
+        this.width = width;
+        this.height = height;
+        this.initialFood = initialFood;
+        this.foodSpecies = foodSpecies;
+        this.antSpecies = antSpecies;
+        this.antAIType = antAIType;
+        this.directionDecisionAngle = directionDecisionAngle;
+        this.directionDecisionFoodCoefficient = directionDecisionFoodCoefficient;
+        this.directionDecisionAntCoefficient = directionDecisionAntCoefficient;
+    }
+
+    /**
+     * Reads config from properties with the same names as system properties of the simulation,
+     * missing properties take values of static fields
+     */
+    public static WorldConfig fromProperties(Properties properties)
+    {
+        DwellerSpecies foodSpecies = new DwellerSpecies(DwellerType.food, 0, 0, 0,
+                getInt(properties, "dweller.food.reproductionRate", Food.REPRODUCTION_RATE),
+                getDouble(properties, "dweller.food.reproductionRange", Food.REPRODUCTION_RANGE),
+                0, 0);
+        DwellerSpecies antSpecies = new DwellerSpecies(DwellerType.ant,
+                getDouble(properties, "dweller.ant.visibilityRange", Ant.VISIBILITY_RANGE),
+                getDouble(properties, "dweller.ant.action_range", Ant.ACTION_RANGE),
+                getDouble(properties, "dweller.ant.baseSpeed", Ant.BASE_SPEED),
+                getInt(properties, "dweller.ant.reproductionRate", Ant.REPRODUCTION_RATE),
+                getDouble(properties, "dweller.ant.reproductionRange", Ant.REPRODUCTION_RANGE),
+                getDouble(properties, "dweller.ant.foodConsumption", Ant.FOOD_CONSUMPTION),
+                getDouble(properties, "dweller.ant.foodSaturation", Ant.FOOD_SATURATION));
+        return new WorldConfig(
+                getDouble(properties, "world.width", 200),
+                getDouble(properties, "world.height", 200),
+                getInt(properties, "world.initialFood", 30),
+                foodSpecies,
+                antSpecies,
+                AntAIType.valueOf(properties.getProperty("dweller.ant.ai.type", Ant.AI_TYPE.name()).trim()),
+                getDouble(properties, "dweller.ant.ai.angle_distance.direction_decision_angle", AngleDistanceAI.DIRECTION_DECISION_ANGLE),
+                getDouble(properties, "dweller.ant.ai.angle_distance.food_coefficient", AngleDistanceAI.DIRECTION_DECISION_FOOD_COEFFICIENT),
+                getDouble(properties, "dweller.ant.ai.angle_distance.ant_coefficient", AngleDistanceAI.DIRECTION_DECISION_ANT_COEFFICIENT));
+    }
+
+    private static double getDouble(Properties properties, String name, double defaultValue)
+    {
+        String value = properties.getProperty(name);
+        return value == null ? defaultValue : Double.valueOf(value.trim());
+    }
+
+    private static int getInt(Properties properties, String name, int defaultValue)
+    {
+        String value = properties.getProperty(name);
+        return value == null ? defaultValue : Integer.valueOf(value.trim());
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    public int getInitialFood() {
+        return initialFood;
+    }
+
+    public DwellerSpecies getFoodSpecies() {
+        return foodSpecies;
+    }
+
+    public DwellerSpecies getAntSpecies() {
+        return antSpecies;
+    }
+
+    public AntAIType getAntAIType() {
+        return antAIType;
+    }
+
+    public double getDirectionDecisionAngle() {
+        return directionDecisionAngle;
+    }
+
+    public double getDirectionDecisionFoodCoefficient() {
+        return directionDecisionFoodCoefficient;
+    }
+
+    public double getDirectionDecisionAntCoefficient() {
+        return directionDecisionAntCoefficient;
+    }
+
+    /**
+     * @return Copy of the config with other size of the world
+     */
+    public WorldConfig withSize(double width, double height)
+    {
+        return new WorldConfig(width, height, initialFood, foodSpecies, antSpecies, antAIType,
+                directionDecisionAngle, directionDecisionFoodCoefficient, directionDecisionAntCoefficient);
+    }
+
+    /**
+     * @return New AI of ant of the config
+     */
+    public IAntAI createAntAI() {
+        return antAIType.createAiImplementationInstance(this);
+    }
+}
@@ -37,9 +37,13 @@ public class WorldPlayer {
         }
     }
 
+    /**
+     * Replaces the world with new one. Old world is closed by the worker, after the tick, which may be running
+     */
     public void reset()
     {
         stop();
+        executor.execute(world::close);
         world = createWorld();
     }
 
@@ -72,6 +76,7 @@ public class WorldPlayer {
     public void destroy()
     {
         stop();
+        executor.execute(world::close);
         executor.shutdown();
     }
 }
@@ -0,0 +1,65 @@
+package com.company.life_simulator.world;
+
+import com.company.life_simulator.dweller.Dweller;
+import com.company.life_simulator.dweller.DwellerType;
+import com.company.life_simulator.world.quadtree.EntryVisitor;
+import com.company.life_simulator.world.quadtree.Point;
+import com.company.life_simulator.world.quadtree.QuadTreeSnapshot;
+import com.company.life_simulator.world.quadtree.Rectangle;
+
+import java.util.EnumMap;
+
+/**
+ * Immutable positions of all dwellers at the end of the tick, which may be read by any thread while the next tick runs.
+ * <br>
+ * Dwellers themselves are still changed by the world, so readers should take positions from the snapshot, not from dwellers.
+ */
+public class WorldSnapshot {
+    private final int tick;
+    private final Rectangle size;
+    private final EnumMap<DwellerType, QuadTreeSnapshot<Dweller>> layers;
+
+    WorldSnapshot(int tick, Rectangle size, EnumMap<DwellerType, QuadTreeSnapshot<Dweller>> layers) {
+        this.tick = tick;
+        this.size = size;
+        this.layers = layers;
+    }
+
+    public int getTick() {
+        return tick;
+    }
+
+    public Rectangle getSize() {
+        return size;
+    }
+
+    public int getDwellersCount() {
+        return layers.values().stream().mapToInt(QuadTreeSnapshot::getCount).sum();
+    }
+
+    public int getDwellersCount(DwellerType type) {
+        return layers.get(type).getCount();
+    }
+
+    /**
+     * Visits all dwellers with their positions until visitor stops
+     *
+     * @return False if search was stopped by visitor, otherwise true
+     */
+    public boolean forEachDweller(EntryVisitor<? super Dweller> visitor) {
+        for (QuadTreeSnapshot<Dweller> layer : layers.values()) {
+            if (!layer.forEach(visitor))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Visits dwellers of the type within range until visitor stops. Search does not wrap around edges of torus world.
+     *
+     * @return False if search was stopped by visitor, otherwise true
+     */
+    public boolean forEachDwellerInRange(Point point, double range, DwellerType type, EntryVisitor<? super Dweller> visitor) {
+        return layers.get(type).forEachWithin(point, range, visitor);
+    }
+}
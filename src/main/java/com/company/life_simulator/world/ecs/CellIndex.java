@@ -0,0 +1,70 @@
+package com.company.life_simulator.world.ecs;
+
+import com.company.life_simulator.dweller.DwellerType;
+import com.company.life_simulator.world.quadtree.Rectangle;
+
+import java.util.Arrays;
+
+/**
+ * Entities of one type, sorted by cells of the uniform grid. Index is rebuilt from positions by counting sort,
+ * so it has no per-entity objects: entities of cell c are {@code entities[cellStart[c]..cellStart[c + 1])}.
+ * <br>
+ * Cells are not smaller than cell size, so search within cell size touches the cell of the point and its eight neighbours.
+ */
+class CellIndex {
+    private final Rectangle size;
+    final int columns;
+    final int rows;
+    private final double cellWidth;
+    private final double cellHeight;
+    final int[] cellStart;
+    int[] entities = new int[16];
+
+    CellIndex(Rectangle size, double cellSize)
+    {
+        this.size = size;
+        this.columns = Math.max(1, (int) (size.getWidth() / cellSize));
+        this.rows = Math.max(1, (int) (size.getHeight() / cellSize));
+        this.cellWidth = size.getWidth() / columns;
+        this.cellHeight = size.getHeight() / rows;
+        this.cellStart = new int[columns * rows + 1];
+    }
+
+    int column(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) ((x - size.getLeft()) / cellWidth)));
+    }
+
+    int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) ((y - size.getTop()) / cellHeight)));
+    }
+
+    void build(EntityStore store, DwellerType type)
+    {
+        int cells = columns * rows;
+        Arrays.fill(cellStart, 0);
+        int typeCount = 0;
+        for (int entity = 0; entity < store.count; entity++) {
+            if (store.is(entity, type)) {
+                cellStart[cell(store, entity) + 1]++;
+                typeCount++;
+            }
+        }
+        for (int cell = 0; cell < cells; cell++)
+            cellStart[cell + 1] += cellStart[cell];
+        if (entities.length < typeCount)
+            entities = new int[typeCount * 2];
+
+        //cellStart of the cell is moved to its end while cell is filled, then restored
+        for (int entity = 0; entity < store.count; entity++) {
+            if (store.is(entity, type))
+                entities[cellStart[cell(store, entity)]++] = entity;
+        }
+        for (int cell = cells; cell > 0; cell--)
+            cellStart[cell] = cellStart[cell - 1];
+        cellStart[0] = 0;
+    }
+
+    private int cell(EntityStore store, int entity) {
+        return row(store.y[entity]) * columns + column(store.x[entity]);
+    }
+}
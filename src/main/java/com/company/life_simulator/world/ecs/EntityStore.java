@@ -0,0 +1,90 @@
+package com.company.life_simulator.world.ecs;
+
+import com.company.life_simulator.dweller.DwellerSpecies;
+import com.company.life_simulator.dweller.DwellerType;
+
+import java.util.Arrays;
+
+/**
+ * Dwellers as entities: state of entity is kept at its index in primitive arrays, parameters of its species are kept
+ * in shared {@link DwellerSpecies descriptors}.
+ * <br>
+ * Entities are kept in order of their birth: new entities are appended, {@link #compact} keeps order of others.
+ */
+class EntityStore {
+    private final DwellerSpecies[] species = new DwellerSpecies[DwellerType.values().length];
+
+    byte[] types = new byte[16];
+    double[] x = new double[16];
+    double[] y = new double[16];
+    double[] storedFood = new double[16];
+    int[] lastReproduction = new int[16];
+    int[] birthTick = new int[16];
+    //direction of wandering ant in turns, NaN if ant does not wander
+    float[] direction = new float[16];
+    int count = 0;
+
+    EntityStore(DwellerSpecies foodSpecies, DwellerSpecies antSpecies)
+    {
+        species[DwellerType.food.ordinal()] = foodSpecies;
+        species[DwellerType.ant.ordinal()] = antSpecies;
+    }
+
+    DwellerSpecies species(int entity) {
+        return species[types[entity]];
+    }
+
+    boolean is(int entity, DwellerType type) {
+        return types[entity] == type.ordinal();
+    }
+
+    /**
+     * @return Index of the new entity
+     */
+    int add(DwellerType type, double x, double y, int tick, double storedFood)
+    {
+        if (count == types.length)
+            grow(count * 2);
+        int entity = count++;
+        this.types[entity] = (byte) type.ordinal();
+        this.x[entity] = x;
+        this.y[entity] = y;
+        this.storedFood[entity] = storedFood;
+        this.lastReproduction[entity] = tick;
+        this.birthTick[entity] = tick;
+        this.direction[entity] = Float.NaN;
+        return entity;
+    }
+
+    private void grow(int capacity)
+    {
+        types = Arrays.copyOf(types, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        storedFood = Arrays.copyOf(storedFood, capacity);
+        lastReproduction = Arrays.copyOf(lastReproduction, capacity);
+        birthTick = Arrays.copyOf(birthTick, capacity);
+        direction = Arrays.copyOf(direction, capacity);
+    }
+
+    /**
+     * Drops entities, which are marked as dead, keeping order of others. Entities from marked count on are not marked
+     */
+    void compact(boolean[] dead, int marked)
+    {
+        int alives = 0;
+        for (int entity = 0; entity < count; entity++) {
+            if (entity < marked && dead[entity])
+                continue;
+            types[alives] = types[entity];
+            x[alives] = x[entity];
+            y[alives] = y[entity];
+            storedFood[alives] = storedFood[entity];
+            lastReproduction[alives] = lastReproduction[entity];
+            birthTick[alives] = birthTick[entity];
+            direction[alives] = direction[entity];
+            alives++;
+        }
+        count = alives;
+    }
+}
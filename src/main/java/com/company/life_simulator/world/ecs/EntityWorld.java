@@ -0,0 +1,437 @@
+package com.company.life_simulator.world.ecs;
+
+import com.company.life_simulator.dweller.Dweller;
+import com.company.life_simulator.dweller.DwellerSpecies;
+import com.company.life_simulator.dweller.DwellerType;
+import com.company.life_simulator.dweller.IMovingDweller;
+import com.company.life_simulator.dweller.ant.ai.AntAIType;
+import com.company.life_simulator.dweller.ant.ai.implementation.AngleDistanceAI;
+import com.company.life_simulator.util.CounterRandom;
+import com.company.life_simulator.world.World;
+import com.company.life_simulator.world.WorldConfig;
+import com.company.life_simulator.world.executor.TickExecutor;
+import com.company.life_simulator.world.quadtree.Point;
+import com.company.life_simulator.world.quadtree.Rectangle;
+import com.company.life_simulator.world.quadtree.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
+
+/**
+ * World, which keeps dwellers as entities of {@link EntityStore} instead of objects. It follows the rules of {@link World}
+ * with parallel apply: ant AI and species of its {@link WorldConfig config}, food goes to the eater with the smallest id, breeding in order of entities.
+ * <p/>
+ * Tick is a sequence of loops over arrays:
+ * <ol>
+ *     <li>food and ants are sorted by cells of {@link CellIndex grids}</li>
+ *     <li>every entity chooses its action, entities are split between tasks of the {@link TickExecutor executor}</li>
+ *     <li>eat conflicts and deaths are resolved in order of entities, which is order of their birth</li>
+ *     <li>moves are committed in parallel, then breeders produce children in order of entities</li>
+ *     <li>dead entities are dropped</li>
+ * </ol>
+ * World is bounded: positions outside of it are wrapped as in bounded {@link World}.
+ */
+public class EntityWorld implements AutoCloseable {
+    private static final byte NONE = 0;
+    private static final byte MOVE = 1;
+    private static final byte EAT = 2;
+    private static final byte BREED = 3;
+    private static final byte DIE = 4;
+
+    private final Rectangle size;
+    private final boolean torus;
+    private final int seed;
+    private final Random random;
+    private final WorldConfig config;
+    private final EntityStore store;
+    private final CellIndex foodCells;
+    private final CellIndex antCells;
+    private final List<BiConsumer<Integer, EntityWorld>> handlers = new ArrayList<>();
+    private final ThreadLocal<Neighbours> neighbours = ThreadLocal.withInitial(Neighbours::new);
+    private int tickCount = 0;
+
+    //decisions of the current tick by entity
+    private byte[] actions = new byte[0];
+    private int[] eatTargets = new int[0];
+    private float[] moveX = new float[0];
+    private float[] moveY = new float[0];
+    private boolean[] dead = new boolean[0];
+
+    private final TickExecutor executor;
+
+    public EntityWorld(double width, double height, int seed)
+    {
+        this(width, height, seed, World.EXECUTOR_TYPE.createExecutor(World.EXECUTOR_PARALLELISM));
+    }
+
+    /**
+     * @param executor Executor of the tick, which is closed with the world
+     */
+    public EntityWorld(double width, double height, int seed, TickExecutor executor)
+    {
+        this(WorldConfig.DEFAULT.withSize(width, height), seed, executor);
+    }
+
+    /**
+     * @param config Parameters of the simulation, entities are created by {@link com.company.life_simulator.world.WorldBuilder#createEntityWorld(WorldConfig, int, TickExecutor)}
+     * @param executor Executor of the tick, which is closed with the world
+     */
+    public EntityWorld(WorldConfig config, int seed, TickExecutor executor)
+    {
+        this(config, seed, World.TORUS, executor);
+    }
+
+    EntityWorld(double width, double height, int seed, boolean torus)
+    {
+        this(WorldConfig.DEFAULT.withSize(width, height), seed, torus, World.EXECUTOR_TYPE.createExecutor(World.EXECUTOR_PARALLELISM));
+    }
+
+    private EntityWorld(WorldConfig config, int seed, boolean torus, TickExecutor executor)
+    {
+        this.executor = executor;
+        this.config = config;
+        this.size = new Rectangle(0, 0, config.getWidth(), config.getHeight());
+        this.torus = torus;
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.store = new EntityStore(config.getFoodSpecies(), config.getAntSpecies());
+        this.foodCells = new CellIndex(size, config.getAntSpecies().getVisibilityRange());
+        this.antCells = new CellIndex(size, config.getAntSpecies().getVisibilityRange());
+    }
+
+    public Rectangle getSize() {
+        return size;
+    }
+
+    public void addDweller(DwellerType type, Point position, int birthTick, double storedFood)
+    {
+        store.add(type, wrap(position.getX(), size.getWidth()), wrap(position.getY(), size.getHeight()), birthTick, storedFood);
+    }
+
+    public void addTickHandler(BiConsumer<Integer, EntityWorld> handler)
+    {
+        handlers.add(handler);
+    }
+
+    /**
+     * Adds handler, which is called on ticks, divisible by the interval, instead of every tick
+     */
+    public void addTickHandler(BiConsumer<Integer, EntityWorld> handler, int interval)
+    {
+        if (interval < 1)
+            throw new IllegalArgumentException("Interval of tick handler must be positive: " + interval);
+        handlers.add((tick, world) -> {
+            if (tick % interval == 0)
+                handler.accept(tick, world);
+        });
+    }
+
+    public void tick()
+    {
+        int currentTick = ++tickCount;
+        try {
+            step(currentTick);
+        } catch (InterruptedException | ExecutionException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        for (BiConsumer<Integer, EntityWorld> consumer : handlers)
+            consumer.accept(currentTick, this);
+    }
+
+    private void step(int currentTick) throws InterruptedException, ExecutionException
+    {
+        int count = store.count;
+        if (actions.length < count) {
+            int capacity = count * 2;
+            actions = new byte[capacity];
+            eatTargets = new int[capacity];
+            moveX = new float[capacity];
+            moveY = new float[capacity];
+            dead = new boolean[capacity];
+        }
+        foodCells.build(store, DwellerType.food);
+        antCells.build(store, DwellerType.ant);
+
+        executor.forEachChunk(count, (chunk, from, to) -> {
+            for (int entity = from; entity < to; entity++)
+                decide(entity, currentTick);
+        });
+
+        Arrays.fill(dead, 0, count, false);
+        for (int entity = 0; entity < count; entity++) {
+            if (actions[entity] == DIE) {
+                dead[entity] = true;
+            } else if (actions[entity] == EAT && !dead[eatTargets[entity]]) {
+                dead[eatTargets[entity]] = true;
+                store.storedFood[entity] = Math.min(store.storedFood[entity] + 25, store.species(entity).getFoodSaturation());
+            }
+        }
+
+        executor.forEachChunk(count, (chunk, from, to) -> {
+            for (int entity = from; entity < to; entity++)
+                move(entity);
+        });
+
+        for (int entity = 0; entity < count; entity++) {
+            if (actions[entity] == BREED && !dead[entity])
+                breed(entity, currentTick);
+        }
+        store.compact(dead, count);
+    }
+
+    private void decide(int entity, int currentTick)
+    {
+        DwellerSpecies species = store.species(entity);
+        boolean ant = store.is(entity, DwellerType.ant);
+        actions[entity] = NONE;
+        if (currentTick - store.lastReproduction[entity] >= species.getReproductionRate()
+                && (!ant || store.storedFood[entity] >= species.getFoodSaturation())) {
+            actions[entity] = BREED;
+            return;
+        }
+        if (!ant)
+            return;
+        store.storedFood[entity] -= species.getFoodConsumption();
+        if (store.storedFood[entity] <= 0) {
+            actions[entity] = DIE;
+            return;
+        }
+
+        Neighbours visible = neighbours.get();
+        visible.size = 0;
+        gather(visible, foodCells, entity, species.getVisibilityRange());
+        int foodCount = visible.size;
+        if (config.getAntAIType() == AntAIType.nearestFood)
+            decideNearestFood(entity, species, visible, foodCount);
+        else
+            decideAngleDistance(entity, species, visible, foodCount);
+    }
+
+    /**
+     * Rules of {@link com.company.life_simulator.dweller.ant.ai.implementation.NearestFood}
+     */
+    private void decideNearestFood(int entity, DwellerSpecies species, Neighbours visible, int foodCount)
+    {
+        int nearest = -1;
+        double nearestSquareDistance = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < foodCount; i++) {
+            double squareDistance = visible.dx[i] * visible.dx[i] + visible.dy[i] * visible.dy[i];
+            if (squareDistance < nearestSquareDistance) {
+                nearest = i;
+                nearestSquareDistance = squareDistance;
+            }
+        }
+        if (nearest < 0) {
+            wander(entity, species);
+            return;
+        }
+        store.direction[entity] = Float.NaN;
+        if (nearestSquareDistance <= species.getActionRange() * species.getActionRange()) {
+            actions[entity] = EAT;
+            eatTargets[entity] = visible.entities[nearest];
+            return;
+        }
+        moveTowards(entity, species, visible.dx[nearest], visible.dy[nearest]);
+    }
+
+    /**
+     * Rules of {@link AngleDistanceAI}: food within action range is eaten, otherwise ant goes to the food,
+     * which direction is supported by the most of other food and is not blocked by other ants
+     */
+    private void decideAngleDistance(int entity, DwellerSpecies species, Neighbours visible, int foodCount)
+    {
+        double squareActionRange = species.getActionRange() * species.getActionRange();
+        for (int i = 0; i < foodCount; i++) {
+            if (visible.dx[i] * visible.dx[i] + visible.dy[i] * visible.dy[i] <= squareActionRange) {
+                store.direction[entity] = Float.NaN;
+                actions[entity] = EAT;
+                eatTargets[entity] = visible.entities[i];
+                return;
+            }
+        }
+        if (foodCount == 0) {
+            wander(entity, species);
+            return;
+        }
+
+        gather(visible, antCells, entity, species.getVisibilityRange());
+        for (int i = 0; i < visible.size; i++) {
+            double coefficient = i < foodCount
+                    ? config.getDirectionDecisionFoodCoefficient()
+                    : config.getDirectionDecisionAntCoefficient();
+            visible.angles[i] = Vector.angle(visible.dx[i], visible.dy[i]);
+            visible.weights[i] = coefficient / (visible.dx[i] * visible.dx[i] + visible.dy[i] * visible.dy[i]);
+        }
+        int best = AngleDistanceAI.chooseFood(visible.angles, visible.weights, visible.size, foodCount, config.getDirectionDecisionAngle());
+        store.direction[entity] = Float.NaN;
+        moveTowards(entity, species, visible.dx[best], visible.dy[best]);
+    }
+
+    /**
+     * Appends entities of the grid within range, except entity at the same point, with offsets to their nearest images
+     */
+    private void gather(Neighbours visible, CellIndex cells, int entity, double range)
+    {
+        double x = store.x[entity];
+        double y = store.y[entity];
+        double squareRange = range * range;
+        int column = cells.column(x);
+        int row = cells.row(y);
+        //small grid is searched as a whole, so no cell is visited twice
+        int fromRow = cells.rows < 3 ? 0 : row - 1;
+        int toRow = cells.rows < 3 ? cells.rows - 1 : row + 1;
+        int fromColumn = cells.columns < 3 ? 0 : column - 1;
+        int toColumn = cells.columns < 3 ? cells.columns - 1 : column + 1;
+        for (int r = fromRow; r <= toRow; r++) {
+            if (!torus && (r < 0 || r >= cells.rows))
+                continue;
+            int cellRow = Math.floorMod(r, cells.rows);
+            for (int c = fromColumn; c <= toColumn; c++) {
+                if (!torus && (c < 0 || c >= cells.columns))
+                    continue;
+                int cell = cellRow * cells.columns + Math.floorMod(c, cells.columns);
+                for (int k = cells.cellStart[cell]; k < cells.cellStart[cell + 1]; k++) {
+                    int other = cells.entities[k];
+                    double dx = image(store.x[other] - x, size.getWidth());
+                    double dy = image(store.y[other] - y, size.getHeight());
+                    if ((dx != 0 || dy != 0) && dx * dx + dy * dy <= squareRange)
+                        visible.add(other, dx, dy);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves to the point at the offset, as {@link IMovingDweller#calculateMove} does
+     */
+    private void moveTowards(int entity, DwellerSpecies species, double dx, double dy)
+    {
+        double scale = IMovingDweller.getStepScale(dx * dx + dy * dy, species.getBaseSpeed(), species.getActionRange());
+        actions[entity] = MOVE;
+        moveX[entity] = (float) (dx * scale);
+        moveY[entity] = (float) (dy * scale);
+    }
+
+    private void wander(int entity, DwellerSpecies species)
+    {
+        //direction is chosen by parallel decisions, deterministic world keys it by entity, which is the same at any parallelism
+        if (Float.isNaN(store.direction[entity]))
+            store.direction[entity] = (float) (World.DETERMINISTIC ? CounterRandom.ofThread(seed, tickCount, entity).nextDouble() : random.nextDouble());
+        double angle = store.direction[entity] * Math.PI * 2;
+        actions[entity] = MOVE;
+        moveX[entity] = (float) (Math.cos(angle) * species.getBaseSpeed());
+        moveY[entity] = (float) (Math.sin(angle) * species.getBaseSpeed());
+    }
+
+    private void move(int entity)
+    {
+        if (actions[entity] != MOVE)
+            return;
+        store.x[entity] = wrap(store.x[entity] + moveX[entity], size.getWidth());
+        store.y[entity] = wrap(store.y[entity] + moveY[entity], size.getHeight());
+    }
+
+    /**
+     * Adds child at random point within reproduction range, as {@link Dweller#breed} does
+     */
+    private void breed(int entity, int currentTick)
+    {
+        DwellerSpecies species = store.species(entity);
+        boolean ant = store.is(entity, DwellerType.ant);
+        if (ant)
+            store.storedFood[entity] -= species.getFoodSaturation() / 2;
+        Vector offset = Dweller.getChildOffset(random, species.getReproductionRange());
+        double x = wrap(store.x[entity] + offset.getX(), size.getWidth());
+        double y = wrap(store.y[entity] + offset.getY(), size.getHeight());
+        store.add(species.getType(), x, y, currentTick, ant ? species.getFoodSaturation() / 2 : 0);
+        store.lastReproduction[entity] = currentTick;
+    }
+
+    /**
+     * @return Offset to the nearest image in torus world
+     */
+    private double image(double delta, double side)
+    {
+        if (!torus)
+            return delta;
+        if (delta > side / 2)
+            return delta - side;
+        if (delta < -side / 2)
+            return delta + side;
+        return delta;
+    }
+
+    private static double wrap(double coordinate, double side)
+    {
+        if (coordinate >= 0 && coordinate <= side)
+            return coordinate;
+        double wrapped = coordinate % side;
+        return wrapped < 0 ? wrapped + side : wrapped;
+    }
+
+    public int getCurrentTick()
+    {
+        return tickCount;
+    }
+
+    public int getEntitiesCount()
+    {
+        return store.count;
+    }
+
+    public int getEntitiesCount(DwellerType type)
+    {
+        int count = 0;
+        for (int entity = 0; entity < store.count; entity++) {
+            if (store.is(entity, type))
+                count++;
+        }
+        return count;
+    }
+
+    EntityStore getStore() {
+        return store;
+    }
+
+    /**
+     * Closes executor of the tick, world can not be ticked after that
+     */
+    @Override
+    public void close()
+    {
+        executor.close();
+    }
+
+    /**
+     * Visible entities of one decision with their offsets, reused by the thread between decisions
+     */
+    private static class Neighbours {
+        int size = 0;
+        int[] entities = new int[64];
+        double[] dx = new double[64];
+        double[] dy = new double[64];
+        double[] angles = new double[64];
+        double[] weights = new double[64];
+
+        void add(int entity, double dx, double dy)
+        {
+            if (size == entities.length) {
+                entities = Arrays.copyOf(entities, size * 2);
+                this.dx = Arrays.copyOf(this.dx, size * 2);
+                this.dy = Arrays.copyOf(this.dy, size * 2);
+                angles = new double[size * 2];
+                weights = new double[size * 2];
+            }
+            entities[size] = entity;
+            this.dx[size] = dx;
+            this.dy[size] = dy;
+            size++;
+        }
+    }
+}
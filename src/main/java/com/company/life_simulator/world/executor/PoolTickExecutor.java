@@ -0,0 +1,49 @@
+package com.company.life_simulator.world.executor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Runs tasks of the tick in the executor service. Service, which is owned, is shut down on close
+ */
+public class PoolTickExecutor implements TickExecutor {
+    private final ExecutorService service;
+    private final int parallelism;
+    private final boolean owned;
+
+    public PoolTickExecutor(ExecutorService service, int parallelism, boolean owned)
+    {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        this.service = service;
+        this.parallelism = parallelism;
+        this.owned = owned;
+    }
+
+    @Override
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public <T> List<T> invokeAll(List<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException
+    {
+        if (service.isShutdown())
+            throw new IllegalStateException("Executor is closed");
+        List<T> results = new ArrayList<>(tasks.size());
+        for (Future<T> future : service.invokeAll(tasks))
+            results.add(future.get());
+        return results;
+    }
+
+    @Override
+    public void close()
+    {
+        if (owned)
+            service.shutdown();
+    }
+}
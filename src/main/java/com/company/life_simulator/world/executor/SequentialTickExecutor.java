@@ -0,0 +1,34 @@
+package com.company.life_simulator.world.executor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Runs tasks of the tick one by one in the caller thread, without handing them over to other threads
+ */
+public class SequentialTickExecutor implements TickExecutor {
+    @Override
+    public int getParallelism() {
+        return 1;
+    }
+
+    @Override
+    public <T> List<T> invokeAll(List<? extends Callable<T>> tasks) throws ExecutionException
+    {
+        List<T> results = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            try {
+                results.add(task.call());
+            } catch (Exception e) {
+                throw new ExecutionException(e);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+    }
+}
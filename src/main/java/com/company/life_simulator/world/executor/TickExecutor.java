@@ -0,0 +1,109 @@
+package com.company.life_simulator.world.executor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Runs parallel phases of the tick. Phase is split into tasks, which do not wait for each other, so any executor
+ * can run them: fork/join pool, pool of fixed threads, virtual threads or the caller thread.
+ * <br>
+ * Executor belongs to the world, which {@link #close closes} it with itself.
+ */
+public interface TickExecutor extends AutoCloseable {
+    /**
+     * Ranges are split into more chunks, than there are threads, so threads, which are done early, take chunks of others
+     */
+    int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * @return Number of tasks, which run at the same time
+     */
+    int getParallelism();
+
+    /**
+     * Runs tasks and waits for all of them
+     *
+     * @return Results of the tasks in order of the tasks
+     */
+    <T> List<T> invokeAll(List<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException;
+
+    /**
+     * Runs tasks and waits for all of them
+     */
+    default void runAll(List<? extends Runnable> tasks) throws InterruptedException, ExecutionException
+    {
+        List<Callable<Void>> callables = new ArrayList<>(tasks.size());
+        for (Runnable task : tasks) {
+            callables.add(() -> {
+                task.run();
+                return null;
+            });
+        }
+        invokeAll(callables);
+    }
+
+    /**
+     * @return Number of chunks, which range of the size is split into
+     */
+    default int getChunksCount(int size)
+    {
+        return Math.max(1, Math.min(size, getParallelism() * (getParallelism() > 1 ? CHUNKS_PER_THREAD : 1)));
+    }
+
+    /**
+     * Splits range [0, size) into {@link #getChunksCount chunks} of contiguous indexes and maps every chunk by its own task
+     *
+     * @return Results of the chunks in order of the range
+     */
+    default <T> List<T> mapChunks(int size, ChunkFunction<T> function) throws InterruptedException, ExecutionException
+    {
+        int chunks = getChunksCount(size);
+        List<Callable<T>> tasks = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int index = chunk;
+            int from = (int) ((long) size * chunk / chunks);
+            int to = (int) ((long) size * (chunk + 1) / chunks);
+            tasks.add(() -> function.apply(index, from, to));
+        }
+        return invokeAll(tasks);
+    }
+
+    /**
+     * Splits range [0, size) as {@link #mapChunks} does and passes every chunk to the consumer
+     */
+    default void forEachChunk(int size, ChunkConsumer consumer) throws InterruptedException, ExecutionException
+    {
+        mapChunks(size, (chunk, from, to) -> {
+            consumer.accept(chunk, from, to);
+            return null;
+        });
+    }
+
+    /**
+     * Stops threads, which are owned by the executor. Shared threads keep running
+     */
+    @Override
+    void close();
+
+    @FunctionalInterface
+    interface ChunkFunction<T> {
+        /**
+         * @param chunk Index of the chunk
+         * @param from First index of the range, inclusive
+         * @param to Last index of the range, exclusive
+         */
+        T apply(int chunk, int from, int to);
+    }
+
+    @FunctionalInterface
+    interface ChunkConsumer {
+        /**
+         * @param chunk Index of the chunk
+         * @param from First index of the range, inclusive
+         * @param to Last index of the range, exclusive
+         */
+        void accept(int chunk, int from, int to);
+    }
+}
@@ -0,0 +1,58 @@
+package com.company.life_simulator.world.executor;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+
+public enum TickExecutorType {
+    /**
+     * Fork/join pool with thread per processor, which is shared by all worlds of the JVM
+     */
+    shared(parallelism -> new PoolTickExecutor(SharedPool.POOL, parallelism, false)),
+    /**
+     * Own pool of the world with fixed number of threads
+     */
+    fixed(parallelism -> new PoolTickExecutor(Executors.newFixedThreadPool(parallelism,
+            new ThreadFactoryBuilder().setNameFormat("WorldTickWorker-%d").setDaemon(true).build()), parallelism, true)),
+    /**
+     * Caller thread, parallelism is ignored
+     */
+    sequential(parallelism -> new SequentialTickExecutor()),
+    /**
+     * Virtual thread per task, needs JDK 21 or later
+     */
+    virtual(parallelism -> new PoolTickExecutor(newVirtualThreadPerTaskExecutor(), parallelism, true));
+
+    private final IntFunction<TickExecutor> executorFactory;
+
+    TickExecutorType(IntFunction<TickExecutor> executorFactory)
+    {
+        this.executorFactory = executorFactory;
+    }
+
+    /**
+     * @param parallelism Number of tasks, which phase of the tick is split into
+     */
+    public TickExecutor createExecutor(int parallelism) {
+        return executorFactory.apply(parallelism);
+    }
+
+    /**
+     * Sources are compiled for Java 8, so virtual threads are looked up at runtime
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor()
+    {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by JVM " + System.getProperty("java.version"), e);
+        }
+    }
+
+    private static class SharedPool {
+        private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+}
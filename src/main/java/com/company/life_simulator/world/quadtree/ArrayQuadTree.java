@@ -0,0 +1,414 @@
+package com.company.life_simulator.world.quadtree;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Data structure: A point Quad Tree, which keeps nodes in parallel arrays instead of {@link Node} objects.
+ * <p/>
+ * Node is an index: bounds are kept as doubles, children as index of the block of four nodes(NW, NE, SW, SE).
+ * Blocks of removed nodes are reused through the free list, so split and merge don't allocate once arrays have grown.
+ * Leaf points are kept in flat arrays too, up to leafCapacity points per node.
+ * <p/>
+ * Routing of points and merging of nodes are the same as in {@link QuadTree}.
+ */
+public class ArrayQuadTree<T> implements SpatialIndex<T> {
+    private static final int NONE = -1;
+    private static final int ROOT = 0;
+    private static final int INITIAL_BLOCKS = 16;
+
+    private final Rectangle rectangle;
+    private final int leafCapacity;
+    private final int mergeThreshold;
+
+    //left, top, right, bottom of every node
+    private double[] bounds;
+    //index of the first child or NONE for leaf
+    private int[] children;
+    private int[] parents;
+    //number of points in leaf
+    private int[] sizes;
+    //points of leaf are kept in [node * leafCapacity, node * leafCapacity + sizes[node])
+    private Point[] points;
+    private Object[] values;
+
+    private int nodeCount;
+    private int[] freeBlocks;
+    private int freeBlockCount;
+    private int count = 0;
+
+    /**
+     * Creates new instance of tree
+     *
+     * @param rectangle determine area, covered by tree
+     * @param leafCapacity maximum number of points in one leaf
+     */
+    public ArrayQuadTree(Rectangle rectangle, int leafCapacity) {
+        if (leafCapacity < 1) {
+            throw new QuadTreeException("Invalid leaf capacity: " + leafCapacity);
+        }
+        this.rectangle = rectangle;
+        this.leafCapacity = leafCapacity;
+        this.mergeThreshold = Math.max(1, leafCapacity / 2);
+        allocateArrays(1 + INITIAL_BLOCKS * 4);
+        initRoot();
+    }
+
+    private void allocateArrays(int nodes) {
+        bounds = new double[nodes * 4];
+        children = new int[nodes];
+        parents = new int[nodes];
+        sizes = new int[nodes];
+        points = new Point[nodes * leafCapacity];
+        values = new Object[nodes * leafCapacity];
+        freeBlocks = new int[INITIAL_BLOCKS];
+    }
+
+    private void initRoot() {
+        nodeCount = 1;
+        freeBlockCount = 0;
+        setNode(ROOT, NONE, rectangle.getLeft(), rectangle.getTop(), rectangle.getRight(), rectangle.getBottom());
+    }
+
+    /**
+     * @return Maximum number of points in one leaf
+     */
+    public int getLeafCapacity() {
+        return leafCapacity;
+    }
+
+    /**
+     * @return Number of nodes in use, including root
+     */
+    public int getNodeCount() {
+        return nodeCount - freeBlockCount * 4;
+    }
+
+    @Override
+    public void put(Point point, T value) {
+        if (!rectangle.contains(point)) {
+            throw new QuadTreeException("Out of bounds: " + point);
+        }
+        if (insert(ROOT, point, value)) {
+            count++;
+        }
+    }
+
+    @Override
+    public Optional<T> get(Point point) {
+        int leaf = find(ROOT, point);
+        int index = indexOf(leaf, point);
+        return index >= 0 ? Optional.of(valueAt(index)) : Optional.empty();
+    }
+
+    @Override
+    public Optional<T> remove(Point point) {
+        int leaf = find(ROOT, point);
+        int index = indexOf(leaf, point);
+        if (index < 0) {
+            return Optional.empty();
+        }
+        T value = valueAt(index);
+        removeAt(leaf, index);
+        count--;
+        balance(parents[leaf]);
+        return Optional.of(value);
+    }
+
+    /**
+     * Moves value to the new point. Value is updated in place, when new point belongs to the same leaf.
+     */
+    @Override
+    public void move(Point oldPoint, Point newPoint, T value) {
+        if (!rectangle.contains(newPoint)) {
+            throw new QuadTreeException("Out of bounds: " + newPoint);
+        }
+        int leaf = find(ROOT, oldPoint);
+        int index = indexOf(leaf, oldPoint);
+        if (index >= 0 && owns(leaf, newPoint)) {
+            int existing = indexOf(leaf, newPoint);
+            if (existing < 0 || existing == index) {
+                points[index] = newPoint;
+                values[index] = value;
+                return;
+            }
+        }
+        SpatialIndex.super.move(oldPoint, newPoint, value);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(points, 0, nodeCount * leafCapacity, null);
+        Arrays.fill(values, 0, nodeCount * leafCapacity, null);
+        initRoot();
+        count = 0;
+    }
+
+    @Override
+    public Rectangle getSize() {
+        return rectangle;
+    }
+
+    @Override
+    public Stream<T> getValues() {
+        return searchWithin(rectangle);
+    }
+
+    @Override
+    public Stream<T> searchWithin(Rectangle searchRectangle) {
+        Stream.Builder<T> streamBuilder = Stream.builder();
+        this.forEachWithin(searchRectangle, (point, value) -> {
+            streamBuilder.add(value);
+            return true;
+        });
+        return streamBuilder.build();
+    }
+
+    @Override
+    public Stream<T> searchWithin(Point point, double radius) {
+        Stream.Builder<T> streamBuilder = Stream.builder();
+        this.forEachWithin(point, radius, (position, value) -> {
+            streamBuilder.add(value);
+            return true;
+        });
+        return streamBuilder.build();
+    }
+
+    @Override
+    public boolean forEachWithin(Rectangle searchRectangle, EntryVisitor<? super T> visitor) {
+        return navigate(ROOT, searchRectangle, visitor);
+    }
+
+    @Override
+    public boolean forEachWithin(Point point, double radius, EntryVisitor<? super T> visitor) {
+        return navigate(ROOT, point.getX(), point.getY(), radius, point, visitor);
+    }
+
+    private boolean navigate(int node, double x, double y, double radius, Point point, EntryVisitor<? super T> visitor) {
+        int firstChild = children[node];
+        if (firstChild == NONE) {
+            int from = node * leafCapacity;
+            for (int i = from; i < from + sizes[node]; i++) {
+                if (points[i].withinCircle(point, radius) && !visitor.visit(points[i], valueAt(i)))
+                    return false;
+            }
+            return true;
+        }
+        for (int child = firstChild; child < firstChild + 4; child++) {
+            if ((children[child] != NONE || sizes[child] > 0)
+                    && isIntersect(child, x, y, radius)
+                    && !navigate(child, x, y, radius, point, visitor))
+                return false;
+        }
+        return true;
+    }
+
+    private boolean navigate(int node, Rectangle searchRectangle, EntryVisitor<? super T> visitor) {
+        int firstChild = children[node];
+        if (firstChild == NONE) {
+            int from = node * leafCapacity;
+            for (int i = from; i < from + sizes[node]; i++) {
+                if (searchRectangle.contains(points[i]) && !visitor.visit(points[i], valueAt(i)))
+                    return false;
+            }
+            return true;
+        }
+        for (int child = firstChild; child < firstChild + 4; child++) {
+            int b = child * 4;
+            if ((children[child] != NONE || sizes[child] > 0)
+                    && bounds[b] <= searchRectangle.getRight() && bounds[b + 2] >= searchRectangle.getLeft()
+                    && bounds[b + 1] <= searchRectangle.getBottom() && bounds[b + 3] >= searchRectangle.getTop()
+                    && !navigate(child, searchRectangle, visitor))
+                return false;
+        }
+        return true;
+    }
+
+    private boolean isIntersect(int node, double x, double y, double radius) {
+        int b = node * 4;
+        double dx = x < bounds[b] ? bounds[b] - x : (x > bounds[b + 2] ? x - bounds[b + 2] : 0);
+        double dy = y < bounds[b + 1] ? bounds[b + 1] - y : (y > bounds[b + 3] ? y - bounds[b + 3] : 0);
+        return dx * dx + dy * dy <= radius * radius;
+    }
+
+    private boolean insert(int node, Point point, T value) {
+        while (true) {
+            while (children[node] != NONE) {
+                node = quadrantNode(node, point);
+            }
+            int index = indexOf(node, point);
+            if (index >= 0) {
+                values[index] = value;
+                return false;
+            }
+            if (sizes[node] < leafCapacity) {
+                int slot = node * leafCapacity + sizes[node];
+                points[slot] = point;
+                values[slot] = value;
+                sizes[node]++;
+                return true;
+            }
+            split(node);
+        }
+    }
+
+    private int find(int node, Point point) {
+        while (children[node] != NONE) {
+            node = quadrantNode(node, point);
+        }
+        return node;
+    }
+
+    private int quadrantNode(int node, Point point) {
+        int b = node * 4;
+        double middleX = bounds[b] + (bounds[b + 2] - bounds[b]) / 2;
+        double middleY = bounds[b + 1] + (bounds[b + 3] - bounds[b + 1]) / 2;
+        int quadrant = (point.getX() < middleX ? 0 : 1) + (point.getY() < middleY ? 0 : 2);
+        return children[node] + quadrant;
+    }
+
+    /**
+     * Checks that search from the root would reach this node for the point, same as in {@link QuadTree}
+     */
+    private boolean owns(int node, Point point) {
+        int b = node * 4;
+        double x = point.getX();
+        double y = point.getY();
+        return bounds[b] <= x && (x < bounds[b + 2] || x == bounds[b + 2] && x == rectangle.getRight())
+                && bounds[b + 1] <= y && (y < bounds[b + 3] || y == bounds[b + 3] && y == rectangle.getBottom());
+    }
+
+    /**
+     * @return Index of the point in points array, or -1 if leaf doesn't contain it
+     */
+    private int indexOf(int leaf, Point point) {
+        int from = leaf * leafCapacity;
+        for (int i = from; i < from + sizes[leaf]; i++) {
+            if (points[i].equals(point))
+                return i;
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T valueAt(int index) {
+        return (T) values[index];
+    }
+
+    private void removeAt(int leaf, int index) {
+        int last = leaf * leafCapacity + sizes[leaf] - 1;
+        points[index] = points[last];
+        values[index] = values[last];
+        points[last] = null;
+        values[last] = null;
+        sizes[leaf]--;
+    }
+
+    private void split(int node) {
+        int firstChild = allocateBlock();
+        int b = node * 4;
+        double left = bounds[b], top = bounds[b + 1], right = bounds[b + 2], bottom = bounds[b + 3];
+        double halfWidth = (right - left) / 2;
+        double halfHeight = (bottom - top) / 2;
+        setNode(firstChild, node, left, top, left + halfWidth, top + halfHeight);
+        setNode(firstChild + 1, node, left + halfWidth, top, left + halfWidth + halfWidth, top + halfHeight);
+        setNode(firstChild + 2, node, left, top + halfHeight, left + halfWidth, top + halfHeight + halfHeight);
+        setNode(firstChild + 3, node, left + halfWidth, top + halfHeight, left + halfWidth + halfWidth, top + halfHeight + halfHeight);
+        children[node] = firstChild;
+
+        //leaf is never overfilled, so every point fits into its child
+        int from = node * leafCapacity;
+        for (int i = from; i < from + sizes[node]; i++) {
+            int child = quadrantNode(node, points[i]);
+            int slot = child * leafCapacity + sizes[child];
+            points[slot] = points[i];
+            values[slot] = values[i];
+            sizes[child]++;
+            points[i] = null;
+            values[i] = null;
+        }
+        sizes[node] = 0;
+    }
+
+    private void balance(int node) {
+        while (node != NONE) {
+            int firstChild = children[node];
+            int childPoints = 0;
+            for (int child = firstChild; child < firstChild + 4; child++) {
+                if (children[child] != NONE) {
+                    // One of children is a pointer, therefore we can't rebalance.
+                    return;
+                }
+                childPoints += sizes[child];
+            }
+            if (childPoints > mergeThreshold) {
+                return;
+            }
+
+            int slot = node * leafCapacity;
+            for (int child = firstChild; child < firstChild + 4; child++) {
+                int from = child * leafCapacity;
+                for (int i = from; i < from + sizes[child]; i++) {
+                    points[slot] = points[i];
+                    values[slot] = values[i];
+                    slot++;
+                    points[i] = null;
+                    values[i] = null;
+                }
+                sizes[child] = 0;
+            }
+            sizes[node] = childPoints;
+            children[node] = NONE;
+            freeBlock(firstChild);
+
+            node = parents[node];
+        }
+    }
+
+    private void setNode(int node, int parent, double left, double top, double right, double bottom) {
+        int b = node * 4;
+        bounds[b] = left;
+        bounds[b + 1] = top;
+        bounds[b + 2] = right;
+        bounds[b + 3] = bottom;
+        parents[node] = parent;
+        children[node] = NONE;
+        sizes[node] = 0;
+    }
+
+    private int allocateBlock() {
+        if (freeBlockCount > 0) {
+            return freeBlocks[--freeBlockCount];
+        }
+        if (nodeCount + 4 > children.length) {
+            int nodes = children.length * 2;
+            bounds = Arrays.copyOf(bounds, nodes * 4);
+            children = Arrays.copyOf(children, nodes);
+            parents = Arrays.copyOf(parents, nodes);
+            sizes = Arrays.copyOf(sizes, nodes);
+            points = Arrays.copyOf(points, nodes * leafCapacity);
+            values = Arrays.copyOf(values, nodes * leafCapacity);
+        }
+        int firstChild = nodeCount;
+        nodeCount += 4;
+        return firstChild;
+    }
+
+    private void freeBlock(int firstChild) {
+        if (freeBlockCount == freeBlocks.length) {
+            freeBlocks = Arrays.copyOf(freeBlocks, freeBlocks.length * 2);
+        }
+        freeBlocks[freeBlockCount++] = firstChild;
+    }
+}
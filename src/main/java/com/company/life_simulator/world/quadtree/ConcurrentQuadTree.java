@@ -0,0 +1,427 @@
+package com.company.life_simulator.world.quadtree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Thread-safe quad-tree: area is split into regions x regions stripes, each stripe is separate {@link QuadTree} with its own lock.
+ * <p/>
+ * Writes lock only the stripe of the point, so threads, which change disjoint stripes, do not wait for each other.
+ * Move between stripes locks both of them in the order of their indexes.
+ * <br>
+ * Reads take no lock: stripe is read optimistically and the result is checked against concurrent writes afterwards.
+ * Only read, which was overlapped by a write, is repeated under read lock. Visitor queries collect entries of the stripe first
+ * into buffer of the thread, so visitor never sees half-changed stripe and may call back into the index.
+ */
+public class ConcurrentQuadTree<T> implements SpatialIndex<T> {
+    private final Rectangle rectangle;
+    private final int regions;
+    private final double regionWidth;
+    private final double regionHeight;
+    private final Region<T>[] stripes;
+    private final AtomicInteger count = new AtomicInteger();
+    //entries of the stripe, read by visitor query, one buffer per depth of nested queries
+    private static final ThreadLocal<EntryBuffers> BUFFERS = ThreadLocal.withInitial(EntryBuffers::new);
+
+    /**
+     * Creates new instance of tree
+     *
+     * @param rectangle    determine area, covered by tree
+     * @param regions      number of stripes along each side of the area
+     * @param leafCapacity maximum number of points in one leaf
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentQuadTree(Rectangle rectangle, int regions, int leafCapacity) {
+        if (regions < 1) {
+            throw new QuadTreeException("Invalid number of regions: " + regions);
+        }
+        this.rectangle = rectangle;
+        this.regions = regions;
+        this.regionWidth = rectangle.getWidth() / regions;
+        this.regionHeight = rectangle.getHeight() / regions;
+        //generic array can not be created, array holds only regions of T
+        this.stripes = (Region<T>[]) new Region<?>[regions * regions];
+        for (int row = 0; row < regions; row++) {
+            for (int column = 0; column < regions; column++) {
+                double left = rectangle.getLeft() + column * regionWidth;
+                double top = rectangle.getTop() + row * regionHeight;
+                double right = column == regions - 1 ? rectangle.getRight() : left + regionWidth;
+                double bottom = row == regions - 1 ? rectangle.getBottom() : top + regionHeight;
+                stripes[row * regions + column] = new Region<>(new Rectangle(left, top, right, bottom), leafCapacity);
+            }
+        }
+    }
+
+    @Override
+    public boolean isConcurrent() {
+        return true;
+    }
+
+    @Override
+    public void put(Point point, T value) {
+        if (!rectangle.contains(point)) {
+            throw new QuadTreeException("Out of bounds: " + point);
+        }
+        Region<T> region = stripes[stripeIndex(point)];
+        long stamp = region.lock.writeLock();
+        try {
+            int size = region.tree.getCount();
+            region.tree.put(point, value);
+            count.addAndGet(region.tree.getCount() - size);
+        } finally {
+            region.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Puts values into their stripes, stripes are filled in parallel. Values are grouped by stripes with counting sort
+     */
+    @Override
+    public void putAll(Collection<? extends T> values, Function<? super T, Point> position) {
+        int[] stripeOf = new int[values.size()];
+        int[] starts = new int[stripes.length + 1];
+        int i = 0;
+        for (T value : values) {
+            Point point = position.apply(value);
+            if (!rectangle.contains(point)) {
+                throw new QuadTreeException("Out of bounds: " + point);
+            }
+            stripeOf[i] = stripeIndex(point);
+            starts[stripeOf[i] + 1]++;
+            i++;
+        }
+        for (int stripe = 0; stripe < stripes.length; stripe++)
+            starts[stripe + 1] += starts[stripe];
+
+        //array holds only values of T, it is seen only through the list
+        @SuppressWarnings("unchecked")
+        T[] sorted = (T[]) new Object[values.size()];
+        int[] next = Arrays.copyOf(starts, stripes.length);
+        i = 0;
+        for (T value : values)
+            sorted[next[stripeOf[i++]]++] = value;
+        List<T> sortedList = Arrays.asList(sorted);
+
+        IntStream.range(0, stripes.length).parallel().filter(stripe -> starts[stripe] < starts[stripe + 1]).forEach(stripe -> {
+            Region<T> region = stripes[stripe];
+            long stamp = region.lock.writeLock();
+            try {
+                int size = region.tree.getCount();
+                region.tree.putAll(sortedList.subList(starts[stripe], starts[stripe + 1]), position);
+                count.addAndGet(region.tree.getCount() - size);
+            } finally {
+                region.lock.unlockWrite(stamp);
+            }
+        });
+    }
+
+    @Override
+    public Optional<T> get(Point point) {
+        if (!rectangle.contains(point))
+            return Optional.empty();
+        return read(stripes[stripeIndex(point)], tree -> tree.get(point));
+    }
+
+    @Override
+    public Optional<T> remove(Point point) {
+        return remove(point, null);
+    }
+
+    @Override
+    public Optional<T> remove(Point point, T value) {
+        if (!rectangle.contains(point))
+            return Optional.empty();
+        Region<T> region = stripes[stripeIndex(point)];
+        long stamp = region.lock.writeLock();
+        try {
+            Optional<T> removed = value == null ? region.tree.remove(point) : region.tree.remove(point, value);
+            if (removed.isPresent())
+                count.decrementAndGet();
+            return removed;
+        } finally {
+            region.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Moves value within its stripe in place, move to other stripe locks both stripes
+     */
+    @Override
+    public void move(Point oldPoint, Point newPoint, T value) {
+        if (!rectangle.contains(newPoint)) {
+            throw new QuadTreeException("Out of bounds: " + newPoint);
+        }
+        int newIndex = stripeIndex(newPoint);
+        int oldIndex = rectangle.contains(oldPoint) ? stripeIndex(oldPoint) : newIndex;
+        Region<T> oldRegion = stripes[oldIndex];
+        Region<T> newRegion = stripes[newIndex];
+        if (oldRegion == newRegion) {
+            long stamp = newRegion.lock.writeLock();
+            try {
+                int size = newRegion.tree.getCount();
+                newRegion.tree.move(oldPoint, newPoint, value);
+                count.addAndGet(newRegion.tree.getCount() - size);
+            } finally {
+                newRegion.lock.unlockWrite(stamp);
+            }
+            return;
+        }
+
+        Region<T> first = oldIndex < newIndex ? oldRegion : newRegion;
+        Region<T> second = oldIndex < newIndex ? newRegion : oldRegion;
+        long firstStamp = first.lock.writeLock();
+        long secondStamp = second.lock.writeLock();
+        try {
+            int size = oldRegion.tree.getCount() + newRegion.tree.getCount();
+            oldRegion.tree.remove(oldPoint, value);
+            newRegion.tree.put(newPoint, value);
+            count.addAndGet(oldRegion.tree.getCount() + newRegion.tree.getCount() - size);
+        } finally {
+            second.lock.unlockWrite(secondStamp);
+            first.lock.unlockWrite(firstStamp);
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count.get() == 0;
+    }
+
+    @Override
+    public int getCount() {
+        return count.get();
+    }
+
+    @Override
+    public void clear() {
+        long[] stamps = new long[stripes.length];
+        for (int i = 0; i < stripes.length; i++)
+            stamps[i] = stripes[i].lock.writeLock();
+        try {
+            for (Region<T> region : stripes)
+                region.tree.clear();
+            count.set(0);
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--)
+                stripes[i].lock.unlockWrite(stamps[i]);
+        }
+    }
+
+    @Override
+    public Rectangle getSize() {
+        return rectangle;
+    }
+
+    @Override
+    public Stream<T> getValues() {
+        return Arrays.stream(stripes)
+                .flatMap(region -> read(region, tree -> tree.getValues().collect(Collectors.toList())).stream());
+    }
+
+    @Override
+    public Stream<T> searchWithin(Rectangle searchRectangle) {
+        Stream.Builder<T> streamBuilder = Stream.builder();
+        this.forEachWithin(searchRectangle, (point, value) -> {
+            streamBuilder.add(value);
+            return true;
+        });
+        return streamBuilder.build();
+    }
+
+    @Override
+    public Stream<T> searchWithin(Point point, double radius) {
+        Stream.Builder<T> streamBuilder = Stream.builder();
+        this.forEachWithin(point, radius, (position, value) -> {
+            streamBuilder.add(value);
+            return true;
+        });
+        return streamBuilder.build();
+    }
+
+    @Override
+    public boolean forEachWithin(Rectangle searchRectangle, EntryVisitor<? super T> visitor) {
+        return forEachInStripes(searchRectangle.getLeft(), searchRectangle.getTop(), searchRectangle.getRight(), searchRectangle.getBottom(),
+                (tree, entries) -> tree.forEachWithin(searchRectangle, entries), visitor);
+    }
+
+    @Override
+    public boolean forEachWithin(Point point, double radius, EntryVisitor<? super T> visitor) {
+        return forEachInStripes(point.getX() - radius, point.getY() - radius, point.getX() + radius, point.getY() + radius,
+                (tree, entries) -> tree.forEachWithin(point, radius, entries), visitor);
+    }
+
+    private boolean forEachInStripes(double left, double top, double right, double bottom,
+                                     StripeQuery<T> query, EntryVisitor<? super T> visitor) {
+        int toColumn = column(right);
+        int toRow = row(bottom);
+        EntryBuffers buffers = BUFFERS.get();
+        EntryBuffer entries = buffers.acquire();
+        try {
+            for (int row = row(top); row <= toRow; row++) {
+                for (int column = column(left); column <= toColumn; column++) {
+                    read(stripes[row * regions + column], query, entries);
+                    for (int i = 0; i < entries.size; i++) {
+                        //buffer was filled by the tree of T
+                        @SuppressWarnings("unchecked")
+                        T value = (T) entries.values[i];
+                        if (!visitor.visit(entries.points[i], value))
+                            return false;
+                    }
+                }
+            }
+            return true;
+        } finally {
+            entries.clear();
+            buffers.release();
+        }
+    }
+
+    /**
+     * Fills the buffer with entries, found by query on the stripe, as {@link #read(Region, Function)} does
+     */
+    private static <T> void read(Region<T> region, StripeQuery<T> query, EntryBuffer entries) {
+        long stamp = region.lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                entries.clear();
+                query.search(region.tree, entries);
+                if (region.lock.validate(stamp))
+                    return;
+            } catch (RuntimeException e) {
+                if (region.lock.validate(stamp))
+                    throw e;
+            }
+        }
+        stamp = region.lock.readLock();
+        try {
+            entries.clear();
+            query.search(region.tree, entries);
+        } finally {
+            region.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Runs query on the stripe without lock, query is repeated under read lock if stripe was changed meanwhile.
+     * Query of changing tree may fail with any runtime exception, such failure is treated as failed validation.
+     */
+    private static <T, R> R read(Region<T> region, Function<QuadTree<T>, R> query) {
+        long stamp = region.lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                R result = query.apply(region.tree);
+                if (region.lock.validate(stamp))
+                    return result;
+            } catch (RuntimeException e) {
+                if (region.lock.validate(stamp))
+                    throw e;
+            }
+        }
+        stamp = region.lock.readLock();
+        try {
+            return query.apply(region.tree);
+        } finally {
+            region.lock.unlockRead(stamp);
+        }
+    }
+
+    private int stripeIndex(Point point) {
+        int column = column(point.getX());
+        int row = row(point.getY());
+        //coordinate on the border of stripes goes to the stripe, which rectangle contains it
+        Rectangle stripe = stripes[row * regions + column].tree.getSize();
+        if (point.getX() < stripe.getLeft())
+            column--;
+        else if (point.getX() >= stripe.getRight() && column < regions - 1)
+            column++;
+        if (point.getY() < stripe.getTop())
+            row--;
+        else if (point.getY() >= stripe.getBottom() && row < regions - 1)
+            row++;
+        return row * regions + column;
+    }
+
+    private int column(double x) {
+        int column = (int) ((x - rectangle.getLeft()) / regionWidth);
+        return Math.max(0, Math.min(regions - 1, column));
+    }
+
+    private int row(double y) {
+        int row = (int) ((y - rectangle.getTop()) / regionHeight);
+        return Math.max(0, Math.min(regions - 1, row));
+    }
+
+    /**
+     * Search of one stripe, which passes found entries to the visitor
+     */
+    private interface StripeQuery<T> {
+        void search(QuadTree<T> tree, EntryVisitor<? super T> entries);
+    }
+
+    /**
+     * Entries of one stripe, collected by visitor query
+     */
+    private static class EntryBuffer implements EntryVisitor<Object> {
+        private Point[] points = new Point[16];
+        private Object[] values = new Object[16];
+        private int size = 0;
+
+        @Override
+        public boolean visit(Point point, Object value) {
+            if (size == points.length) {
+                points = Arrays.copyOf(points, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            points[size] = point;
+            values[size] = value;
+            size++;
+            return true;
+        }
+
+        void clear() {
+            //buffer keeps no values after the query
+            Arrays.fill(points, 0, size, null);
+            Arrays.fill(values, 0, size, null);
+            size = 0;
+        }
+    }
+
+    /**
+     * Buffers of the thread: visitor may start nested query, which takes the next buffer
+     */
+    private static class EntryBuffers {
+        private final List<EntryBuffer> buffers = new ArrayList<>();
+        private int depth = 0;
+
+        EntryBuffer acquire() {
+            if (depth == buffers.size())
+                buffers.add(new EntryBuffer());
+            return buffers.get(depth++);
+        }
+
+        void release() {
+            depth--;
+        }
+    }
+
+    /**
+     * Stripe of the area with its lock
+     */
+    private static class Region<T> {
+        private final QuadTree<T> tree;
+        private final StampedLock lock = new StampedLock();
+
+        Region(Rectangle rectangle, int leafCapacity) {
+            this.tree = new QuadTree<>(rectangle, leafCapacity);
+        }
+    }
+}
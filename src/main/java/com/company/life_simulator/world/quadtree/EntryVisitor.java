@@ -0,0 +1,14 @@
+package com.company.life_simulator.world.quadtree;
+
+/**
+ * Callback for search in {@link SpatialIndex}, which doesn't need to collect results
+ */
+@FunctionalInterface
+public interface EntryVisitor<T> {
+    /**
+     * @param point coordinates of element
+     * @param value element
+     * @return True to continue search, false to stop it
+     */
+    boolean visit(Point point, T value);
+}
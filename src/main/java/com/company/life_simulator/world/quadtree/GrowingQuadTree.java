@@ -0,0 +1,47 @@
+package com.company.life_simulator.world.quadtree;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Quad-tree without fixed bounds: put and move outside of the area {@link QuadTree#growToInclude grow} the tree
+ * instead of throwing {@link QuadTreeException}.
+ * <br>
+ * Initial area determines only the grid of nodes: root grows by doubling, so nodes of initial area are kept as they are.
+ */
+public class GrowingQuadTree<T> extends QuadTree<T> {
+
+    /**
+     * Creates new instance of tree
+     *
+     * @param rectangle initial area of the tree
+     * @param leafCapacity maximum number of points in one leaf
+     */
+    public GrowingQuadTree(Rectangle rectangle, int leafCapacity) {
+        super(rectangle, leafCapacity);
+    }
+
+    @Override
+    public void put(Point point, T value) {
+        this.growToInclude(point);
+        super.put(point, value);
+    }
+
+    @Override
+    public void move(Point oldPoint, Point newPoint, T value) {
+        this.growToInclude(newPoint);
+        super.move(oldPoint, newPoint, value);
+    }
+
+    /**
+     * Grows empty tree to cover all points before bulk loading
+     */
+    @Override
+    public void putAll(Collection<? extends T> values, Function<? super T, Point> position) {
+        if (this.isEmpty()) {
+            for (T value : values)
+                this.growToInclude(position.apply(value));
+        }
+        super.putAll(values, position);
+    }
+}
@@ -1,22 +1,42 @@
 package com.company.life_simulator.world.quadtree;
 
+import java.util.Arrays;
 import java.util.stream.Stream;
 
+/**
+ * Tree node. Node of type LEAF keeps up to {@link #getCapacity capacity} points in flat arrays,
+ * node of type POINTER keeps four child nodes.
+ * <br>
+ * Leaf updates handle of every {@link NodeHolder} value, put into it.
+ */
 public class Node<T> {
 
     private final Rectangle rect;
-    private final Node<T> opt_parent;
-    private Point point;
+    private Node<T> opt_parent;
+    private final Node<T> root;
+    private final int capacity;
     private NodeType nodetype = NodeType.EMPTY;
-    private T value;
+    private Point[] points;
+    private Object[] values;
+    private int size;
     private Node<T> nwNode;
     private Node<T> neNode;
     private Node<T> swNode;
     private Node<T> seNode;
 
     public Node(Rectangle rect, Node<T> opt_parent) {
+        this(rect, opt_parent, 1);
+    }
+
+    public Node(Rectangle rect, Node<T> opt_parent, int capacity) {
+        this(rect, opt_parent, capacity, opt_parent == null ? null : opt_parent.root);
+    }
+
+    private Node(Rectangle rect, Node<T> opt_parent, int capacity, Node<T> root) {
         this.rect = rect;
         this.opt_parent = opt_parent;
+        this.capacity = capacity;
+        this.root = root == null ? this : root;
     }
 
     public Rectangle getRectangle() {
@@ -27,27 +47,112 @@ public class Node<T> {
         return opt_parent;
     }
 
-    public void setPoint(Point point, T payload) {
-        clear();
-        nodetype = NodeType.LEAF;
-        this.point = point;
-        this.value = payload;
+    /**
+     * @return The first root node of the tree, this node belongs to. Root, which is {@link #growRoot grown}, keeps it, so it identifies the tree
+     */
+    public Node<T> getRoot() {
+        return root;
+    }
+
+    /**
+     * @return Maximum number of points, which leaf can keep before split
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return Number of points in this leaf, always zero for nodes of other types
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    public Point getPoint(int index) {
+        return points[index];
     }
 
-    public Point getPoint() {
-        return this.point;
+    @SuppressWarnings("unchecked")
+    public T getValue(int index) {
+        return (T) values[index];
+    }
+
+    public void setValue(int index, T value) {
+        if (values[index] != value)
+            dropHandle(values[index]);
+        values[index] = value;
+        updateHandle(value, this);
+    }
+
+    /**
+     * Replaces point at index, keeping it in this leaf
+     */
+    public void setPoint(int index, Point point, T value) {
+        points[index] = point;
+        setValue(index, value);
+    }
+
+    /**
+     * @return Index of the point in this leaf, or -1 if there is no such point
+     */
+    public int indexOf(Point point) {
+        for (int i = 0; i < size; i++) {
+            if (points[i].equals(point))
+                return i;
+        }
+        return -1;
+    }
+
+    public void addPoint(Point point, T payload) {
+        if (nodetype == NodeType.POINTER) {
+            throw new QuadTreeException("Can not put point for node of type POINTER");
+        }
+        if (size == capacity) {
+            throw new QuadTreeException("Leaf is full");
+        }
+        if (points == null) {
+            points = new Point[capacity];
+            values = new Object[capacity];
+        }
+        points[size] = point;
+        values[size] = payload;
+        size++;
+        nodetype = NodeType.LEAF;
+        updateHandle(payload, this);
     }
 
-    public void setNodeType(NodeType nodetype) {
-        this.nodetype = nodetype;
+    /**
+     * Removes point at index, last point of the leaf takes its place. Leaf becomes EMPTY after removing of the last point.
+     */
+    public void removePoint(int index) {
+        dropHandle(values[index]);
+        size--;
+        points[index] = points[size];
+        values[index] = values[size];
+        points[size] = null;
+        values[size] = null;
+        if (size == 0)
+            nodetype = NodeType.EMPTY;
     }
 
     public NodeType getNodeType() {
         return this.nodetype;
     }
 
+    /**
+     * Turns node into POINTER and moves its points to new child nodes.
+     * Leaf is never overfilled, so every point fits into its child.
+     */
     public void clearAndSplit()
     {
+        Point[] oldPoints = points;
+        Object[] oldValues = values;
+        int oldSize = size;
+
         clear();
         nodetype = NodeType.POINTER;
 
@@ -55,10 +160,93 @@ public class Node<T> {
         double halfWidth = rect.getWidth() / 2;
         double halfHeight = rect.getHeight() / 2;
 
-        this.nwNode = new Node<>(new Rectangle(point, halfWidth, halfHeight), this);
-        this.neNode = new Node<>(new Rectangle(point.delta(halfWidth, 0), halfWidth, halfHeight), this);
-        this.swNode = new Node<>(new Rectangle(point.delta(0, halfHeight), halfWidth, halfHeight), this);
-        this.seNode = new Node<>(new Rectangle(point.delta(halfWidth, halfHeight), halfWidth, halfHeight), this);
+        this.nwNode = new Node<>(new Rectangle(point, halfWidth, halfHeight), this, capacity);
+        this.neNode = new Node<>(new Rectangle(point.delta(halfWidth, 0), halfWidth, halfHeight), this, capacity);
+        this.swNode = new Node<>(new Rectangle(point.delta(0, halfHeight), halfWidth, halfHeight), this, capacity);
+        this.seNode = new Node<>(new Rectangle(point.delta(halfWidth, halfHeight), halfWidth, halfHeight), this, capacity);
+
+        for (int i = 0; i < oldSize; i++) {
+            @SuppressWarnings("unchecked")
+            T value = (T) oldValues[i];
+            getQuadrantNode(oldPoints[i]).addPoint(oldPoints[i], value);
+        }
+    }
+
+    /**
+     * Turns POINTER node, whose children are leaves, into a leaf with all their points.
+     * Caller must check that points fit into the leaf.
+     */
+    public void merge()
+    {
+        Node<T> nw = nwNode, ne = neNode, sw = swNode, se = seNode;
+        clear();
+        mergeFrom(ne);
+        mergeFrom(se);
+        mergeFrom(sw);
+        mergeFrom(nw);
+    }
+
+    private void mergeFrom(Node<T> child)
+    {
+        for (int i = 0; i < child.size; i++)
+            addPoint(child.points[i], child.getValue(i));
+    }
+
+    /**
+     * Copies points and structure of the source subtree into this empty node. Rectangles are immutable and shared with source.
+     * <br>
+     * Handles of {@link NodeHolder} values are not changed, they keep pointing to the source.
+     */
+    public void copyFrom(Node<T> source)
+    {
+        nodetype = source.nodetype;
+        switch (source.nodetype) {
+            case LEAF:
+                points = Arrays.copyOf(source.points, capacity);
+                values = Arrays.copyOf(source.values, capacity);
+                size = source.size;
+                break;
+            case POINTER:
+                nwNode = new Node<>(source.nwNode.rect, this, capacity);
+                neNode = new Node<>(source.neNode.rect, this, capacity);
+                swNode = new Node<>(source.swNode.rect, this, capacity);
+                seNode = new Node<>(source.seNode.rect, this, capacity);
+                nwNode.copyFrom(source.nwNode);
+                neNode.copyFrom(source.neNode);
+                swNode.copyFrom(source.swNode);
+                seNode.copyFrom(source.seNode);
+                break;
+        }
+    }
+
+    /**
+     * Makes this root a child of the new root, which covers twice larger area. Other children of the new root are empty.
+     * <br>
+     * Points are not moved, so caller must move points, which belong to other child of the new root.
+     *
+     * @param west  whether this root becomes west child
+     * @param north whether this root becomes north child
+     * @return New root
+     */
+    public Node<T> growRoot(boolean west, boolean north)
+    {
+        if (opt_parent != null) {
+            throw new QuadTreeException("Only root can grow");
+        }
+        Point point = rect.getTopLeft().delta(west ? 0 : -rect.getWidth(), north ? 0 : -rect.getHeight());
+        double width = rect.getWidth();
+        double height = rect.getHeight();
+        Node<T> newRoot = new Node<>(new Rectangle(point, width * 2, height * 2), null, capacity, root);
+        if (nodetype == NodeType.EMPTY)
+            return newRoot;
+
+        newRoot.nodetype = NodeType.POINTER;
+        newRoot.nwNode = west && north ? this : new Node<>(new Rectangle(point, width, height), newRoot, capacity);
+        newRoot.neNode = !west && north ? this : new Node<>(new Rectangle(point.delta(width, 0), width, height), newRoot, capacity);
+        newRoot.swNode = west && !north ? this : new Node<>(new Rectangle(point.delta(0, height), width, height), newRoot, capacity);
+        newRoot.seNode = !west && !north ? this : new Node<>(new Rectangle(point.delta(width, height), width, height), newRoot, capacity);
+        opt_parent = newRoot;
+        return newRoot;
     }
 
     public void clear()
@@ -68,7 +256,9 @@ public class Node<T> {
         this.neNode = null;
         this.swNode = null;
         this.seNode = null;
-        value = null;
+        points = null;
+        values = null;
+        size = 0;
     }
 
     public Node<T> getNwNode() {
@@ -87,20 +277,32 @@ public class Node<T> {
         return seNode;
     }
 
-    public T getValue() {
-        return value;
-    }
-
     public Node<T> getQuadrantNode(Point point)
     {
-        Point middle = rect.getCenter();
-        if (point.getX() < middle.getX()) {
-            return point.getY() < middle.getY() ? nwNode : swNode;
+        double middleX = rect.getLeft() + rect.getWidth() / 2;
+        double middleY = rect.getTop() + rect.getHeight() / 2;
+        if (point.getX() < middleX) {
+            return point.getY() < middleY ? nwNode : swNode;
         } else {
-            return point.getY() < middle.getY() ? neNode : seNode;
+            return point.getY() < middleY ? neNode : seNode;
         }
     }
 
+    private static void updateHandle(Object value, Node<?> node)
+    {
+        if (value instanceof NodeHolder)
+            ((NodeHolder) value).setNode(node);
+    }
+
+    /**
+     * Clears handle of the value, which leaves this node, unless it already points to other leaf
+     */
+    private void dropHandle(Object value)
+    {
+        if (value instanceof NodeHolder && ((NodeHolder) value).getNode() == this)
+            ((NodeHolder) value).setNode(null);
+    }
+
     public Stream<Node<T>> getChildNodes()
     {
         return Stream.of(neNode, seNode, swNode, nwNode);
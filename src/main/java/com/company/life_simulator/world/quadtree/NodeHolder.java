@@ -0,0 +1,13 @@
+package com.company.life_simulator.world.quadtree;
+
+/**
+ * Value, which keeps back-reference(handle) to the tree leaf it is stored in.
+ * <br>
+ * {@link QuadTree} updates the handle, every time the value is put into a leaf, so removing and moving of such value
+ * skips search from the root. Handle is only a hint: tree checks it and falls back to search, if it is stale.
+ */
+public interface NodeHolder {
+    Node<?> getNode();
+
+    void setNode(Node<?> node);
+}
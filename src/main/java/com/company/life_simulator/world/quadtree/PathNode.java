@@ -0,0 +1,152 @@
+package com.company.life_simulator.world.quadtree;
+
+import java.util.Arrays;
+
+/**
+ * Node of {@link PersistentQuadTree}. Leaf keeps points in flat arrays, pointer keeps four children, missing child is empty.
+ * <br>
+ * Node may be changed in place only by the edit, which created it. Nodes of other edits are copied before change,
+ * so the tree, published by the other edit, never sees the change.
+ */
+class PathNode<T> {
+    static final int NW = 0;
+    static final int NE = 1;
+    static final int SW = 2;
+    static final int SE = 3;
+
+    final Object edit;
+    final Rectangle rect;
+    PathNode<T>[] children;
+    Point[] points;
+    Object[] values;
+    int size;
+
+    private PathNode(Object edit, Rectangle rect) {
+        this.edit = edit;
+        this.rect = rect;
+    }
+
+    static <T> PathNode<T> leaf(Object edit, Rectangle rect, int capacity) {
+        PathNode<T> node = new PathNode<>(edit, rect);
+        node.points = new Point[capacity];
+        node.values = new Object[capacity];
+        return node;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> PathNode<T> pointer(Object edit, Rectangle rect) {
+        PathNode<T> node = new PathNode<>(edit, rect);
+        //generic array can not be created, array holds only nodes of T
+        node.children = (PathNode<T>[]) new PathNode<?>[4];
+        return node;
+    }
+
+    boolean isLeaf() {
+        return children == null;
+    }
+
+    /**
+     * @return This node, if it belongs to the edit, otherwise copy of the node for the edit
+     */
+    PathNode<T> editable(Object edit) {
+        if (this.edit == edit)
+            return this;
+        PathNode<T> copy = new PathNode<>(edit, rect);
+        if (isLeaf()) {
+            copy.points = Arrays.copyOf(points, points.length);
+            copy.values = Arrays.copyOf(values, values.length);
+            copy.size = size;
+        } else {
+            copy.children = Arrays.copyOf(children, 4);
+        }
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    T getValue(int index) {
+        return (T) values[index];
+    }
+
+    int indexOf(Point point) {
+        for (int i = 0; i < size; i++) {
+            if (points[i].equals(point))
+                return i;
+        }
+        return -1;
+    }
+
+    int quadrant(Point point) {
+        double middleX = rect.getLeft() + rect.getWidth() / 2;
+        double middleY = rect.getTop() + rect.getHeight() / 2;
+        if (point.getX() < middleX) {
+            return point.getY() < middleY ? NW : SW;
+        } else {
+            return point.getY() < middleY ? NE : SE;
+        }
+    }
+
+    Rectangle childRectangle(int quadrant) {
+        double halfWidth = rect.getWidth() / 2;
+        double halfHeight = rect.getHeight() / 2;
+        double left = quadrant == NW || quadrant == SW ? rect.getLeft() : rect.getLeft() + halfWidth;
+        double top = quadrant == NW || quadrant == NE ? rect.getTop() : rect.getTop() + halfHeight;
+        return new Rectangle(new Point(left, top), halfWidth, halfHeight);
+    }
+
+    static <T> PathNode<T> find(PathNode<T> node, Point point) {
+        while (node != null && !node.isLeaf())
+            node = node.children[node.quadrant(point)];
+        return node;
+    }
+
+    static <T> boolean forEach(PathNode<T> node, EntryVisitor<? super T> visitor) {
+        if (node == null)
+            return true;
+        if (node.isLeaf()) {
+            for (int i = 0; i < node.size; i++) {
+                if (!visitor.visit(node.points[i], node.getValue(i)))
+                    return false;
+            }
+            return true;
+        }
+        for (PathNode<T> child : node.children) {
+            if (!forEach(child, visitor))
+                return false;
+        }
+        return true;
+    }
+
+    static <T> boolean forEachWithin(PathNode<T> node, Point point, double radius, EntryVisitor<? super T> visitor) {
+        if (node == null || !node.rect.isIntersect(point, radius))
+            return true;
+        if (node.isLeaf()) {
+            for (int i = 0; i < node.size; i++) {
+                if (node.points[i].withinCircle(point, radius) && !visitor.visit(node.points[i], node.getValue(i)))
+                    return false;
+            }
+            return true;
+        }
+        for (PathNode<T> child : node.children) {
+            if (!forEachWithin(child, point, radius, visitor))
+                return false;
+        }
+        return true;
+    }
+
+    static <T> boolean forEachWithin(PathNode<T> node, Rectangle rectangle, EntryVisitor<? super T> visitor) {
+        if (node == null || !rectangle.isIntersect(node.rect))
+            return true;
+        if (node.isLeaf()) {
+            for (int i = 0; i < node.size; i++) {
+                if (rectangle.contains(node.points[i]) && !visitor.visit(node.points[i], node.getValue(i)))
+                    return false;
+            }
+            return true;
+        }
+        for (PathNode<T> child : node.children) {
+            if (!forEachWithin(child, rectangle, visitor))
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,233 @@
+package com.company.life_simulator.world.quadtree;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Quad-tree with path copying, which publishes immutable {@link QuadTreeSnapshot snapshots} of itself.
+ * <p/>
+ * Tree is changed by single thread. Change of node, which is shared with the last snapshot, copies the node
+ * and the path from it to the root, nodes created since the last snapshot are changed in place.
+ * So snapshot costs O(1), and changes between two snapshots copy every node at most once.
+ * <br>
+ * Values are not notified about their leaves, {@link NodeHolder} handles are not supported.
+ */
+public class PersistentQuadTree<T> implements SpatialIndex<T> {
+    private final Rectangle rectangle;
+    private final int leafCapacity;
+    private final int mergeThreshold;
+    private PathNode<T> root;
+    private int count = 0;
+    private Object edit = new Object();
+    private T removed;
+
+    /**
+     * Creates new instance of tree
+     *
+     * @param rectangle    determine area, covered by tree
+     * @param leafCapacity maximum number of points in one leaf
+     */
+    public PersistentQuadTree(Rectangle rectangle, int leafCapacity) {
+        if (leafCapacity < 1) {
+            throw new QuadTreeException("Invalid leaf capacity: " + leafCapacity);
+        }
+        this.rectangle = rectangle;
+        this.leafCapacity = leafCapacity;
+        this.mergeThreshold = Math.max(1, leafCapacity / 2);
+    }
+
+    /**
+     * Freezes current state of the tree, later changes copy nodes of the snapshot instead of changing them
+     */
+    public QuadTreeSnapshot<T> snapshot() {
+        edit = new Object();
+        return new QuadTreeSnapshot<>(rectangle, root, count);
+    }
+
+    @Override
+    public void put(Point point, T value) {
+        if (!rectangle.contains(point)) {
+            throw new QuadTreeException("Out of bounds: " + point);
+        }
+        root = put(root, rectangle, point, value);
+    }
+
+    private PathNode<T> put(PathNode<T> node, Rectangle rect, Point point, Object value) {
+        if (node == null) {
+            node = PathNode.leaf(edit, rect, leafCapacity);
+            node.points[0] = point;
+            node.values[0] = value;
+            node.size = 1;
+            count++;
+            return node;
+        }
+        if (!node.isLeaf()) {
+            int quadrant = node.quadrant(point);
+            PathNode<T> child = node.children[quadrant];
+            PathNode<T> newChild = put(child, child != null ? child.rect : node.childRectangle(quadrant), point, value);
+            if (newChild != child) {
+                node = node.editable(edit);
+                node.children[quadrant] = newChild;
+            }
+            return node;
+        }
+
+        int index = node.indexOf(point);
+        if (index >= 0) {
+            if (node.values[index] != value) {
+                node = node.editable(edit);
+                node.values[index] = value;
+            }
+            return node;
+        }
+        if (node.size < leafCapacity) {
+            node = node.editable(edit);
+            node.points[node.size] = point;
+            node.values[node.size] = value;
+            node.size++;
+            count++;
+            return node;
+        }
+
+        //split of full leaf, its points are put again into the new pointer
+        PathNode<T> pointer = PathNode.pointer(edit, node.rect);
+        count -= node.size;
+        for (int i = 0; i < node.size; i++)
+            pointer = put(pointer, pointer.rect, node.points[i], node.values[i]);
+        return put(pointer, pointer.rect, point, value);
+    }
+
+    @Override
+    public Optional<T> get(Point point) {
+        PathNode<T> leaf = PathNode.find(root, point);
+        int index = leaf == null ? -1 : leaf.indexOf(point);
+        return index >= 0 ? Optional.of(leaf.getValue(index)) : Optional.empty();
+    }
+
+    @Override
+    public Optional<T> remove(Point point) {
+        removed = null;
+        root = remove(root, point);
+        Optional<T> result = Optional.ofNullable(removed);
+        removed = null;
+        return result;
+    }
+
+    private PathNode<T> remove(PathNode<T> node, Point point) {
+        if (node == null)
+            return null;
+        if (node.isLeaf()) {
+            int index = node.indexOf(point);
+            if (index < 0)
+                return node;
+            removed = node.getValue(index);
+            count--;
+            if (node.size == 1)
+                return null;
+            node = node.editable(edit);
+            node.size--;
+            node.points[index] = node.points[node.size];
+            node.values[index] = node.values[node.size];
+            node.points[node.size] = null;
+            node.values[node.size] = null;
+            return node;
+        }
+
+        int quadrant = node.quadrant(point);
+        PathNode<T> child = node.children[quadrant];
+        PathNode<T> newChild = remove(child, point);
+        if (newChild == child)
+            return node;
+        node = node.editable(edit);
+        node.children[quadrant] = newChild;
+        return merge(node);
+    }
+
+    /**
+     * @return Pointer, or leaf with all its points, when its children are leaves, which keep not more than merge threshold points
+     */
+    private PathNode<T> merge(PathNode<T> node) {
+        int size = 0;
+        for (PathNode<T> child : node.children) {
+            if (child == null)
+                continue;
+            if (!child.isLeaf())
+                return node;
+            size += child.size;
+        }
+        if (size == 0)
+            return null;
+        if (size > mergeThreshold)
+            return node;
+        PathNode<T> leaf = PathNode.leaf(edit, node.rect, leafCapacity);
+        for (PathNode<T> child : node.children) {
+            if (child == null)
+                continue;
+            System.arraycopy(child.points, 0, leaf.points, leaf.size, child.size);
+            System.arraycopy(child.values, 0, leaf.values, leaf.size, child.size);
+            leaf.size += child.size;
+        }
+        return leaf;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        count = 0;
+    }
+
+    @Override
+    public Rectangle getSize() {
+        return rectangle;
+    }
+
+    @Override
+    public Stream<T> getValues() {
+        Stream.Builder<T> streamBuilder = Stream.builder();
+        PathNode.forEach(root, (point, value) -> {
+            streamBuilder.add(value);
+            return true;
+        });
+        return streamBuilder.build();
+    }
+
+    @Override
+    public Stream<T> searchWithin(Rectangle searchRectangle) {
+        Stream.Builder<T> streamBuilder = Stream.builder();
+        this.forEachWithin(searchRectangle, (point, value) -> {
+            streamBuilder.add(value);
+            return true;
+        });
+        return streamBuilder.build();
+    }
+
+    @Override
+    public Stream<T> searchWithin(Point point, double radius) {
+        Stream.Builder<T> streamBuilder = Stream.builder();
+        this.forEachWithin(point, radius, (position, value) -> {
+            streamBuilder.add(value);
+            return true;
+        });
+        return streamBuilder.build();
+    }
+
+    @Override
+    public boolean forEachWithin(Rectangle searchRectangle, EntryVisitor<? super T> visitor) {
+        return PathNode.forEachWithin(root, searchRectangle, visitor);
+    }
+
+    @Override
+    public boolean forEachWithin(Point point, double radius, EntryVisitor<? super T> visitor) {
+        return PathNode.forEachWithin(root, point, radius, visitor);
+    }
+}
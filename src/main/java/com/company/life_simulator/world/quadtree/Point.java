@@ -34,7 +34,9 @@ public class Point implements Comparable<Point>{
 
     public double squareDistance(Point pos)
     {
-        return Math.pow(x - pos.getX(), 2) + Math.pow(y - pos.getY(), 2);
+        double dx = x - pos.getX();
+        double dy = y - pos.getY();
+        return dx * dx + dy * dy;
     }
 
     public double distance(Point pos)
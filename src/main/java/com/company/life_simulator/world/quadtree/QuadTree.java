@@ -1,9 +1,16 @@
 package com.company.life_simulator.world.quadtree;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.function.Consumer;
-import java.util.stream.Collectors;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 /**
@@ -12,22 +19,43 @@ import java.util.stream.Stream;
  * <p/>
  * The implementation currently requires pre-determined bounds for data as it
  * can not rebalance itself to that degree.
+ * <p/>
+ * Each leaf keeps up to leafCapacity points. Leaf is split only when it overflows,
+ * and POINTER node is merged back into a leaf, when its children keep no more than half of leafCapacity points.
+ * <p/>
+ * Values, which implement {@link NodeHolder}, keep handles of their leaves, so removing and moving of them skip search from the root.
  */
-public class QuadTree<T> {
+public class QuadTree<T> implements SpatialIndex<T> {
 
 
-    private final Node<T> root;
+    private Node<T> root;
+    private final int mergeThreshold;
     private int count = 0;
 
     /**
-     * Creates new instance of tree
+     * Creates new instance of tree with single point per leaf
      *
      * @param rectangle determine area, covered by tree
      */
     public QuadTree(Rectangle rectangle) {
-        this.root = new Node<>(rectangle, null);
+        this(rectangle, 1);
+    }
+
+    /**
+     * Creates new instance of tree
+     *
+     * @param rectangle determine area, covered by tree
+     * @param leafCapacity maximum number of points in one leaf
+     */
+    public QuadTree(Rectangle rectangle, int leafCapacity) {
+        if (leafCapacity < 1) {
+            throw new QuadTreeException("Invalid leaf capacity: " + leafCapacity);
+        }
+        this.root = new Node<>(rectangle, null, leafCapacity);
+        this.mergeThreshold = Math.max(1, leafCapacity / 2);
     }
 
+    @Override
     public void put(Point point, T value) {
 
         if (!root.getRectangle().contains(point)) {
@@ -41,6 +69,7 @@ public class QuadTree<T> {
     /**
      * @return Area, covered by tree
      */
+    @Override
     public Rectangle getSize()
     {
         return root.getRectangle();
@@ -54,9 +83,11 @@ public class QuadTree<T> {
      * @param point coordinates
      * @return Optional value at point
      */
+    @Override
     public Optional<T> get(Point point) {
-        Optional<Node<T>> optional = this.find(this.root, point);
-        return optional.isPresent() ? Optional.of(optional.get().getValue()) : Optional.empty();
+        Node<T> leaf = this.find(this.root, point);
+        int index = leaf.indexOf(point);
+        return index >= 0 ? Optional.of(leaf.getValue(index)) : Optional.empty();
     }
 
     /**
@@ -67,13 +98,28 @@ public class QuadTree<T> {
      * @param point coordinates
      * @return Optional removed element, empty if there is no element at provided coordinates
      */
+    @Override
     public Optional<T> remove(Point point) {
-        Optional<Node<T>> optional = this.find(this.root, point);
-        if (optional.isPresent()) {
-            Node<T> node = optional.get();
-            T value = node.getValue();
-            node.setPoint(null, null);
-            node.setNodeType(NodeType.EMPTY);
+        return this.remove(this.find(this.root, point), point);
+    }
+
+    /**
+     * Removes element from tree, using handle of the {@link NodeHolder} value to skip search from the root.
+     *
+     * @param point coordinates
+     * @param value element at this point
+     * @return Optional removed element, empty if there is no element at provided coordinates
+     */
+    @Override
+    public Optional<T> remove(Point point, T value) {
+        return this.remove(this.locate(point, value), point);
+    }
+
+    private Optional<T> remove(Node<T> node, Point point) {
+        int index = node.indexOf(point);
+        if (index >= 0) {
+            T value = node.getValue(index);
+            node.removePoint(index);
             this.balance(node);
             this.count--;
             return Optional.of(value);
@@ -82,12 +128,99 @@ public class QuadTree<T> {
         }
     }
 
+    /**
+     * Moves value to the new point. Value is updated in place, when new point belongs to the same leaf,
+     * otherwise it is inserted from the lowest node, which contains both points.
+     *
+     * @param oldPoint current coordinates of value
+     * @param newPoint new coordinates of value
+     * @param value element at oldPoint
+     */
+    @Override
+    public void move(Point oldPoint, Point newPoint, T value) {
+        if (!root.getRectangle().contains(newPoint)) {
+            throw new QuadTreeException("Out of bounds: " + newPoint);
+        }
+        Node<T> leaf = this.locate(oldPoint, value);
+        int index = leaf.indexOf(oldPoint);
+        if (index < 0) {
+            this.put(newPoint, value);
+            return;
+        }
+
+        if (this.owns(leaf, newPoint)) {
+            int existing = leaf.indexOf(newPoint);
+            if (existing < 0 || existing == index) {
+                leaf.setPoint(index, newPoint, value);
+                return;
+            }
+            // New point is occupied: value replaces occupant, as put does
+            leaf.removePoint(index);
+            leaf.setValue(leaf.indexOf(newPoint), value);
+            this.count--;
+            this.balance(leaf);
+            return;
+        }
+
+        leaf.removePoint(index);
+        Node<T> ancestor = leaf.getParent();
+        while (!this.owns(ancestor, newPoint)) {
+            ancestor = ancestor.getParent();
+        }
+        if (!this.insert(ancestor, newPoint, value)) {
+            this.count--;
+        }
+        this.balance(leaf);
+    }
+
+    /**
+     * Grows area of the tree, until it contains the point. Every step doubles the root towards the point,
+     * old root becomes child of the new one, so no node is rebuilt.
+     * <br>
+     * Points on right and bottom edges of old root belong to the neighbour child of new root, only they are put again.
+     *
+     * @param point coordinates, which tree has to cover
+     * @throws QuadTreeException if coordinates are not finite, no area covers them
+     */
+    public void growToInclude(Point point) {
+        if (!Double.isFinite(point.getX()) || !Double.isFinite(point.getY())) {
+            throw new QuadTreeException("Point is not finite: " + point);
+        }
+        while (!root.getRectangle().contains(point)) {
+            Rectangle rectangle = root.getRectangle();
+            boolean west = point.getX() >= rectangle.getLeft();
+            boolean north = point.getY() >= rectangle.getTop();
+
+            List<Point> edgePoints = new ArrayList<>();
+            List<T> edgeValues = new ArrayList<>();
+            EntryVisitor<T> edgeVisitor = (edgePoint, value) -> edgePoints.add(edgePoint) && edgeValues.add(value);
+            if (west)
+                this.forEachWithin(new Rectangle(rectangle.getRight(), rectangle.getTop(), rectangle.getRight(), rectangle.getBottom()), edgeVisitor);
+            if (north)
+                this.forEachWithin(new Rectangle(rectangle.getLeft(), rectangle.getBottom(), rectangle.getRight(), rectangle.getBottom()), edgeVisitor);
+            for (int i = 0; i < edgePoints.size(); i++)
+                this.remove(edgePoints.get(i), edgeValues.get(i));
+
+            this.root = this.root.growRoot(west, north);
+            for (int i = 0; i < edgePoints.size(); i++)
+                this.put(edgePoints.get(i), edgeValues.get(i));
+        }
+    }
+
+    /**
+     * @return Maximum number of points in one leaf
+     */
+    public int getLeafCapacity() {
+        return root.getCapacity();
+    }
+
     /**
      * Checks if there is an element at this point
      *
      * @param point coordinates
      * @return True if tree contains element at this point, otherwise false.
      */
+    @Override
     public boolean contains(Point point) {
         return this.get(point).isPresent();
     }
@@ -95,6 +228,7 @@ public class QuadTree<T> {
     /**
      * @return Whether the tree is empty.
      */
+    @Override
     public boolean isEmpty() {
         return this.root.getNodeType() == NodeType.EMPTY;
     }
@@ -102,6 +236,7 @@ public class QuadTree<T> {
     /**
      * @return The number of elements in the tree.
      */
+    @Override
     public int getCount() {
         return this.count;
     }
@@ -109,8 +244,10 @@ public class QuadTree<T> {
     /**
      * Removes all elements from the tree.
      */
+    @Override
     public void clear() {
-        root.clear();
+        // new root makes handles of removed values stale
+        root = new Node<>(root.getRectangle(), null, root.getCapacity());
         this.count = 0;
     }
 
@@ -118,20 +255,24 @@ public class QuadTree<T> {
      * Returns all elements of the tree
      * @return Stream of tree elements
      */
+    @Override
     public Stream<T> getValues() {
-        Stream.Builder<Node<T>> streamBuilder = Stream.builder();
-        this.traverse(this.root, streamBuilder::add);
-        return streamBuilder.build()
-                .map(Node::getValue);
+        Stream.Builder<T> streamBuilder = Stream.builder();
+        this.traverse(this.root, (point, value) -> streamBuilder.add(value));
+        return streamBuilder.build();
     }
 
     /**
      * Returns elements within rectangle(inclusive)
      * @return Stream of tree elements
      */
+    @Override
     public Stream<T> searchWithin(Rectangle rectangle) {
         Stream.Builder<T> streamBuilder = Stream.builder();
-        this.navigate(this.root, rectangle, streamBuilder::add);
+        this.navigate(this.root, rectangle, (point, value) -> {
+            streamBuilder.add(value);
+            return true;
+        });
         return streamBuilder.build();
     }
 
@@ -139,69 +280,320 @@ public class QuadTree<T> {
      * Returns elements within circle(inclusive)
      * @return Stream of tree elements
      */
+    @Override
     public Stream<T> searchWithin(Point point, double radius) {
         Stream.Builder<T> streamBuilder = Stream.builder();
-        this.navigate(this.root, point, radius, streamBuilder::add);
+        this.navigate(this.root, point, radius, (position, value) -> {
+            streamBuilder.add(value);
+            return true;
+        });
         return streamBuilder.build();
     }
 
-    private void navigate(Node<T> node, Point point, double radius, Consumer<T> consumer) {
+    @Override
+    public boolean forEachWithin(Rectangle rectangle, EntryVisitor<? super T> visitor) {
+        return this.navigate(this.root, rectangle, visitor);
+    }
+
+    @Override
+    public boolean forEachWithin(Point point, double radius, EntryVisitor<? super T> visitor) {
+        return this.navigate(this.root, point, radius, visitor);
+    }
+
+    private boolean navigate(Node<T> node, Point point, double radius, EntryVisitor<? super T> visitor) {
         switch (node.getNodeType()) {
             case LEAF:
-                if (node.getPoint().withinCircle(point, radius))
-                    consumer.accept(node.getValue());
-                break;
+                for (int i = 0; i < node.getSize(); i++) {
+                    if (node.getPoint(i).withinCircle(point, radius) && !visitor.visit(node.getPoint(i), node.getValue(i)))
+                        return false;
+                }
+                return true;
             case POINTER:
                 //looks ugly, but works 1.5 times faster, than enumMap/Array/Stream
-                if (node.getNeNode().getRectangle().isIntersect(point, radius))
-                    this.navigate(node.getNeNode(), point, radius, consumer);
-                if (node.getSeNode().getRectangle().isIntersect(point, radius))
-                    this.navigate(node.getSeNode(), point, radius, consumer);
-                if (node.getSwNode().getRectangle().isIntersect(point, radius))
-                    this.navigate(node.getSwNode(), point, radius, consumer);
-                if (node.getNwNode().getRectangle().isIntersect(point, radius))
-                    this.navigate(node.getNwNode(), point, radius, consumer);
-                break;
+                return (!node.getNeNode().getRectangle().isIntersect(point, radius) || this.navigate(node.getNeNode(), point, radius, visitor))
+                        && (!node.getSeNode().getRectangle().isIntersect(point, radius) || this.navigate(node.getSeNode(), point, radius, visitor))
+                        && (!node.getSwNode().getRectangle().isIntersect(point, radius) || this.navigate(node.getSwNode(), point, radius, visitor))
+                        && (!node.getNwNode().getRectangle().isIntersect(point, radius) || this.navigate(node.getNwNode(), point, radius, visitor));
+            default:
+                return true;
         }
     }
 
-    private void navigate(Node<T> node, Rectangle rectangle, Consumer<T> consumer) {
+    private boolean navigate(Node<T> node, Rectangle rectangle, EntryVisitor<? super T> visitor) {
         switch (node.getNodeType()) {
             case LEAF:
-                if (rectangle.contains(node.getPoint()))
-                    consumer.accept(node.getValue());
-                break;
+                for (int i = 0; i < node.getSize(); i++) {
+                    if (rectangle.contains(node.getPoint(i)) && !visitor.visit(node.getPoint(i), node.getValue(i)))
+                        return false;
+                }
+                return true;
             case POINTER:
                 //looks ugly, but works 1.5 times faster, than enumMap/Array/Stream
-                if (rectangle.isIntersect(node.getNeNode().getRectangle()))
-                    this.navigate(node.getNeNode(), rectangle, consumer);
-                if (rectangle.isIntersect(node.getSeNode().getRectangle()))
-                    this.navigate(node.getSeNode(), rectangle, consumer);
-                if (rectangle.isIntersect(node.getSwNode().getRectangle()))
-                    this.navigate(node.getSwNode(), rectangle, consumer);
-                if (rectangle.isIntersect(node.getNwNode().getRectangle()))
-                    this.navigate(node.getNwNode(), rectangle, consumer);
+                return (!rectangle.isIntersect(node.getNeNode().getRectangle()) || this.navigate(node.getNeNode(), rectangle, visitor))
+                        && (!rectangle.isIntersect(node.getSeNode().getRectangle()) || this.navigate(node.getSeNode(), rectangle, visitor))
+                        && (!rectangle.isIntersect(node.getSwNode().getRectangle()) || this.navigate(node.getSwNode(), rectangle, visitor))
+                        && (!rectangle.isIntersect(node.getNwNode().getRectangle()) || this.navigate(node.getNwNode(), rectangle, visitor));
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Finds the nearest matching element by depth-first search, which visits quadrant of the point first
+     * and skips nodes farther than the nearest element found so far.
+     */
+    @Override
+    public Optional<T> nearest(Point point, double maxRadius, Predicate<? super T> filter) {
+        Candidate<T> nearest = new Candidate<>(maxRadius * maxRadius, null, null);
+        this.nearest(this.root, point, filter, nearest);
+        return Optional.ofNullable(nearest.value);
+    }
+
+    private void nearest(Node<T> node, Point point, Predicate<? super T> filter, Candidate<T> nearest) {
+        switch (node.getNodeType()) {
+            case LEAF:
+                for (int i = 0; i < node.getSize(); i++) {
+                    double squareDistance = node.getPoint(i).squareDistance(point);
+                    boolean closer = nearest.value == null
+                            ? squareDistance <= nearest.squareDistance
+                            : squareDistance < nearest.squareDistance;
+                    if (closer && filter.test(node.getValue(i))) {
+                        nearest.squareDistance = squareDistance;
+                        nearest.value = node.getValue(i);
+                    }
+                }
+                break;
+            case POINTER:
+                Node<T> quadrantNode = node.getQuadrantNode(point);
+                this.nearestInChild(quadrantNode, point, filter, nearest);
+                if (quadrantNode != node.getNeNode())
+                    this.nearestInChild(node.getNeNode(), point, filter, nearest);
+                if (quadrantNode != node.getSeNode())
+                    this.nearestInChild(node.getSeNode(), point, filter, nearest);
+                if (quadrantNode != node.getSwNode())
+                    this.nearestInChild(node.getSwNode(), point, filter, nearest);
+                if (quadrantNode != node.getNwNode())
+                    this.nearestInChild(node.getNwNode(), point, filter, nearest);
+                break;
+        }
+    }
+
+    private void nearestInChild(Node<T> child, Point point, Predicate<? super T> filter, Candidate<T> nearest) {
+        if (child.getNodeType() != NodeType.EMPTY && child.getRectangle().squareDistance(point) <= nearest.squareDistance)
+            this.nearest(child, point, filter, nearest);
+    }
+
+    /**
+     * Finds k nearest matching elements by best-first search: nodes and elements are taken from priority queue
+     * by distance to the point, so search stops after k elements without visiting farther nodes.
+     */
+    @Override
+    public List<T> nearest(Point point, int k, double maxRadius, Predicate<? super T> filter) {
+        List<T> result = new ArrayList<>();
+        double squareRadius = maxRadius * maxRadius;
+        PriorityQueue<Candidate<T>> queue = new PriorityQueue<>();
+        if (root.getNodeType() != NodeType.EMPTY && root.getRectangle().squareDistance(point) <= squareRadius)
+            queue.add(new Candidate<>(root.getRectangle().squareDistance(point), root, null));
+
+        while (result.size() < k && !queue.isEmpty()) {
+            Candidate<T> candidate = queue.poll();
+            Node<T> node = candidate.node;
+            if (node == null) {
+                result.add(candidate.value);
+                continue;
+            }
+            if (node.getNodeType() == NodeType.LEAF) {
+                for (int i = 0; i < node.getSize(); i++) {
+                    double squareDistance = node.getPoint(i).squareDistance(point);
+                    if (squareDistance <= squareRadius && filter.test(node.getValue(i)))
+                        queue.add(new Candidate<>(squareDistance, null, node.getValue(i)));
+                }
+            } else {
+                node.getChildNodes()
+                        .filter(child -> child.getNodeType() != NodeType.EMPTY)
+                        .forEach(child -> {
+                            double squareDistance = child.getRectangle().squareDistance(point);
+                            if (squareDistance <= squareRadius)
+                                queue.add(new Candidate<>(squareDistance, child, null));
+                        });
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Node or element of the nearest search with its square distance to the point of search
+     */
+    private static class Candidate<T> implements Comparable<Candidate<T>> {
+        private double squareDistance;
+        private final Node<T> node;
+        private T value;
+
+        Candidate(double squareDistance, Node<T> node, T value) {
+            this.squareDistance = squareDistance;
+            this.node = node;
+            this.value = value;
+        }
+
+        @Override
+        public int compareTo(Candidate<T> other) {
+            return Double.compare(squareDistance, other.squareDistance);
         }
     }
 
     /**
-     * Clones the quad-tree and returns the new instance.
+     * Clones the quad-tree and returns the new instance. Structure of the tree is copied node by node,
+     * handles of {@link NodeHolder} values keep pointing to this tree.
      * @return {QuadTree} A clone of the tree.
      */
     public QuadTree<T> clone() {
-        final QuadTree<T> clone = new QuadTree<>(this.root.getRectangle());
-        // This is inefficient as the clone needs to recalculate the structure of the
-        // tree, even though we know it already.  But this is easier and can be
-        // optimized when/if needed.
-        this.traverse(this.root, node -> clone.put(node.getPoint(), node.getValue()));
-
+        final QuadTree<T> clone = new QuadTree<>(this.root.getRectangle(), this.root.getCapacity());
+        clone.root.copyFrom(this.root);
+        clone.count = this.count;
         return clone;
     }
 
-    private void traverse(Node<T> node, Consumer<Node<T>> consumer) {
+    /**
+     * Puts all values at their points. Empty tree is built in one pass by recursive partitioning of points into quadrants,
+     * large quadrants are built in parallel with fork/join. Points are added one by one, if the tree is not empty.
+     *
+     * @param values values to put
+     * @param position function, which returns point of value
+     */
+    @Override
+    public void putAll(Collection<? extends T> values, Function<? super T, Point> position) {
+        if (!this.isEmpty()) {
+            SpatialIndex.super.putAll(values, position);
+            return;
+        }
+        int size = values.size();
+        Point[] points = new Point[size];
+        Object[] items = new Object[size];
+        int[] order = new int[size];
+        int i = 0;
+        for (T value : values) {
+            Point point = position.apply(value);
+            if (!root.getRectangle().contains(point)) {
+                throw new QuadTreeException("Out of bounds: " + point);
+            }
+            points[i] = point;
+            items[i] = value;
+            order[i] = i;
+            i++;
+        }
+        this.count = new BulkLoadTask<T>(root, points, items, order, new int[size], 0, size).invoke();
+    }
+
+    /**
+     * Builds subtree of empty node from points order[from, to). Points with the same coordinates are put in original order,
+     * so the last of them wins, as with sequential put.
+     */
+    private static class BulkLoadTask<T> extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+        private static final int PARALLEL_THRESHOLD = 4096;
+
+        private final Node<T> node;
+        private final Point[] points;
+        private final Object[] values;
+        private final int[] order;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+
+        BulkLoadTask(Node<T> node, Point[] points, Object[] values, int[] order, int[] buffer, int from, int to) {
+            this.node = node;
+            this.points = points;
+            this.values = values;
+            this.order = order;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= node.getCapacity() || allPointsEqual()) {
+                return fillLeaf();
+            }
+            node.clearAndSplit();
+            int[] bounds = partition();
+            List<BulkLoadTask<T>> tasks = Arrays.asList(
+                    new BulkLoadTask<>(node.getNwNode(), points, values, order, buffer, bounds[0], bounds[1]),
+                    new BulkLoadTask<>(node.getNeNode(), points, values, order, buffer, bounds[1], bounds[2]),
+                    new BulkLoadTask<>(node.getSwNode(), points, values, order, buffer, bounds[2], bounds[3]),
+                    new BulkLoadTask<>(node.getSeNode(), points, values, order, buffer, bounds[3], bounds[4]));
+            int count = 0;
+            if (to - from > PARALLEL_THRESHOLD) {
+                for (BulkLoadTask<T> task : ForkJoinTask.invokeAll(tasks))
+                    count += task.join();
+            } else {
+                for (BulkLoadTask<T> task : tasks)
+                    count += task.compute();
+            }
+            return count;
+        }
+
+        private int fillLeaf() {
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                Point point = points[order[i]];
+                @SuppressWarnings("unchecked")
+                T value = (T) values[order[i]];
+                int index = node.indexOf(point);
+                if (index >= 0) {
+                    node.setValue(index, value);
+                } else {
+                    node.addPoint(point, value);
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private boolean allPointsEqual() {
+            Point first = points[order[from]];
+            for (int i = from + 1; i < to; i++) {
+                if (!points[order[i]].equals(first))
+                    return false;
+            }
+            return true;
+        }
+
+        /**
+         * Stable partition of order[from, to) by quadrants NW, NE, SW, SE
+         *
+         * @return Start of every quadrant and end of the last one
+         */
+        private int[] partition() {
+            int[] bounds = new int[5];
+            for (int i = from; i < to; i++)
+                bounds[quadrant(points[order[i]]) + 1]++;
+            bounds[0] = from;
+            for (int quadrant = 1; quadrant < 5; quadrant++)
+                bounds[quadrant] += bounds[quadrant - 1];
+
+            int[] next = Arrays.copyOf(bounds, 4);
+            for (int i = from; i < to; i++)
+                buffer[next[quadrant(points[order[i]])]++] = order[i];
+            System.arraycopy(buffer, from, order, from, to - from);
+            return bounds;
+        }
+
+        private int quadrant(Point point) {
+            Node<T> quadrantNode = node.getQuadrantNode(point);
+            if (quadrantNode == node.getNwNode())
+                return 0;
+            if (quadrantNode == node.getNeNode())
+                return 1;
+            return quadrantNode == node.getSwNode() ? 2 : 3;
+        }
+    }
+
+    private void traverse(Node<T> node, BiConsumer<Point, T> consumer) {
         switch (node.getNodeType()) {
             case LEAF:
-                consumer.accept(node);
+                for (int i = 0; i < node.getSize(); i++)
+                    consumer.accept(node.getPoint(i), node.getValue(i));
                 break;
             case POINTER:
                 node.getChildNodes()
@@ -210,33 +602,64 @@ public class QuadTree<T> {
         }
     }
 
-    private Optional<Node<T>> find(Node<T> node, Point point) {
-        switch (node.getNodeType()) {
-            case EMPTY:
-                return Optional.empty();
-            case LEAF:
-                return node.getPoint().equals(point) ? Optional.of(node) : Optional.empty();
-            case POINTER:
-                return this.find(node.getQuadrantNode(point), point);
-            default:
-                throw new QuadTreeException("Invalid nodeType");
+    /**
+     * @return Leaf, which keeps value according to its handle, or leaf found by point, if handle is stale
+     */
+    private Node<T> locate(Point point, T value) {
+        if (value instanceof NodeHolder) {
+            Node<?> node = ((NodeHolder) value).getNode();
+            if (node != null && node.getRoot() == this.root.getRoot() && node.getNodeType() == NodeType.LEAF) {
+                @SuppressWarnings("unchecked")
+                Node<T> leaf = (Node<T>) node;
+                int index = leaf.indexOf(point);
+                if (index >= 0 && leaf.getValue(index) == value)
+                    return leaf;
+            }
         }
+        return this.find(this.root, point);
+    }
+
+    /**
+     * Checks that search from the root would reach this node for the point: left and top edges of nodes are inclusive,
+     * right and bottom edges are inclusive only on the tree bounds.
+     */
+    private boolean owns(Node<T> node, Point point) {
+        Rectangle rect = node.getRectangle();
+        Rectangle bounds = root.getRectangle();
+        double x = point.getX();
+        double y = point.getY();
+        return rect.getLeft() <= x && (x < rect.getRight() || x == rect.getRight() && x == bounds.getRight())
+                && rect.getTop() <= y && (y < rect.getBottom() || y == rect.getBottom() && y == bounds.getBottom());
+    }
+
+    /**
+     * @return Leaf or empty node, which is responsible for the point
+     */
+    private Node<T> find(Node<T> node, Point point) {
+        while (node.getNodeType() == NodeType.POINTER) {
+            node = node.getQuadrantNode(point);
+        }
+        return node;
     }
 
     private boolean insert(Node<T> parent, Point point, T value) {
         Boolean result;
         switch (parent.getNodeType()) {
             case EMPTY:
-                this.setPointForNode(parent, point, value);
+                parent.addPoint(point, value);
                 result = true;
                 break;
             case LEAF:
-                if (parent.getPoint().getX() == point.getX() && parent.getPoint().getY() == point.getY()) {
-                    this.setPointForNode(parent, point, value);
+                int index = parent.indexOf(point);
+                if (index >= 0) {
+                    parent.setValue(index, value);
                     result = false;
+                } else if (!parent.isFull()) {
+                    parent.addPoint(point, value);
+                    result = true;
                 } else {
-                    this.split(parent);
-                    result = this.insert(parent, point, value);
+                    parent.clearAndSplit();
+                    result = this.insert(parent.getQuadrantNode(point), point, value);
                 }
                 break;
             case POINTER:
@@ -249,15 +672,6 @@ public class QuadTree<T> {
         return result;
     }
 
-    private void split(Node<T> node) {
-        Point oldPoint = node.getPoint();
-        T oldValue = node.getValue();
-
-        node.clearAndSplit();
-
-        this.insert(node, oldPoint, oldValue);
-    }
-
     private void balance(Node<T> node) {
         switch (node.getNodeType()) {
             case EMPTY:
@@ -268,34 +682,24 @@ public class QuadTree<T> {
                 break;
 
             case POINTER: {
-                List<Node<T>> nonEmptyNodes =  node.getChildNodes()
-                        .filter(childNode -> childNode.getNodeType() != NodeType.EMPTY)
-                        .collect(Collectors.toList());
+                if (node.getNeNode().getNodeType() == NodeType.POINTER
+                        || node.getSeNode().getNodeType() == NodeType.POINTER
+                        || node.getSwNode().getNodeType() == NodeType.POINTER
+                        || node.getNwNode().getNodeType() == NodeType.POINTER) {
+                    // One of children is a pointer, therefore we can't rebalance.
+                    break;
+                }
 
-                if (nonEmptyNodes.size() > 1)
+                int childPoints = node.getNeNode().getSize() + node.getSeNode().getSize()
+                        + node.getSwNode().getSize() + node.getNwNode().getSize();
+                if (childPoints > mergeThreshold)
                 {
                     //this node can't be balanced
                     break;
                 }
 
-                if (nonEmptyNodes.isEmpty()) {
-                    // All child nodes are empty: so make this node empty.
-                    node.clear();
-
-                }
-                else
-                {
-                    Node<T> firstLeaf = nonEmptyNodes.get(0);
-                    if (firstLeaf.getNodeType() == NodeType.POINTER) {
-                        // Only child was a pointer, therefore we can't rebalance.
-                        break;
-                    }
-                    else
-                    {
-                        // Only child was a leaf: so update node's point and make it a leaf.
-                        node.setPoint(firstLeaf.getPoint(), firstLeaf.getValue());
-                    }
-                }
+                // Children are leaves with few points: so move their points to this node and make it a leaf.
+                node.merge();
 
                 // Try and balance the parent as well.
                 if (node.getParent() != null) {
@@ -305,13 +709,4 @@ public class QuadTree<T> {
             break;
         }
     }
-
-    private void setPointForNode(Node<T> node, Point point, T value) {
-        if (node.getNodeType() == NodeType.POINTER) {
-            throw new QuadTreeException("Can not put point for node of type POINTER");
-        }
-        node.setNodeType(NodeType.LEAF);
-        node.setPoint(point, value);
-    }
 }
-
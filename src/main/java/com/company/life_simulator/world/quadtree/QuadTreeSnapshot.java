@@ -0,0 +1,66 @@
+package com.company.life_simulator.world.quadtree;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Immutable state of {@link PersistentQuadTree} at the moment of {@link PersistentQuadTree#snapshot snapshot}.
+ * <br>
+ * Snapshot shares unchanged nodes with the tree and is never changed by later changes of the tree,
+ * so any number of threads may search it without locks.
+ */
+public class QuadTreeSnapshot<T> {
+    private final Rectangle rectangle;
+    private final PathNode<T> root;
+    private final int count;
+
+    QuadTreeSnapshot(Rectangle rectangle, PathNode<T> root, int count) {
+        this.rectangle = rectangle;
+        this.root = root;
+        this.count = count;
+    }
+
+    public Rectangle getSize() {
+        return rectangle;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public Optional<T> get(Point point) {
+        PathNode<T> leaf = PathNode.find(root, point);
+        int index = leaf == null ? -1 : leaf.indexOf(point);
+        return index >= 0 ? Optional.of(leaf.getValue(index)) : Optional.empty();
+    }
+
+    public Stream<T> getValues() {
+        Stream.Builder<T> streamBuilder = Stream.builder();
+        this.forEach((point, value) -> {
+            streamBuilder.add(value);
+            return true;
+        });
+        return streamBuilder.build();
+    }
+
+    /**
+     * Visits all elements with their points until visitor stops
+     *
+     * @return False if search was stopped by visitor, otherwise true
+     */
+    public boolean forEach(EntryVisitor<? super T> visitor) {
+        return PathNode.forEach(root, visitor);
+    }
+
+    public boolean forEachWithin(Rectangle searchRectangle, EntryVisitor<? super T> visitor) {
+        return PathNode.forEachWithin(root, searchRectangle, visitor);
+    }
+
+    public boolean forEachWithin(Point point, double radius, EntryVisitor<? super T> visitor) {
+        return PathNode.forEachWithin(root, point, radius, visitor);
+    }
+}
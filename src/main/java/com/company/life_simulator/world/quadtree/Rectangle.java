@@ -44,6 +44,22 @@ public class Rectangle {
         this(point.getX(), point.getY(), point.getX() + width, point.getY() + height);
     }
 
+    public double getLeft() {
+        return x1;
+    }
+
+    public double getTop() {
+        return y1;
+    }
+
+    public double getRight() {
+        return x2;
+    }
+
+    public double getBottom() {
+        return y2;
+    }
+
     public Point getTopLeft() {
         return new Point(x1, y1);
     }
@@ -83,28 +99,39 @@ public class Rectangle {
     }
 
     public boolean isIntersect(Point point, double radius) {
-        Point center = getCenter();
-        double circleDistance_x = Math.abs(center.getX() - point.getX());
-        double circleDistance_y = Math.abs(center.getY() - point.getY());
+        double halfWidth = getWidth() / 2;
+        double halfHeight = getHeight() / 2;
+        double circleDistance_x = Math.abs(x1 + halfWidth - point.getX());
+        double circleDistance_y = Math.abs(y1 + halfHeight - point.getY());
 
-        if (circleDistance_x > (getWidth() / 2 + radius)) {
+        if (circleDistance_x > (halfWidth + radius)) {
             return false;
         }
-        if (circleDistance_y > (getHeight() / 2 + radius)) {
+        if (circleDistance_y > (halfHeight + radius)) {
             return false;
         }
 
-        if (circleDistance_x <= (getWidth() / 2)) {
+        if (circleDistance_x <= halfWidth) {
             return true;
         }
-        if (circleDistance_y <= (getHeight() / 2)) {
+        if (circleDistance_y <= halfHeight) {
             return true;
         }
 
-        double cornerDistance_sq = Math.pow(circleDistance_x - getWidth()/2, 2) +
-                Math.pow(circleDistance_y - getHeight()/2, 2);
+        double cornerDistance_x = circleDistance_x - halfWidth;
+        double cornerDistance_y = circleDistance_y - halfHeight;
+        double cornerDistance_sq = cornerDistance_x * cornerDistance_x + cornerDistance_y * cornerDistance_y;
+
+        return (cornerDistance_sq <= radius * radius);
+    }
 
-        return (cornerDistance_sq <= Math.pow(radius, 2));
+    /**
+     * @return Square of distance from point to the nearest point of area, zero if area contains the point
+     */
+    public double squareDistance(Point point) {
+        double dx = point.getX() < x1 ? x1 - point.getX() : (point.getX() > x2 ? point.getX() - x2 : 0);
+        double dy = point.getY() < y1 ? y1 - point.getY() : (point.getY() > y2 ? point.getY() - y2 : 0);
+        return dx * dx + dy * dy;
     }
 
     public Quadrant pointInQuadrant(Point point) {
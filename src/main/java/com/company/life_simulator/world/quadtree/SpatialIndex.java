@@ -0,0 +1,215 @@
+package com.company.life_simulator.world.quadtree;
+
+import org.javatuples.Pair;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Index of values by 2D points within pre-determined bounds.
+ * <br>
+ * Index keeps at most one value per point({@link Point#equals Point.equals}), putting value to the occupied point replaces old value.
+ */
+public interface SpatialIndex<T> {
+
+    /**
+     * Puts value at point, replacing value, which was at this point before
+     *
+     * @throws QuadTreeException if point is out of index bounds
+     */
+    void put(Point point, T value);
+
+    /**
+     * Puts all values at their points, same as {@link #put put} of every value in collection order
+     *
+     * @param values values to put
+     * @param position function, which returns point of value
+     * @throws QuadTreeException if any point is out of index bounds
+     */
+    default void putAll(Collection<? extends T> values, Function<? super T, Point> position) {
+        for (T value : values)
+            put(position.apply(value), value);
+    }
+
+    /**
+     * Gets the value of the point
+     * <br>
+     * Note: this method require absolute precision({@link Point#equals Point.equals}), use {@link #searchWithin} to search with custom precision
+     *
+     * @param point coordinates
+     * @return Optional value at point
+     */
+    Optional<T> get(Point point);
+
+    /**
+     * Removes element from index.
+     * <br>
+     * Note: this method require absolute precision({@link Point#equals Point.equals})
+     *
+     * @param point coordinates
+     * @return Optional removed element, empty if there is no element at provided coordinates
+     */
+    Optional<T> remove(Point point);
+
+    /**
+     * Removes element from index. Value is a hint for implementations, which can find it faster, than by point
+     * (e.g. {@link NodeHolder} in {@link QuadTree}).
+     *
+     * @param point coordinates
+     * @param value element at this point
+     * @return Optional removed element, empty if there is no element at provided coordinates
+     */
+    default Optional<T> remove(Point point, T value) {
+        return remove(point);
+    }
+
+    /**
+     * Moves value to the new point. Same as {@link #remove(Point, Object) remove} followed by {@link #put put},
+     * but implementations can update value in place, when both points are close.
+     *
+     * @param oldPoint current coordinates of value
+     * @param newPoint new coordinates of value
+     * @param value element at oldPoint
+     * @throws QuadTreeException if new point is out of index bounds, index is not changed in this case
+     */
+    default void move(Point oldPoint, Point newPoint, T value) {
+        if (!getSize().contains(newPoint)) {
+            throw new QuadTreeException("Out of bounds: " + newPoint);
+        }
+        remove(oldPoint, value);
+        put(newPoint, value);
+    }
+
+    /**
+     * Checks if there is an element at this point
+     *
+     * @param point coordinates
+     * @return True if index contains element at this point, otherwise false.
+     */
+    default boolean contains(Point point) {
+        return get(point).isPresent();
+    }
+
+    /**
+     * @return Whether the index is empty.
+     */
+    boolean isEmpty();
+
+    /**
+     * @return The number of elements in the index.
+     */
+    int getCount();
+
+    /**
+     * Removes all elements from the index.
+     */
+    void clear();
+
+    /**
+     * @return Area, covered by index
+     */
+    Rectangle getSize();
+
+    /**
+     * Returns all elements of the index
+     * @return Stream of index elements
+     */
+    Stream<T> getValues();
+
+    /**
+     * Returns elements within rectangle(inclusive)
+     * @return Stream of index elements
+     */
+    Stream<T> searchWithin(Rectangle rectangle);
+
+    /**
+     * Returns elements within circle(inclusive)
+     * @return Stream of index elements
+     */
+    Stream<T> searchWithin(Point point, double radius);
+
+    /**
+     * Visits elements within rectangle(inclusive), until visitor stops the search
+     *
+     * @return False if search was stopped by visitor, otherwise true
+     */
+    boolean forEachWithin(Rectangle rectangle, EntryVisitor<? super T> visitor);
+
+    /**
+     * Visits elements within circle(inclusive), until visitor stops the search
+     *
+     * @return False if search was stopped by visitor, otherwise true
+     */
+    boolean forEachWithin(Point point, double radius, EntryVisitor<? super T> visitor);
+
+    /**
+     * Adds elements within circle(inclusive) to the result, so caller can reuse one collection for many searches
+     *
+     * @return Number of added elements
+     */
+    default int searchWithin(Point point, double radius, Collection<? super T> result) {
+        int size = result.size();
+        forEachWithin(point, radius, (position, value) -> result.add(value));
+        return result.size() - size;
+    }
+
+    /**
+     * @return True if index may be changed and searched by several threads at the same time
+     */
+    default boolean isConcurrent() {
+        return false;
+    }
+
+    /**
+     * Finds the nearest element within circle(inclusive), which matches the filter
+     *
+     * @param point center of search
+     * @param maxRadius maximum distance to element
+     * @param filter condition for elements
+     * @return Optional nearest element, empty if there is no matching element within circle
+     */
+    default Optional<T> nearest(Point point, double maxRadius, Predicate<? super T> filter) {
+        final Object[] nearest = {null};
+        final double[] nearestSquareDistance = {Double.POSITIVE_INFINITY};
+        forEachWithin(point, maxRadius, (position, value) -> {
+            double squareDistance = point.squareDistance(position);
+            if (squareDistance < nearestSquareDistance[0] && filter.test(value)) {
+                nearest[0] = value;
+                nearestSquareDistance[0] = squareDistance;
+            }
+            return true;
+        });
+        @SuppressWarnings("unchecked")
+        T value = (T) nearest[0];
+        return Optional.ofNullable(value);
+    }
+
+    /**
+     * Finds up to k nearest elements within circle(inclusive), which match the filter
+     *
+     * @param point center of search
+     * @param k maximum number of elements
+     * @param maxRadius maximum distance to element
+     * @param filter condition for elements
+     * @return Elements ordered by distance from the point
+     */
+    default List<T> nearest(Point point, int k, double maxRadius, Predicate<? super T> filter) {
+        List<Pair<Double, T>> candidates = new ArrayList<>();
+        forEachWithin(point, maxRadius, (position, value) -> {
+            if (filter.test(value))
+                candidates.add(Pair.with(point.squareDistance(position), value));
+            return true;
+        });
+        return candidates.stream()
+                .sorted((pair1, pair2) -> Double.compare(pair1.getValue0(), pair2.getValue0()))
+                .limit(Math.max(k, 0))
+                .map(Pair::getValue1)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,188 @@
+package com.company.life_simulator.world.quadtree;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Index of toroidal area: left edge of the area is glued to the right one and top edge to the bottom one.
+ * <p/>
+ * Circle within the area is searched by single query of underlying index. Circle, which crosses edges,
+ * is split into up to 4 queries of underlying index, one per image of the circle, shifted by width or height of the area.
+ * Images are farther from each other than diameter of the circle, so every point is found at most once.
+ * Circle, which is not less than half of the area, is searched by scan of the whole area.
+ * Visitor gets point, as it is seen from the center of the circle: point across the edge is shifted to the image, closest to the center.
+ * <br>
+ * Rectangle search is not wrapped.
+ */
+public class TorusIndex<T> implements SpatialIndex<T> {
+    private final SpatialIndex<T> index;
+    private final Rectangle rectangle;
+
+    /**
+     * @param index underlying index, its bounds are bounds of the torus
+     */
+    public TorusIndex(SpatialIndex<T> index) {
+        this.index = index;
+        this.rectangle = index.getSize();
+    }
+
+    @Override
+    public boolean isConcurrent() {
+        return index.isConcurrent();
+    }
+
+    @Override
+    public void put(Point point, T value) {
+        index.put(point, value);
+    }
+
+    @Override
+    public void putAll(Collection<? extends T> values, Function<? super T, Point> position) {
+        index.putAll(values, position);
+    }
+
+    @Override
+    public Optional<T> get(Point point) {
+        return index.get(point);
+    }
+
+    @Override
+    public Optional<T> remove(Point point) {
+        return index.remove(point);
+    }
+
+    @Override
+    public Optional<T> remove(Point point, T value) {
+        return index.remove(point, value);
+    }
+
+    @Override
+    public void move(Point oldPoint, Point newPoint, T value) {
+        index.move(oldPoint, newPoint, value);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    @Override
+    public int getCount() {
+        return index.getCount();
+    }
+
+    @Override
+    public void clear() {
+        index.clear();
+    }
+
+    @Override
+    public Rectangle getSize() {
+        return rectangle;
+    }
+
+    @Override
+    public Stream<T> getValues() {
+        return index.getValues();
+    }
+
+    @Override
+    public Stream<T> searchWithin(Rectangle searchRectangle) {
+        return index.searchWithin(searchRectangle);
+    }
+
+    @Override
+    public boolean forEachWithin(Rectangle searchRectangle, EntryVisitor<? super T> visitor) {
+        return index.forEachWithin(searchRectangle, visitor);
+    }
+
+    @Override
+    public Stream<T> searchWithin(Point point, double radius) {
+        if (isInside(point, radius))
+            return index.searchWithin(point, radius);
+        Stream.Builder<T> streamBuilder = Stream.builder();
+        this.forEachWithin(point, radius, (position, value) -> {
+            streamBuilder.add(value);
+            return true;
+        });
+        return streamBuilder.build();
+    }
+
+    @Override
+    public boolean forEachWithin(Point point, double radius, EntryVisitor<? super T> visitor) {
+        if (isInside(point, radius))
+            return index.forEachWithin(point, radius, visitor);
+        if (radius * 2 >= rectangle.getWidth() || radius * 2 >= rectangle.getHeight()) {
+            //images of such circle overlap, every point is checked once at its closest image
+            return index.forEachWithin(rectangle, (position, value) -> {
+                Point image = getImage(point, position);
+                return !image.withinCircle(point, radius) || visitor.visit(image, value);
+            });
+        }
+
+        double shiftX = 0;
+        if (point.getX() - radius < rectangle.getLeft())
+            shiftX = rectangle.getWidth();
+        else if (point.getX() + radius > rectangle.getRight())
+            shiftX = -rectangle.getWidth();
+        double shiftY = 0;
+        if (point.getY() - radius < rectangle.getTop())
+            shiftY = rectangle.getHeight();
+        else if (point.getY() + radius > rectangle.getBottom())
+            shiftY = -rectangle.getHeight();
+
+        //image queries are skipped as soon as visitor stops the search
+        return index.forEachWithin(point, radius, visitor)
+                && (shiftX == 0 || forEachWithinImage(point, radius, shiftX, 0, visitor))
+                && (shiftY == 0 || forEachWithinImage(point, radius, 0, shiftY, visitor))
+                && (shiftX == 0 || shiftY == 0 || forEachWithinImage(point, radius, shiftX, shiftY, visitor));
+    }
+
+    private boolean forEachWithinImage(Point point, double radius, double shiftX, double shiftY, EntryVisitor<? super T> visitor) {
+        return index.forEachWithin(point.delta(shiftX, shiftY), radius,
+                (position, value) -> visitor.visit(position.delta(-shiftX, -shiftY), value));
+    }
+
+    @Override
+    public Optional<T> nearest(Point point, double maxRadius, Predicate<? super T> filter) {
+        if (isInside(point, maxRadius))
+            return index.nearest(point, maxRadius, filter);
+        return SpatialIndex.super.nearest(point, maxRadius, filter);
+    }
+
+    @Override
+    public List<T> nearest(Point point, int k, double maxRadius, Predicate<? super T> filter) {
+        if (isInside(point, maxRadius))
+            return index.nearest(point, k, maxRadius, filter);
+        return SpatialIndex.super.nearest(point, k, maxRadius, filter);
+    }
+
+    /**
+     * @return Position of the point, as it is seen from other point: the image of the point, closest to other point
+     */
+    public Point getImage(Point from, Point point) {
+        return getImage(rectangle, from, point);
+    }
+
+    /**
+     * @return Position of the point, as it is seen from other point on torus of the area
+     */
+    public static Point getImage(Rectangle area, Point from, Point point) {
+        double dx = point.getX() - from.getX();
+        double dy = point.getY() - from.getY();
+        double imageX = dx > area.getWidth() / 2 ? -area.getWidth() : (dx < -area.getWidth() / 2 ? area.getWidth() : 0);
+        double imageY = dy > area.getHeight() / 2 ? -area.getHeight() : (dy < -area.getHeight() / 2 ? area.getHeight() : 0);
+        if (imageX == 0 && imageY == 0)
+            return point;
+        return point.delta(imageX, imageY);
+    }
+
+    private boolean isInside(Point point, double radius) {
+        return point.getX() - radius >= rectangle.getLeft() && point.getX() + radius <= rectangle.getRight()
+                && point.getY() - radius >= rectangle.getTop() && point.getY() + radius <= rectangle.getBottom();
+    }
+}
@@ -0,0 +1,269 @@
+package com.company.life_simulator.world.quadtree;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Data structure: Uniform grid of square cells for representing 2D data.
+ * <p/>
+ * Put and remove touch exactly one cell. When cell size is not less than search radius,
+ * circle search touches at most 9 cells, so the best cell size is the most common search radius.
+ */
+public class UniformGrid<T> implements SpatialIndex<T> {
+    private static final int INITIAL_CELL_CAPACITY = 4;
+
+    private final Rectangle rectangle;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final Cell<T>[] cells;
+    private int count = 0;
+
+    /**
+     * Creates new instance of grid
+     *
+     * @param rectangle determine area, covered by grid
+     * @param cellSize  side of the grid cell
+     */
+    @SuppressWarnings("unchecked")
+    public UniformGrid(Rectangle rectangle, double cellSize) {
+        if (!(cellSize > 0)) {
+            throw new QuadTreeException("Invalid cell size: " + cellSize);
+        }
+        this.rectangle = rectangle;
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(rectangle.getWidth() / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(rectangle.getHeight() / cellSize));
+        //generic array can not be created, array holds only cells of T
+        this.cells = (Cell<T>[]) new Cell<?>[columns * rows];
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    @Override
+    public void put(Point point, T value) {
+        if (!rectangle.contains(point)) {
+            throw new QuadTreeException("Out of bounds: " + point);
+        }
+        int cellIndex = cellIndex(column(point.getX()), row(point.getY()));
+        Cell<T> cell = cells[cellIndex];
+        if (cell == null) {
+            cell = new Cell<>();
+            cells[cellIndex] = cell;
+        }
+        if (cell.put(point, value)) {
+            count++;
+        }
+    }
+
+    /**
+     * Moves value to the new point, value is updated in place, when both points are in the same cell
+     */
+    @Override
+    public void move(Point oldPoint, Point newPoint, T value) {
+        if (!rectangle.contains(newPoint)) {
+            throw new QuadTreeException("Out of bounds: " + newPoint);
+        }
+        Cell<T> cell = getCell(oldPoint);
+        int index = cell == null ? -1 : cell.indexOf(oldPoint);
+        if (index >= 0 && cell == cells[cellIndex(column(newPoint.getX()), row(newPoint.getY()))]) {
+            int existing = cell.indexOf(newPoint);
+            if (existing < 0 || existing == index) {
+                cell.points[index] = newPoint;
+                cell.values[index] = value;
+                return;
+            }
+        }
+        SpatialIndex.super.move(oldPoint, newPoint, value);
+    }
+
+    @Override
+    public Rectangle getSize() {
+        return rectangle;
+    }
+
+    @Override
+    public Optional<T> get(Point point) {
+        Cell<T> cell = getCell(point);
+        int index = cell == null ? -1 : cell.indexOf(point);
+        return index >= 0 ? Optional.of(cell.getValue(index)) : Optional.empty();
+    }
+
+    @Override
+    public Optional<T> remove(Point point) {
+        Cell<T> cell = getCell(point);
+        int index = cell == null ? -1 : cell.indexOf(point);
+        if (index < 0) {
+            return Optional.empty();
+        }
+        T value = cell.getValue(index);
+        cell.remove(index);
+        count--;
+        return Optional.of(value);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(cells, null);
+        count = 0;
+    }
+
+    @Override
+    public Stream<T> getValues() {
+        Stream.Builder<T> streamBuilder = Stream.builder();
+        this.traverse((point, value) -> streamBuilder.add(value));
+        return streamBuilder.build();
+    }
+
+    @Override
+    public Stream<T> searchWithin(Rectangle searchRectangle) {
+        Stream.Builder<T> streamBuilder = Stream.builder();
+        this.forEachWithin(searchRectangle, (point, value) -> {
+            streamBuilder.add(value);
+            return true;
+        });
+        return streamBuilder.build();
+    }
+
+    @Override
+    public Stream<T> searchWithin(Point point, double radius) {
+        Stream.Builder<T> streamBuilder = Stream.builder();
+        this.forEachWithin(point, radius, (position, value) -> {
+            streamBuilder.add(value);
+            return true;
+        });
+        return streamBuilder.build();
+    }
+
+    @Override
+    public boolean forEachWithin(Point point, double radius, EntryVisitor<? super T> visitor) {
+        int fromColumn = column(point.getX() - radius);
+        int toColumn = column(point.getX() + radius);
+        int fromRow = row(point.getY() - radius);
+        int toRow = row(point.getY() + radius);
+        for (int row = fromRow; row <= toRow; row++) {
+            for (int column = fromColumn; column <= toColumn; column++) {
+                Cell<T> cell = cells[cellIndex(column, row)];
+                if (cell == null)
+                    continue;
+                for (int i = 0; i < cell.size; i++) {
+                    if (cell.points[i].withinCircle(point, radius) && !visitor.visit(cell.points[i], cell.getValue(i)))
+                        return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean forEachWithin(Rectangle searchRectangle, EntryVisitor<? super T> visitor) {
+        int fromColumn = column(searchRectangle.getLeft());
+        int toColumn = column(searchRectangle.getRight());
+        int fromRow = row(searchRectangle.getTop());
+        int toRow = row(searchRectangle.getBottom());
+        for (int row = fromRow; row <= toRow; row++) {
+            for (int column = fromColumn; column <= toColumn; column++) {
+                Cell<T> cell = cells[cellIndex(column, row)];
+                if (cell == null)
+                    continue;
+                for (int i = 0; i < cell.size; i++) {
+                    if (searchRectangle.contains(cell.points[i]) && !visitor.visit(cell.points[i], cell.getValue(i)))
+                        return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void traverse(BiConsumer<Point, T> consumer) {
+        for (Cell<T> cell : cells) {
+            if (cell == null)
+                continue;
+            for (int i = 0; i < cell.size; i++)
+                consumer.accept(cell.points[i], cell.getValue(i));
+        }
+    }
+
+    private Cell<T> getCell(Point point) {
+        if (!rectangle.contains(point))
+            return null;
+        return cells[cellIndex(column(point.getX()), row(point.getY()))];
+    }
+
+    private int column(double x) {
+        int column = (int) ((x - rectangle.getLeft()) / cellSize);
+        return Math.max(0, Math.min(columns - 1, column));
+    }
+
+    private int row(double y) {
+        int row = (int) ((y - rectangle.getTop()) / cellSize);
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+
+    private int cellIndex(int column, int row) {
+        return row * columns + column;
+    }
+
+    /**
+     * Points of one grid cell in flat arrays
+     */
+    private static class Cell<T> {
+        private Point[] points = new Point[INITIAL_CELL_CAPACITY];
+        private Object[] values = new Object[INITIAL_CELL_CAPACITY];
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        T getValue(int index) {
+            return (T) values[index];
+        }
+
+        int indexOf(Point point) {
+            for (int i = 0; i < size; i++) {
+                if (points[i].equals(point))
+                    return i;
+            }
+            return -1;
+        }
+
+        /**
+         * @return True if point was added, false if value of existing point was replaced
+         */
+        boolean put(Point point, T value) {
+            int index = indexOf(point);
+            if (index >= 0) {
+                values[index] = value;
+                return false;
+            }
+            if (size == points.length) {
+                points = Arrays.copyOf(points, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            points[size] = point;
+            values[size] = value;
+            size++;
+            return true;
+        }
+
+        void remove(int index) {
+            size--;
+            points[index] = points[size];
+            values[index] = values[size];
+            points[size] = null;
+            values[size] = null;
+        }
+    }
+}
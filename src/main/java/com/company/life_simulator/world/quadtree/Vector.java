@@ -47,6 +47,13 @@ public class Vector {
     }
 
     public double angle() {
+        return angle(x, y);
+    }
+
+    /**
+     * @return Angle of vector {x, y} in turns, [0, 1)
+     */
+    public static double angle(double x, double y) {
         double angle = Math.atan2(y, x)/(Math.PI*2);
         if (angle < 0)
             angle += 1;
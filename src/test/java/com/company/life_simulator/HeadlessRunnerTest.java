@@ -0,0 +1,47 @@
+package com.company.life_simulator;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HeadlessRunnerTest {
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private int tick = 0;
+    private int population = 10;
+
+    @Test
+    public void testRunStopsAtTargetTickWithoutWarmup()
+    {
+        HeadlessRunner runner = new HeadlessRunner(100, Duration.ZERO, 20, Duration.ofSeconds(5), new PrintStream(output));
+        HeadlessRunner.Report report = runner.run(() -> tick++, () -> tick, () -> population);
+        assertEquals(100, tick);
+        assertEquals(80, report.getTicks());
+        assertEquals(report.getTicksPerSecond() * population, report.getDwellersPerSecond(), 1e-6 * report.getDwellersPerSecond());
+        assertTrue(output.toString().contains("total: 80 ticks"));
+    }
+
+    @Test
+    public void testRunStopsWhenDwellersDieOut()
+    {
+        HeadlessRunner runner = new HeadlessRunner(0, Duration.ZERO, 0, Duration.ofSeconds(5), new PrintStream(output));
+        HeadlessRunner.Report report = runner.run(() -> population = 10 - ++tick, () -> tick, () -> population);
+        assertEquals(10, tick);
+        assertEquals(10, report.getTicks());
+    }
+
+    @Test
+    public void testRunStopsAtTimeBudget()
+    {
+        HeadlessRunner runner = new HeadlessRunner(0, Duration.ofMillis(200), 0, Duration.ofMillis(50), new PrintStream(output));
+        long start = System.nanoTime();
+        HeadlessRunner.Report report = runner.run(() -> tick++, () -> tick, () -> population);
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos());
+        assertEquals(tick, report.getTicks());
+        assertTrue(output.toString().split(System.lineSeparator()).length > 1);
+    }
+}
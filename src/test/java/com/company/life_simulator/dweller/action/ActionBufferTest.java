@@ -0,0 +1,52 @@
+package com.company.life_simulator.dweller.action;
+
+import com.company.life_simulator.world.quadtree.Point;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ActionBufferTest {
+    @Test
+    public void testEncode()
+    {
+        ActionBuffer buffer = new ActionBuffer();
+        for (int i = 0; i < 100; i++) {
+            buffer.move(i, i, -i);
+            buffer.eat(i, i + 1000);
+        }
+        buffer.breed(7);
+        buffer.die(8);
+
+        assertEquals(202, buffer.size());
+        assertEquals(ActionType.move, buffer.getType(198));
+        assertEquals(99, buffer.getDwellerId(198));
+        assertEquals(-99, buffer.getTargetY(198), 0);
+        assertEquals(ActionType.eat, buffer.getType(199));
+        assertEquals(1099, buffer.getFoodId(199));
+
+        ActionMove move = (ActionMove) buffer.toAction(2);
+        assertEquals(1, move.getDwellerId());
+        assertEquals(new Point(1, -1), move.getTarget());
+        assertEquals(1001, ((ActionEat) buffer.toAction(3)).getFoodId());
+        assertTrue(buffer.toAction(200) instanceof ActionBreed);
+        assertTrue(buffer.toAction(201) instanceof ActionDie);
+
+        buffer.clear();
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void testGrowOnEat()
+    {
+        ActionBuffer buffer = new ActionBuffer();
+        for (int i = 0; i < 64; i++)
+            buffer.breed(i);
+        buffer.eat(64, 1000);
+
+        assertEquals(65, buffer.size());
+        assertEquals(ActionType.eat, buffer.getType(64));
+        assertEquals(64, buffer.getDwellerId(64));
+        assertEquals(1000, buffer.getFoodId(64));
+    }
+}
@@ -0,0 +1,59 @@
+package com.company.life_simulator.sweep;
+
+import com.company.life_simulator.dweller.ant.Ant;
+import com.company.life_simulator.world.WorldConfig;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SweepRunnerTest {
+    @Test
+    public void testExpand()
+    {
+        Properties parameters = new Properties();
+        parameters.setProperty("b", "1, 2");
+        parameters.setProperty("a", "x,y,z");
+        List<Map<String, String>> parameterSets = SweepRunner.expand(parameters);
+        assertEquals(6, parameterSets.size());
+        assertEquals(Arrays.asList("a", "b"), Arrays.asList(parameterSets.get(0).keySet().toArray()));
+        assertEquals(6, new HashSet<>(parameterSets).size());
+    }
+
+    @Test
+    public void testConfigsOfRunsAreIndependent()
+    {
+        Properties properties = new Properties();
+        properties.setProperty("dweller.ant.foodConsumption", String.valueOf(Ant.FOOD_SATURATION));
+        SweepRunner.RunResult starving = new SweepRunner(1, 100).run(WorldConfig.fromProperties(properties), 1);
+        assertTrue(starving.isExtinct());
+        assertEquals(1, starving.getLifetimeTicks());
+
+        SweepRunner.RunResult fed = new SweepRunner(1, 5).run(WorldConfig.DEFAULT, 1);
+        assertEquals(5, fed.getLifetimeTicks());
+    }
+
+    @Test
+    public void testResults() throws Exception
+    {
+        Properties grid = new Properties();
+        grid.setProperty(SweepRunner.SEEDS, "1,2,3");
+        grid.setProperty("dweller.ant.baseSpeed", "2,4");
+        grid.setProperty("world.initialFood", "50");
+        StringWriter output = new StringWriter();
+        new SweepRunner(2, 20).run(grid, output);
+
+        String[] lines = output.toString().split(System.lineSeparator());
+        assertEquals("dweller.ant.baseSpeed,world.initialFood,seed,lifetimeTicks,extinct,peakPopulation,ticksPerSecond", lines[0]);
+        assertEquals(1 + 2 * 3, lines.length);
+        for (int i = 1; i < lines.length; i++)
+            assertEquals(7, lines[i].split(",").length);
+    }
+}
@@ -0,0 +1,53 @@
+package com.company.life_simulator.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CounterRandomTest {
+    @Test
+    public void testSameKeyGivesSameNumbers()
+    {
+        CounterRandom first = new CounterRandom(1, 2, 3);
+        CounterRandom second = new CounterRandom(1, 2, 3);
+        for (int i = 0; i < 100; i++)
+            assertEquals(first.nextLong(), second.nextLong());
+        assertEquals(new CounterRandom(1, 2, 3).nextDouble(), new CounterRandom(1, 2, 3).nextDouble(), 0);
+    }
+
+    @Test
+    public void testRekeyGivesNumbersOfNewGenerator()
+    {
+        CounterRandom reused = new CounterRandom(7);
+        reused.nextGaussian();
+        reused.rekey(1, 2, 3);
+        CounterRandom created = new CounterRandom(1, 2, 3);
+        for (int i = 0; i < 100; i++)
+            assertEquals(created.nextLong(), reused.nextLong());
+        assertEquals(new CounterRandom(1, 2, 3).nextGaussian(), reused.rekey(1, 2, 3).nextGaussian(), 0);
+        assertEquals(new CounterRandom(4, 5, 6).nextDouble(), CounterRandom.ofThread(4, 5, 6).nextDouble(), 0);
+    }
+
+    @Test
+    public void testKeyPartsAreOrdered()
+    {
+        assertNotEquals(new CounterRandom(1, 2, 3).nextLong(), new CounterRandom(1, 3, 2).nextLong());
+        assertNotEquals(new CounterRandom(1, 2, 3).nextLong(), new CounterRandom(1, 2, 4).nextLong());
+    }
+
+    @Test
+    public void testDoublesAreUniform()
+    {
+        CounterRandom random = new CounterRandom(42);
+        int[] buckets = new int[10];
+        for (int i = 0; i < 100000; i++) {
+            double value = random.nextDouble();
+            assertTrue(value >= 0 && value < 1);
+            buckets[(int) (value * 10)]++;
+        }
+        for (int bucket : buckets)
+            assertTrue(String.valueOf(bucket), Math.abs(bucket - 10000) < 500);
+    }
+}
@@ -0,0 +1,57 @@
+package com.company.life_simulator.world;
+
+import com.company.life_simulator.dweller.Dweller;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares processing of dwellers in order of registry slots and in Morton order at high population.
+ * Every parameter set runs in its own fork, so system properties are set before World is loaded.
+ * Cache misses are visible with "-prof perfnorm".
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(value = 5, jvmArgs = {"-XX:+AggressiveOpts"})
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+public class DwellerOrderBenchmark {
+    @Param({"false", "true"})
+    private String mortonOrder;
+
+    @Param({"1", "10"})
+    private String resortInterval;
+
+    private World world;
+
+    @Setup
+    public void loadProperties() throws IOException {
+        System.setProperty("world.mortonOrder", mortonOrder);
+        System.setProperty("world.mortonOrder.resortInterval", resortInterval);
+        System.setProperty("world.initialFood", "20000");
+        Properties properties = new Properties();
+        properties.load(DwellerOrderBenchmark.class.getResourceAsStream("/world_benchmark.properties"));
+        properties.stringPropertyNames().stream()
+                .filter(name -> System.getProperty(name) == null)
+                .forEach(name -> System.setProperty(name, properties.getProperty(name)));
+    }
+
+    @Setup(Level.Iteration)
+    public void init()
+    {
+        world = WorldBuilder.createWorld(800);
+        for (int i = 0; i < 100; i++)
+            world.tick();
+    }
+
+    @Benchmark
+    public Stream<Dweller> tickBenchmark()
+    {
+        world.tick();
+        return world.getDwellers();
+    }
+}
@@ -0,0 +1,82 @@
+package com.company.life_simulator.world;
+
+import com.company.life_simulator.dweller.Dweller;
+import com.company.life_simulator.dweller.Food;
+import com.company.life_simulator.world.quadtree.Point;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DwellerRegistryTest {
+    private final DwellerRegistry registry = new DwellerRegistry();
+
+    private Food create() {
+        return new Food(registry.reserve(), new Point(0, 0), 0);
+    }
+
+    @Test
+    public void testPutGetRemove()
+    {
+        Food first = create();
+        Food second = create();
+        registry.put(first);
+        registry.put(second);
+        assertEquals(2, registry.size());
+        assertSame(first, registry.get(first.getId()));
+        assertSame(second, registry.get(second.getId()));
+
+        assertTrue(registry.remove(first));
+        assertFalse(registry.remove(first));
+        assertNull(registry.get(first.getId()));
+        assertEquals(1, registry.size());
+        assertEquals(Arrays.asList(second), registry.stream().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testRecycledSlot()
+    {
+        Food dead = create();
+        registry.put(dead);
+        registry.remove(dead);
+
+        //slot is not reused before recycle
+        Food born = create();
+        assertNotEquals(dead.getId(), born.getId());
+        registry.put(born);
+        assertNull(registry.get(dead.getId()));
+
+        registry.recycleRemoved();
+        Food reused = create();
+        assertEquals(dead.getId(), reused.getId());
+        registry.put(reused);
+        assertSame(reused, registry.get(dead.getId()));
+        assertSame(born, registry.get(born.getId()));
+    }
+
+    @Test
+    public void testManySlots()
+    {
+        int count = (1 << 20) + 16;
+        for (int i = 0; i < count; i++)
+            registry.put(create());
+        assertEquals(count, registry.size());
+        assertEquals(count - 1, registry.get(count - 1).getId());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPutStale()
+    {
+        Dweller dead = create();
+        registry.put(dead);
+        registry.remove(dead);
+        registry.put(dead);
+    }
+}
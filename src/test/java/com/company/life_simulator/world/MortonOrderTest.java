@@ -0,0 +1,93 @@
+package com.company.life_simulator.world;
+
+import com.company.life_simulator.dweller.Dweller;
+import com.company.life_simulator.dweller.Food;
+import com.company.life_simulator.world.quadtree.Point;
+import com.company.life_simulator.world.quadtree.Rectangle;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MortonOrderTest {
+    private final MortonOrder order = new MortonOrder(new Rectangle(0, 0, 100, 100));
+
+    @Test
+    public void testEncode()
+    {
+        assertEquals(0, order.encode(new Point(0, 0)));
+        assertTrue(order.encode(new Point(60, 10)) < order.encode(new Point(10, 60)));
+        assertTrue(order.encode(new Point(10, 10)) < order.encode(new Point(60, 10)));
+        assertTrue(order.encode(new Point(40, 40)) < order.encode(new Point(60, 10)));
+        assertEquals((1L << 30) - 1, order.encode(new Point(100, 100)));
+    }
+
+    @Test
+    public void testSortAndCompact()
+    {
+        Food nw = new Food(1, new Point(10, 10), 0);
+        Food ne = new Food(2, new Point(90, 10), 0);
+        Food sw = new Food(3, new Point(10, 90), 0);
+        Food se = new Food(4, new Point(90, 90), 0);
+        Food center = new Food(5, new Point(45, 45), 0);
+        for (Food food : Arrays.asList(se, sw, center, ne, nw))
+            order.add(food);
+
+        order.sort();
+        assertEquals(Arrays.asList(nw, center, ne, sw, se), order.stream().collect(Collectors.toList()));
+
+        order.compact(dweller -> dweller != center);
+        order.add(center);
+        List<Dweller> dwellers = order.stream().collect(Collectors.toList());
+        assertEquals(Arrays.asList(nw, ne, sw, se, center), dwellers);
+    }
+
+    @Test
+    public void testIncrementalSort()
+    {
+        Random random = new Random(3);
+        List<Food> foods = new ArrayList<>();
+        for (int round = 0; round < 20; round++) {
+            //few dwellers jump across the world, so insertion sort gives up in some rounds
+            for (Food food : foods) {
+                double step = random.nextInt(10) == 0 ? 100 : 1;
+                food.setPosition(new Point(clamp(food.getPosition().getX() + (random.nextDouble() - 0.5) * step),
+                        clamp(food.getPosition().getY() + (random.nextDouble() - 0.5) * step)));
+            }
+            order.compact(dweller -> random.nextInt(10) > 0);
+            for (int i = 0; i < 100; i++) {
+                Food food = new Food(round * 100 + i, new Point(random.nextDouble() * 100, random.nextDouble() * 100), 0);
+                order.add(food);
+            }
+            order.sort();
+
+            List<Dweller> sorted = order.stream().collect(Collectors.toList());
+            foods = sorted.stream().map(Food.class::cast).collect(Collectors.toList());
+            for (int i = 1; i < sorted.size(); i++)
+                assertTrue(order.encode(sorted.get(i - 1).getPosition()) <= order.encode(sorted.get(i).getPosition()));
+        }
+    }
+
+    @Test
+    public void testInsertionSortGivesUp()
+    {
+        long[] keys = {5, 4, 3, 2, 1};
+        assertFalse(MortonOrder.insertionSort(keys, keys.length, 3));
+        keys = new long[]{1, 3, 2, 4, 5};
+        assertTrue(MortonOrder.insertionSort(keys, keys.length, 1));
+        assertArrayEquals(new long[]{1, 2, 3, 4, 5}, keys);
+    }
+
+    private static double clamp(double coordinate)
+    {
+        return Math.max(0, Math.min(100, coordinate));
+    }
+}
@@ -0,0 +1,77 @@
+package com.company.life_simulator.world;
+
+import com.company.life_simulator.dweller.Dweller;
+import com.company.life_simulator.dweller.DwellerType;
+import com.company.life_simulator.dweller.Food;
+import com.company.life_simulator.world.quadtree.Point;
+import com.company.life_simulator.world.quadtree.Rectangle;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RegionChangesTest {
+    private final RegionChanges changes = new RegionChanges(new Rectangle(0, 0, 100, 100), 10, true);
+
+    @Test
+    public void testAdditionsSinceSequence()
+    {
+        Food near = new Food(1, new Point(52, 50), 0);
+        Food far = new Food(2, new Point(90, 10), 0);
+        changes.added(near);
+        long sequence = changes.getSequence();
+        Food later = new Food(3, new Point(45, 55), 0);
+        changes.added(far);
+        changes.added(later);
+
+        assertEquals(Collections.singletonList(later), addedSince(sequence, new Point(50, 50), 10));
+        assertEquals(Arrays.asList(later, near), addedSince(0, new Point(50, 50), 10));
+        assertEquals(Collections.emptyList(), addedSince(changes.getSequence(), new Point(50, 50), 10));
+    }
+
+    @Test
+    public void testAdditionsAcrossEdgeOfTorus()
+    {
+        Food food = new Food(1, new Point(99, 1), 0);
+        changes.added(food);
+        assertEquals(Collections.singletonList(food), addedSince(0, new Point(2, 98), 5));
+    }
+
+    @Test
+    public void testOldAdditionsExpire()
+    {
+        changes.added(new Food(1, new Point(50, 50), 0));
+        changes.nextTick(RegionChanges.KEEP_TICKS + 1);
+        Food food = new Food(2, new Point(51, 51), 0);
+        changes.added(food);
+        assertEquals(Collections.singletonList(food), addedSince(0, new Point(50, 50), 5));
+    }
+
+    @Test
+    public void testTravelIsSumOfLongestMoves()
+    {
+        changes.nextTick(1);
+        changes.moved(DwellerType.ant, 2);
+        changes.moved(DwellerType.ant, 5);
+        assertEquals(5, changes.getTravel(DwellerType.ant), 1e-9);
+        changes.nextTick(2);
+        changes.moved(DwellerType.ant, 3);
+        changes.nextTick(3);
+        assertEquals(8, changes.getTravel(DwellerType.ant), 1e-9);
+        assertEquals(3, changes.getLastStep(DwellerType.ant), 1e-9);
+        assertEquals(0, changes.getTravel(DwellerType.food), 1e-9);
+        assertTrue(changes.getLastStep(DwellerType.food) == 0);
+    }
+
+    private List<Dweller> addedSince(long sequence, Point center, double radius)
+    {
+        List<Dweller> added = new ArrayList<>();
+        changes.forEachAddedSince(sequence, DwellerType.food, center, radius, added::add);
+        return added;
+    }
+}
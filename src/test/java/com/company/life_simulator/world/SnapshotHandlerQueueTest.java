@@ -0,0 +1,78 @@
+package com.company.life_simulator.world;
+
+import com.company.life_simulator.dweller.DwellerType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotHandlerQueueTest {
+    @Test
+    public void testSnapshotsAreHandledInOrder() throws InterruptedException
+    {
+        List<Integer> ticks = new ArrayList<>();
+        CountDownLatch handled = new CountDownLatch(5);
+        SnapshotHandlerQueue queue = new SnapshotHandlerQueue((tick, snapshot) -> {
+            ticks.add(tick);
+            handled.countDown();
+        }, 2);
+        for (int tick = 1; tick <= 5; tick++)
+            queue.put(snapshot(tick));
+        queue.close();
+        assertTrue(handled.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), ticks);
+    }
+
+    @Test
+    public void testFullQueueHoldsBackTheWorld() throws Exception
+    {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        SnapshotHandlerQueue queue = new SnapshotHandlerQueue((tick, snapshot) -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 1);
+        queue.put(snapshot(1));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        queue.put(snapshot(2));
+
+        CompletableFuture<Void> third = CompletableFuture.runAsync(() -> {
+            try {
+                queue.put(snapshot(3));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(third.isDone());
+        release.countDown();
+        third.get(5, TimeUnit.SECONDS);
+        queue.close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWorldWithoutSnapshots()
+    {
+        try (World world = new World(100, 100, 1)) {
+            world.addSnapshotHandler((tick, snapshot) -> { }, 1);
+        }
+    }
+
+    private static WorldSnapshot snapshot(int tick)
+    {
+        return new WorldSnapshot(tick, null, new EnumMap<>(DwellerType.class));
+    }
+}
@@ -0,0 +1,79 @@
+package com.company.life_simulator.world;
+
+import com.company.life_simulator.dweller.Dweller;
+import com.company.life_simulator.dweller.DwellerType;
+import com.company.life_simulator.dweller.Food;
+import com.company.life_simulator.world.quadtree.Point;
+import com.company.life_simulator.world.quadtree.Rectangle;
+import com.company.life_simulator.world.quadtree.TorusIndex;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+public class TileGridTest {
+    private static final Rectangle SIZE = new Rectangle(0, 0, 100, 100);
+
+    @Test
+    public void testHaloMatchesFullScan()
+    {
+        for (boolean torus : new boolean[]{false, true}) {
+            TileGrid grid = new TileGrid(SIZE, 4, 10, 10, torus);
+            Random random = new Random(1);
+            List<Dweller> foods = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                Food food = new Food(i, new Point(random.nextDouble() * 100, random.nextDouble() * 100), 0);
+                foods.add(food);
+                grid.add(food);
+            }
+            grid.getTiles().forEach(grid::rebuildHalo);
+
+            for (int i = 0; i < 200; i++) {
+                Point point = new Point(random.nextDouble() * 100, random.nextDouble() * 100);
+                double range = random.nextDouble() * 10;
+                Set<Dweller> expected = foods.stream()
+                        .filter(food -> (torus ? TorusIndex.getImage(SIZE, point, food.getPosition()) : food.getPosition()).withinCircle(point, range))
+                        .collect(Collectors.toSet());
+                Set<Dweller> found = new HashSet<>();
+                grid.forEachWithin(point, range, DwellerType.food, (position, dweller) -> found.add(dweller));
+                assertEquals(expected, found);
+            }
+        }
+    }
+
+    @Test
+    public void testMigration()
+    {
+        TileGrid grid = new TileGrid(SIZE, 2, 10, 10, true);
+        Food food = new Food(1, new Point(45, 45), 0);
+        grid.add(food);
+        Tile from = grid.tileOf(food.getPosition());
+
+        grid.scheduleMove(food, new Point(95, 45));
+        grid.getTiles().forEach(Tile::commit);
+
+        Tile to = grid.tileOf(new Point(95, 45));
+        assertEquals(0, from.getDwellersCount());
+        assertEquals(1, to.getDwellersCount());
+        assertSame(food, to.getLayer(DwellerType.food).get(new Point(95, 45)).get());
+
+        grid.getTiles().forEach(grid::rebuildHalo);
+        //across the seam of torus the tile sees the image of the food
+        assertSame(food, from.getHalo(DwellerType.food).get(new Point(-5, 45)).get());
+        assertFalse(from.getHalo(DwellerType.food).get(new Point(95, 45)).isPresent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHaloWiderThanTile()
+    {
+        new TileGrid(SIZE, 20, 10, 10, false);
+    }
+}
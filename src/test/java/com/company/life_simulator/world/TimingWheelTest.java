@@ -0,0 +1,71 @@
+package com.company.life_simulator.world;
+
+import com.company.life_simulator.dweller.Food;
+import com.company.life_simulator.world.quadtree.Point;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class TimingWheelTest {
+    @Test
+    public void testValuesAreDueAtTheirTicks()
+    {
+        TimingWheel<Integer> wheel = new TimingWheel<>(0);
+        Random random = new Random(1);
+        Map<Integer, List<Integer>> expected = new HashMap<>();
+        List<Integer> ticks = new ArrayList<>(Arrays.asList(1, 63, 64, 65, 4095, 4096, 4097, 262144, 300000));
+        for (int i = 0; i < 1000; i++)
+            ticks.add(1 + random.nextInt(300000));
+        for (int value = 0; value < ticks.size(); value++) {
+            wheel.schedule(value, ticks.get(value));
+            expected.computeIfAbsent(ticks.get(value), tick -> new ArrayList<>()).add(value);
+        }
+        assertEquals(ticks.size(), wheel.size());
+
+        for (int tick = 1; tick <= 300000; tick++) {
+            List<Integer> due = wheel.advance(tick);
+            Collections.sort(due);
+            assertEquals("tick " + tick, expected.getOrDefault(tick, Collections.emptyList()), due);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testScheduleDuringAdvance()
+    {
+        TimingWheel<String> wheel = new TimingWheel<>(100);
+        wheel.advance(4000);
+        wheel.schedule("past", 10);
+        wheel.schedule("later", 4100);
+        assertEquals(Arrays.asList("past"), wheel.advance(4001));
+        assertEquals(Collections.emptyList(), wheel.advance(4099));
+        assertEquals(Arrays.asList("later"), wheel.advance(4100));
+    }
+
+    @Test
+    public void testOverflow()
+    {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        int far = (1 << 25) + 7;
+        wheel.schedule("far", far);
+        assertEquals(Collections.emptyList(), wheel.advance(far - 1));
+        assertEquals(1, wheel.size());
+        assertEquals(Arrays.asList("far"), wheel.advance(far));
+    }
+
+    @Test
+    public void testFoodSleepsUntilReproduction()
+    {
+        Food food = new Food(0, new Point(0, 0), -10);
+        assertEquals(Food.REPRODUCTION_RATE - 10, food.getNextWakeUp(0));
+        assertEquals(Food.REPRODUCTION_RATE + 1, food.getNextWakeUp(Food.REPRODUCTION_RATE));
+    }
+}
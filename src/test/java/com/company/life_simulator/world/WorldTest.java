@@ -0,0 +1,126 @@
+package com.company.life_simulator.world;
+
+import com.company.life_simulator.dweller.Dweller;
+import com.company.life_simulator.dweller.DwellerType;
+import com.company.life_simulator.dweller.Food;
+import com.company.life_simulator.dweller.ant.Ant;
+import com.company.life_simulator.world.executor.TickExecutor;
+import com.company.life_simulator.world.executor.TickExecutorType;
+import com.company.life_simulator.world.quadtree.Point;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WorldTest {
+    private World world;
+    private Ant ant;
+    private Ant otherAnt;
+    private Food food;
+
+    @Before
+    public void init()
+    {
+        world = new World(100, 100, 1);
+        ant = new Ant(world.getNextId(), new Point(50, 50), 0, 1);
+        otherAnt = new Ant(world.getNextId(), new Point(52, 50), 0, 1);
+        food = new Food(world.getNextId(), new Point(55, 50), 0);
+        world.addDwellers(Arrays.asList(ant, otherAnt, food));
+    }
+
+    @Test
+    public void testTypedQueries()
+    {
+        assertEquals(Arrays.asList(otherAnt, food), world.getNearestDwellers(ant.getPosition(), 5, 10, dweller -> true));
+        assertEquals(Collections.singletonList(food), world.getDwellersInRange(ant.getPosition(), 10, DwellerType.food));
+        assertEquals(Collections.singletonList(otherAnt), world.getDwellersInRange(ant.getPosition(), 10, DwellerType.ant));
+        assertEquals(Optional.of(food), world.getNearestDweller(ant.getPosition(), 10, DwellerType.food, dweller -> true));
+        assertEquals(Optional.of(otherAnt), world.getNearestDweller(ant.getPosition(), 10, dweller -> true));
+    }
+
+    @Test
+    public void testLayersFollowMoveAndRemove()
+    {
+        world.moveDweller(otherAnt, new Point(80, 80));
+        assertTrue(world.getDwellersInRange(ant.getPosition(), 10, DwellerType.ant).isEmpty());
+        assertEquals(Collections.singletonList(otherAnt), world.getDwellersInRange(new Point(81, 81), 5, DwellerType.ant));
+
+        world.removeDweller(food);
+        assertTrue(world.getDwellersInRange(ant.getPosition(), 10).isEmpty());
+        assertEquals(2, world.getDwellersCount());
+    }
+
+    @Test
+    public void testTickHandlerInterval()
+    {
+        List<Integer> ticks = new ArrayList<>();
+        world.addTickHandler((tick, world1) -> ticks.add(tick), 3);
+        for (int i = 0; i < 10; i++)
+            world.tick();
+        assertEquals(Arrays.asList(3, 6, 9), ticks);
+    }
+
+    @Test
+    public void testDeterministicWorldDoesNotDependOnThreads()
+    {
+        assertEquals(simulate(TickExecutorType.sequential.createExecutor(1), false), simulate(TickExecutorType.fixed.createExecutor(4), false));
+    }
+
+    @Test
+    public void testParallelApplyDoesNotDependOnThreads()
+    {
+        assertEquals(simulate(TickExecutorType.fixed.createExecutor(1), true), simulate(TickExecutorType.fixed.createExecutor(4), true));
+    }
+
+    @Test
+    public void testEatConflictIsWonBySmallestId()
+    {
+        try (World world = new World(100, 100, 1, TickExecutorType.fixed.createExecutor(4), true, true)) {
+            Ant smaller = new Ant(world.getNextId(), new Point(51, 50), 0, Ant.FOOD_SATURATION / 2);
+            Ant larger = new Ant(world.getNextId(), new Point(49, 50), 0, Ant.FOOD_SATURATION / 2);
+            Food food = new Food(world.getNextId(), new Point(50, 50), 0);
+            //larger is added first
+            world.addDwellers(Arrays.asList(larger, smaller, food));
+            assertTrue(larger.getId() > smaller.getId());
+
+            world.tick();
+
+            assertEquals(0, world.getDwellersCount(DwellerType.food));
+            assertTrue(smaller.getStoredFood() > larger.getStoredFood());
+            assertEquals(new Point(51, 50), smaller.getPosition());
+            assertEquals(new Point(49, 50), larger.getPosition());
+        }
+    }
+
+    /**
+     * @return Dwellers of deterministic world after 100 ticks
+     */
+    private static List<String> simulate(TickExecutor executor, boolean parallelApply)
+    {
+        try (World world = new World(200, 200, 7, executor, true, parallelApply)) {
+            Random random = new Random(7);
+            List<Dweller> dwellers = new ArrayList<>();
+            for (int i = 0; i < 3; i++)
+                dwellers.add(new Ant(world.getNextId(), new Point(random.nextDouble() * 200, random.nextDouble() * 200), 0, Ant.FOOD_SATURATION / 2));
+            for (int i = 0; i < 300; i++)
+                dwellers.add(new Food(world.getNextId(), new Point(random.nextDouble() * 200, random.nextDouble() * 200), -random.nextInt(Food.REPRODUCTION_RATE)));
+            world.addDwellers(dwellers);
+            for (int tick = 0; tick < 100; tick++)
+                world.tick();
+            return world.getDwellers()
+                    .sorted(Comparator.comparingInt(Dweller::getId))
+                    .map(dweller -> dweller.getId() + " " + dweller.getType() + " " + dweller.getPosition())
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.company.life_simulator.world.ecs;
+
+import com.company.life_simulator.dweller.DwellerType;
+import com.company.life_simulator.dweller.ant.Ant;
+import com.company.life_simulator.world.WorldConfig;
+import com.company.life_simulator.world.executor.TickExecutorType;
+import com.company.life_simulator.world.quadtree.Point;
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+
+public class EntityWorldTest {
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void testEat()
+    {
+        EntityWorld world = new EntityWorld(100, 100, 1, false);
+        world.addDweller(DwellerType.ant, new Point(50, 50), 0, 20);
+        world.addDweller(DwellerType.food, new Point(51, 50), 0, 0);
+
+        world.tick();
+        assertEquals(0, world.getEntitiesCount(DwellerType.food));
+        assertEquals(20 - Ant.FOOD_CONSUMPTION + 25, world.getStore().storedFood[0], DELTA);
+    }
+
+    @Test
+    public void testEatConflict()
+    {
+        EntityWorld world = new EntityWorld(100, 100, 1, false);
+        world.addDweller(DwellerType.ant, new Point(50, 50), 0, 20);
+        world.addDweller(DwellerType.ant, new Point(52, 50), 0, 20);
+        world.addDweller(DwellerType.food, new Point(51, 50), 0, 0);
+
+        world.tick();
+        assertEquals(0, world.getEntitiesCount(DwellerType.food));
+        //food goes to the ant, which was born first
+        assertEquals(20 - Ant.FOOD_CONSUMPTION + 25, world.getStore().storedFood[0], DELTA);
+        assertEquals(20 - Ant.FOOD_CONSUMPTION, world.getStore().storedFood[1], DELTA);
+    }
+
+    @Test
+    public void testEatAcrossTorusSeam()
+    {
+        EntityWorld world = new EntityWorld(100, 100, 1, true);
+        world.addDweller(DwellerType.ant, new Point(99.5, 50), 0, 20);
+        world.addDweller(DwellerType.food, new Point(0.5, 50), 0, 0);
+
+        world.tick();
+        assertEquals(0, world.getEntitiesCount(DwellerType.food));
+    }
+
+    @Test
+    public void testMoveToFood()
+    {
+        EntityWorld world = new EntityWorld(100, 100, 1, false);
+        world.addDweller(DwellerType.ant, new Point(50, 50), 0, 20);
+        world.addDweller(DwellerType.food, new Point(60, 50), 0, 0);
+
+        world.tick();
+        assertEquals(50 + Ant.BASE_SPEED, world.getStore().x[0], 1e-6);
+        assertEquals(50, world.getStore().y[0], 1e-6);
+    }
+
+    @Test
+    public void testStarveAndBreed()
+    {
+        EntityWorld world = new EntityWorld(100, 100, 1, false);
+        world.addDweller(DwellerType.ant, new Point(50, 50), 0, Ant.FOOD_CONSUMPTION / 2);
+        world.addDweller(DwellerType.food, new Point(10, 10), -1000, 0);
+
+        world.tick();
+        assertEquals(0, world.getEntitiesCount(DwellerType.ant));
+        assertEquals(2, world.getEntitiesCount(DwellerType.food));
+        assertEquals(1, world.getStore().birthTick[1]);
+    }
+
+    @Test
+    public void testSpeciesOfConfig()
+    {
+        Properties properties = new Properties();
+        properties.setProperty("world.width", "100");
+        properties.setProperty("world.height", "100");
+        properties.setProperty("dweller.ant.baseSpeed", "3");
+        properties.setProperty("dweller.ant.foodConsumption", "2");
+        try (EntityWorld world = new EntityWorld(WorldConfig.fromProperties(properties), 1, TickExecutorType.sequential.createExecutor(1))) {
+            world.addDweller(DwellerType.ant, new Point(50, 50), 0, 20);
+            world.addDweller(DwellerType.food, new Point(60, 50), 0, 0);
+
+            world.tick();
+            assertEquals(53, world.getStore().x[0], 1e-6);
+            assertEquals(18, world.getStore().storedFood[0], DELTA);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.company.life_simulator.world.executor;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TickExecutorTest {
+    private static final List<TickExecutorType> TYPES = Arrays.asList(TickExecutorType.shared, TickExecutorType.fixed, TickExecutorType.sequential);
+
+    @Test
+    public void testChunksCoverRangeInOrder() throws Exception
+    {
+        for (TickExecutorType type : TYPES) {
+            try (TickExecutor executor = type.createExecutor(3)) {
+                for (int size : new int[]{0, 1, 5, 1000}) {
+                    List<Integer> indexes = new ArrayList<>();
+                    executor.mapChunks(size, (chunk, from, to) -> IntStream.range(from, to).boxed().collect(Collectors.toList()))
+                            .forEach(indexes::addAll);
+                    assertEquals(type + " " + size, IntStream.range(0, size).boxed().collect(Collectors.toList()), indexes);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testChunksCount() throws Exception
+    {
+        try (TickExecutor executor = TickExecutorType.fixed.createExecutor(3)) {
+            assertEquals(1, executor.getChunksCount(0));
+            assertEquals(5, executor.getChunksCount(5));
+            assertEquals(3 * TickExecutor.CHUNKS_PER_THREAD, executor.getChunksCount(1000));
+        }
+        try (TickExecutor executor = TickExecutorType.sequential.createExecutor(3)) {
+            assertEquals(1, executor.getChunksCount(1000));
+        }
+    }
+
+    @Test
+    public void testFailureOfTask() throws Exception
+    {
+        for (TickExecutorType type : TYPES) {
+            try (TickExecutor executor = type.createExecutor(2)) {
+                List<Callable<Integer>> tasks = Arrays.asList(() -> 1, () -> {
+                    throw new IllegalStateException("failure");
+                });
+                executor.invokeAll(tasks);
+                fail(type.toString());
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+    }
+
+    @Test
+    public void testClose() throws Exception
+    {
+        TickExecutor fixed = TickExecutorType.fixed.createExecutor(2);
+        fixed.close();
+        try {
+            fixed.runAll(Arrays.asList(() -> {}));
+            fail();
+        } catch (IllegalStateException e) {
+            //expected
+        }
+
+        //shared pool outlives the world
+        TickExecutorType.shared.createExecutor(2).close();
+        try (TickExecutor shared = TickExecutorType.shared.createExecutor(2)) {
+            assertEquals(Arrays.asList(1, 2), shared.invokeAll(Arrays.<Callable<Integer>>asList(() -> 1, () -> 2)));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.company.life_simulator.world.quadtree;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ArrayQuadTreeTest {
+    private ArrayQuadTree<Integer> quadTree;
+
+    @Before
+    public void init()
+    {
+        quadTree = new ArrayQuadTree<>(new Rectangle(0, 0, 100, 100), 1);
+        int count = 0;
+        quadTree.put(new Point(0, 0), count++);
+        quadTree.put(new Point(0, 2), count++);
+        quadTree.put(new Point(2, 0), count++);
+        quadTree.put(new Point(2, 2), count++);
+        quadTree.put(new Point(100, 100), count++);
+        quadTree.put(new Point(1, 90), count++);
+        quadTree.put(new Point(50, 50), count++);
+        quadTree.put(new Point(8, 54), count++);
+        quadTree.put(new Point(55, 45), count++);
+        quadTree.put(new Point(45, 55), count++);
+        quadTree.put(new Point(50, 57.6), count++);
+    }
+
+    @Test
+    public void testSearchWithinRectangle() throws Exception {
+        Set<Integer> set = quadTree.searchWithin(new Rectangle(0, 0, 10, 10)).collect(Collectors.toSet());
+
+        assertEquals(4, set.size());
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(1));
+        assertTrue(set.contains(2));
+        assertTrue(set.contains(3));
+    }
+
+    @Test
+    public void testSearchWithinCircle() throws Exception {
+        Set<Integer> set = quadTree.searchWithin(new Point(50, 50), 7.5).collect(Collectors.toSet());
+
+        assertEquals(3, set.size());
+        assertTrue(set.contains(6));
+        assertTrue(set.contains(8));
+        assertTrue(set.contains(9));
+    }
+
+    @Test
+    public void testSameResultsAsQuadTree()
+    {
+        Rectangle size = new Rectangle(0, 0, 100, 100);
+        ArrayQuadTree<Integer> arrayTree = new ArrayQuadTree<>(size, 4);
+        QuadTree<Integer> tree = new QuadTree<>(size, 4);
+        Random random = new Random(777);
+        Point[] points = new Point[1000];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new Point(random.nextDouble() * 100, random.nextDouble() * 100);
+            arrayTree.put(points[i], i);
+            tree.put(points[i], i);
+        }
+        for (int step = 0; step < 5000; step++) {
+            int i = random.nextInt(points.length);
+            Point newPoint = new Point(random.nextDouble() * 100, random.nextDouble() * 100);
+            if (step % 3 == 0) {
+                arrayTree.move(points[i], newPoint, i);
+                tree.move(points[i], newPoint, i);
+            } else {
+                assertEquals(tree.remove(points[i]), arrayTree.remove(points[i]));
+                tree.put(newPoint, i);
+                arrayTree.put(newPoint, i);
+            }
+            points[i] = newPoint;
+        }
+        assertEquals(tree.getCount(), arrayTree.getCount());
+        for (int query = 0; query < 100; query++) {
+            Point center = new Point(random.nextDouble() * 100, random.nextDouble() * 100);
+            double radius = random.nextDouble() * 20;
+            assertEquals(tree.searchWithin(center, radius).collect(Collectors.toSet()),
+                    arrayTree.searchWithin(center, radius).collect(Collectors.toSet()));
+        }
+
+        int nodes = arrayTree.getNodeCount();
+        for (Point point : points)
+            arrayTree.remove(point);
+        assertTrue(arrayTree.isEmpty());
+        assertEquals(1, arrayTree.getNodeCount());
+        assertTrue(nodes > 1);
+    }
+
+    @Test
+    public void testRemoveAndClear()
+    {
+        assertEquals(Integer.valueOf(6), quadTree.remove(new Point(50, 50)).get());
+        assertFalse(quadTree.contains(new Point(50, 50)));
+        assertEquals(10, quadTree.getCount());
+
+        quadTree.clear();
+        assertTrue(quadTree.isEmpty());
+        assertFalse(quadTree.get(new Point(0, 0)).isPresent());
+        assertEquals(1, quadTree.getNodeCount());
+    }
+}
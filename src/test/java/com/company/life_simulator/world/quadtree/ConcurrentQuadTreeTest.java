@@ -0,0 +1,138 @@
+package com.company.life_simulator.world.quadtree;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentQuadTreeTest {
+    private ConcurrentQuadTree<Integer> tree;
+
+    @Before
+    public void init()
+    {
+        tree = new ConcurrentQuadTree<>(new Rectangle(0, 0, 100, 100), 4, 4);
+        int count = 0;
+        tree.put(new Point(0, 0), count++);
+        tree.put(new Point(0, 2), count++);
+        tree.put(new Point(2, 0), count++);
+        tree.put(new Point(2, 2), count++);
+        tree.put(new Point(100, 100), count++);
+        tree.put(new Point(1, 90), count++);
+        tree.put(new Point(50, 50), count++);
+        tree.put(new Point(8, 54), count++);
+        tree.put(new Point(55, 45), count++);
+        tree.put(new Point(45, 55), count++);
+        tree.put(new Point(50, 57.6), count++);
+    }
+
+    @Test
+    public void testSearchAcrossStripes()
+    {
+        Set<Integer> set = tree.searchWithin(new Point(50, 50), 7.5).collect(Collectors.toSet());
+        assertEquals(3, set.size());
+        assertTrue(set.contains(6));
+        assertTrue(set.contains(8));
+        assertTrue(set.contains(9));
+
+        set = tree.searchWithin(new Rectangle(0, 0, 10, 10)).collect(Collectors.toSet());
+        assertEquals(4, set.size());
+        assertEquals(11, tree.getValues().count());
+    }
+
+    @Test
+    public void testNestedSearch()
+    {
+        //visitor searches the index again, while entries of the outer search are still visited
+        List<Integer> pairs = new ArrayList<>();
+        tree.forEachWithin(new Rectangle(0, 0, 60, 60), (point, value) ->
+                tree.forEachWithin(point, 7.5, (nearPoint, nearValue) -> pairs.add(value * 100 + nearValue)));
+
+        QuadTree<Integer> expectedTree = new QuadTree<>(tree.getSize(), 4);
+        tree.forEachWithin(tree.getSize(), (point, value) -> {
+            expectedTree.put(point, value);
+            return true;
+        });
+        List<Integer> expected = new ArrayList<>();
+        expectedTree.forEachWithin(new Rectangle(0, 0, 60, 60), (point, value) ->
+                expectedTree.forEachWithin(point, 7.5, (nearPoint, nearValue) -> expected.add(value * 100 + nearValue)));
+        assertEquals(expected.stream().sorted().collect(Collectors.toList()), pairs.stream().sorted().collect(Collectors.toList()));
+        assertTrue(pairs.contains(6 * 100 + 9));
+    }
+
+    @Test
+    public void testBulkLoad()
+    {
+        ConcurrentQuadTree<Integer> loaded = new ConcurrentQuadTree<>(new Rectangle(0, 0, 100, 100), 4, 4);
+        List<Integer> values = IntStream.range(0, 10000).boxed().collect(Collectors.toList());
+        loaded.putAll(values, value -> new Point(value % 100, value / 100));
+        assertEquals(10000, loaded.getCount());
+        for (int value : values)
+            assertEquals(Integer.valueOf(value), loaded.get(new Point(value % 100, value / 100)).get());
+    }
+
+    @Test
+    public void testMoveBetweenStripes()
+    {
+        tree.move(new Point(50, 50), new Point(10, 10), 6);
+        assertFalse(tree.contains(new Point(50, 50)));
+        assertEquals(Integer.valueOf(6), tree.get(new Point(10, 10)).get());
+        tree.move(new Point(10, 10), new Point(11, 11), 6);
+        assertEquals(Integer.valueOf(6), tree.get(new Point(11, 11)).get());
+        assertEquals(11, tree.getCount());
+
+        tree.move(new Point(11, 11), new Point(2, 2), 6);
+        assertEquals(Integer.valueOf(6), tree.get(new Point(2, 2)).get());
+        assertEquals(10, tree.getCount());
+    }
+
+    @Test
+    public void testParallelWrites() throws Exception
+    {
+        ConcurrentQuadTree<Integer> parallelTree = new ConcurrentQuadTree<>(new Rectangle(0, 0, 100, 100), 4, 8);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                int offset = thread;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(offset);
+                    for (int i = offset; i < 40000; i += 4) {
+                        Point point = new Point(i % 200 / 2.0, i / 400.0);
+                        parallelTree.put(point, i);
+                        if (random.nextInt(4) == 0) {
+                            parallelTree.searchWithin(point, 10).count();
+                        }
+                    }
+                    for (int i = offset; i < 40000; i += 8) {
+                        Point point = new Point(i % 200 / 2.0, i / 400.0);
+                        parallelTree.move(point, new Point((point.getX() + 25.3) % 100, point.getY()), i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+
+        assertEquals(40000, parallelTree.getCount());
+        assertEquals(40000, parallelTree.getValues().distinct().count());
+        IntStream.range(0, 40000).filter(i -> i % 8 >= 4).forEach(i ->
+                assertEquals(Integer.valueOf(i), parallelTree.get(new Point(i % 200 / 2.0, i / 400.0)).get()));
+    }
+}
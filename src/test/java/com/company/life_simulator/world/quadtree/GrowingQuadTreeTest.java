@@ -0,0 +1,78 @@
+package com.company.life_simulator.world.quadtree;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GrowingQuadTreeTest {
+
+    @Test
+    public void testGrowKeepsEdgePoints()
+    {
+        GrowingQuadTree<Integer> tree = new GrowingQuadTree<>(new Rectangle(0, 0, 100, 100), 1);
+        int count = 0;
+        tree.put(new Point(100, 50), count++);
+        tree.put(new Point(50, 100), count++);
+        tree.put(new Point(100, 100), count++);
+        tree.put(new Point(10, 10), count++);
+
+        tree.put(new Point(150, 20), count++);
+        tree.put(new Point(-30, 250), count++);
+
+        assertTrue(tree.getSize().contains(new Point(150, 20)));
+        assertTrue(tree.getSize().contains(new Point(-30, 250)));
+        assertEquals(6, tree.getCount());
+        assertEquals(Integer.valueOf(0), tree.get(new Point(100, 50)).get());
+        assertEquals(Integer.valueOf(1), tree.get(new Point(50, 100)).get());
+        assertEquals(Integer.valueOf(2), tree.get(new Point(100, 100)).get());
+        Set<Integer> set = tree.searchWithin(new Point(100, 100), 50).collect(Collectors.toSet());
+        assertEquals(3, set.size());
+    }
+
+    @Test(expected = QuadTreeException.class)
+    public void testNotFinitePoint()
+    {
+        GrowingQuadTree<Integer> tree = new GrowingQuadTree<>(new Rectangle(0, 0, 100, 100), 1);
+        tree.put(new Point(Double.NaN, 50), 0);
+    }
+
+    @Test(expected = QuadTreeException.class)
+    public void testInfinitePoint()
+    {
+        GrowingQuadTree<Integer> tree = new GrowingQuadTree<>(new Rectangle(0, 0, 100, 100), 1);
+        tree.put(new Point(50, Double.POSITIVE_INFINITY), 0);
+    }
+
+    @Test
+    public void testRandomWalkOutwards()
+    {
+        GrowingQuadTree<Integer> tree = new GrowingQuadTree<>(new Rectangle(0, 0, 10, 10), 4);
+        Random random = new Random(777);
+        Point[] points = new Point[300];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new Point(random.nextInt(11), random.nextInt(11));
+            while (tree.contains(points[i]))
+                points[i] = points[i].delta(1, 0);
+            tree.put(points[i], i);
+        }
+        for (int step = 0; step < 200; step++) {
+            for (int i = 0; i < points.length; i++) {
+                Point newPoint = points[i].delta(random.nextInt(5) - 1, random.nextInt(5) - 1);
+                if (tree.contains(newPoint))
+                    continue;
+                tree.move(points[i], newPoint, i);
+                points[i] = newPoint;
+            }
+        }
+        assertEquals(points.length, tree.getCount());
+        for (int i = 0; i < points.length; i++)
+            assertEquals(Integer.valueOf(i), tree.get(points[i]).get());
+        assertEquals(points.length, tree.searchWithin(tree.getSize()).count());
+        assertTrue(tree.getSize().getWidth() >= 160);
+    }
+}
@@ -0,0 +1,101 @@
+package com.company.life_simulator.world.quadtree;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PersistentQuadTreeTest {
+    private PersistentQuadTree<Integer> tree;
+
+    @Before
+    public void init()
+    {
+        tree = new PersistentQuadTree<>(new Rectangle(0, 0, 100, 100), 2);
+        int count = 0;
+        tree.put(new Point(0, 0), count++);
+        tree.put(new Point(0, 2), count++);
+        tree.put(new Point(2, 0), count++);
+        tree.put(new Point(2, 2), count++);
+        tree.put(new Point(100, 100), count++);
+        tree.put(new Point(1, 90), count++);
+        tree.put(new Point(50, 50), count++);
+        tree.put(new Point(8, 54), count++);
+        tree.put(new Point(55, 45), count++);
+        tree.put(new Point(45, 55), count++);
+        tree.put(new Point(50, 57.6), count++);
+    }
+
+    @Test
+    public void testSearch()
+    {
+        Set<Integer> set = tree.searchWithin(new Point(50, 50), 7.5).collect(Collectors.toSet());
+        assertEquals(3, set.size());
+        assertTrue(set.contains(6));
+        assertTrue(set.contains(8));
+        assertTrue(set.contains(9));
+
+        set = tree.searchWithin(new Rectangle(0, 0, 10, 10)).collect(Collectors.toSet());
+        assertEquals(4, set.size());
+        assertEquals(11, tree.getCount());
+    }
+
+    @Test
+    public void testSnapshotIsNotChanged()
+    {
+        QuadTreeSnapshot<Integer> snapshot = tree.snapshot();
+        tree.remove(new Point(0, 0));
+        tree.put(new Point(2, 2), 100);
+        tree.move(new Point(50, 50), new Point(51, 51), 6);
+        tree.put(new Point(3, 3), 11);
+
+        assertEquals(11, snapshot.getCount());
+        assertEquals(Integer.valueOf(0), snapshot.get(new Point(0, 0)).get());
+        assertEquals(Integer.valueOf(3), snapshot.get(new Point(2, 2)).get());
+        assertEquals(Integer.valueOf(6), snapshot.get(new Point(50, 50)).get());
+        assertFalse(snapshot.get(new Point(3, 3)).isPresent());
+        assertEquals(11, snapshot.getValues().count());
+
+        assertEquals(11, tree.getCount());
+        assertFalse(tree.contains(new Point(0, 0)));
+        assertEquals(Integer.valueOf(100), tree.get(new Point(2, 2)).get());
+        assertEquals(Integer.valueOf(6), tree.get(new Point(51, 51)).get());
+    }
+
+    @Test
+    public void testMatchesQuadTree()
+    {
+        Random random = new Random(777);
+        QuadTree<Integer> expected = new QuadTree<>(new Rectangle(0, 0, 100, 100), 4);
+        PersistentQuadTree<Integer> actual = new PersistentQuadTree<>(new Rectangle(0, 0, 100, 100), 4);
+        List<QuadTreeSnapshot<Integer>> snapshots = new ArrayList<>();
+        List<Set<Integer>> snapshotValues = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            Point point = new Point(random.nextInt(200) / 2.0, random.nextInt(200) / 2.0);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(point), actual.remove(point));
+            } else {
+                expected.put(point, i);
+                actual.put(point, i);
+            }
+            if (i % 1000 == 0) {
+                snapshots.add(actual.snapshot());
+                snapshotValues.add(expected.getValues().collect(Collectors.toSet()));
+            }
+        }
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(expected.getValues().collect(Collectors.toSet()), actual.getValues().collect(Collectors.toSet()));
+        assertEquals(expected.searchWithin(new Point(30, 60), 20).collect(Collectors.toSet()),
+                actual.searchWithin(new Point(30, 60), 20).collect(Collectors.toSet()));
+        for (int i = 0; i < snapshots.size(); i++)
+            assertEquals(snapshotValues.get(i), snapshots.get(i).getValues().collect(Collectors.toSet()));
+    }
+}
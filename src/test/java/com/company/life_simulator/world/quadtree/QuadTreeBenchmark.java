@@ -15,8 +15,16 @@ import java.util.stream.Stream;
 @Warmup(iterations = 10)
 @Measurement(iterations = 10)
 public class QuadTreeBenchmark {
-    private QuadTree<Integer> quadTree;
+    @Param({"1", "4", "8", "16", "32"})
+    private int leafCapacity;
+
+    @Param({"nodes", "arrays"})
+    private String storage;
+
+    private SpatialIndex<Integer> quadTree;
     private Random random = new Random(777);
+    private Point[] positions;
+    private int moveIndex = 0;
     private final double worldSize = 10000;
     private final int points = 100000;
     private final Point center = new Point(worldSize / 2, worldSize / 2);
@@ -25,13 +33,40 @@ public class QuadTreeBenchmark {
     @Setup
     public void init()
     {
-        quadTree = new QuadTree<>(new Rectangle(0, 0, worldSize, worldSize));
+        Rectangle size = new Rectangle(0, 0, worldSize, worldSize);
+        quadTree = storage.equals("arrays") ? new ArrayQuadTree<>(size, leafCapacity) : new QuadTree<>(size, leafCapacity);
 
         Stream<Double> xStream = random.doubles(points, 0, worldSize).boxed();
         Stream<Double> yStream = random.doubles(points, 0, worldSize).boxed();
         AtomicInteger counter = new AtomicInteger(0);
-        StreamUtil.zip(xStream, yStream, Point::new)
-                .forEach(point -> quadTree.put(point, counter.incrementAndGet()));
+        positions = StreamUtil.zip(xStream, yStream, Point::new)
+                .toArray(Point[]::new);
+        for (Point point : positions)
+            quadTree.put(point, counter.incrementAndGet());
+    }
+
+    @Benchmark
+    public int moveBenchmark()
+    {
+        //same remove/put path as World.moveDweller
+        moveIndex = (moveIndex + 1) % points;
+        Point oldPoint = positions[moveIndex];
+        Point newPoint = new Point((oldPoint.getX() + 3) % worldSize, (oldPoint.getY() + 3) % worldSize);
+        Integer value = quadTree.remove(oldPoint).get();
+        quadTree.put(newPoint, value);
+        positions[moveIndex] = newPoint;
+        return quadTree.getCount();
+    }
+
+    @Benchmark
+    public int moveInPlaceBenchmark()
+    {
+        moveIndex = (moveIndex + 1) % points;
+        Point oldPoint = positions[moveIndex];
+        Point newPoint = new Point((oldPoint.getX() + 3) % worldSize, (oldPoint.getY() + 3) % worldSize);
+        quadTree.move(oldPoint, newPoint, quadTree.get(oldPoint).get());
+        positions[moveIndex] = newPoint;
+        return quadTree.getCount();
     }
 
     @Benchmark
@@ -3,10 +3,19 @@ package com.company.life_simulator.world.quadtree;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class QuadTreeTest {
@@ -51,6 +60,32 @@ public class QuadTreeTest {
         assertTrue(set.contains(9));
     }
 
+    @Test
+    public void testVisitWithinCircle()
+    {
+        List<Integer> result = new ArrayList<>();
+        assertTrue(quadTree.forEachWithin(new Point(50, 50), 7.5, (point, value) -> {
+            assertTrue(point.withinCircle(new Point(50, 50), 7.5));
+            return result.add(value);
+        }));
+        assertEquals(3, result.size());
+
+        result.clear();
+        assertEquals(3, quadTree.searchWithin(new Point(50, 50), 7.5, result));
+        assertEquals(new HashSet<>(Arrays.asList(6, 8, 9)), new HashSet<>(result));
+    }
+
+    @Test
+    public void testVisitorStopsSearch()
+    {
+        List<Integer> result = new ArrayList<>();
+        assertFalse(quadTree.forEachWithin(new Rectangle(0, 0, 100, 100), (point, value) -> {
+            result.add(value);
+            return result.size() < 2;
+        }));
+        assertEquals(2, result.size());
+    }
+
     @Test
     public void testNoResultWithinRectangle()
     {
@@ -64,4 +99,211 @@ public class QuadTreeTest {
         Set<Integer> set = quadTree.searchWithin(new Point(1, 1), 0.7).collect(Collectors.toSet());
         assertTrue(set.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBucketedLeaves()
+    {
+        QuadTree<Integer> bucketTree = new QuadTree<>(new Rectangle(0, 0, 100, 100), 4);
+        Random random = new Random(777);
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Point point = new Point(random.nextDouble() * 100, random.nextDouble() * 100);
+            points.add(point);
+            bucketTree.put(point, i);
+        }
+        assertEquals(1000, bucketTree.getCount());
+        for (int i = 0; i < points.size(); i++)
+            assertEquals(Integer.valueOf(i), bucketTree.get(points.get(i)).get());
+
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < points.size(); i++) {
+            if (points.get(i).withinCircle(new Point(30, 60), 20))
+                expected.add(i);
+        }
+        assertEquals(expected, bucketTree.searchWithin(new Point(30, 60), 20).collect(Collectors.toSet()));
+
+        for (int i = 0; i < points.size(); i++)
+            assertEquals(Integer.valueOf(i), bucketTree.remove(points.get(i)).get());
+        assertEquals(0, bucketTree.getCount());
+        assertTrue(bucketTree.isEmpty());
+    }
+
+    @Test
+    public void testPutSamePointReplacesValue()
+    {
+        quadTree.put(new Point(2, 2), 100);
+        assertEquals(11, quadTree.getCount());
+        assertEquals(Integer.valueOf(100), quadTree.get(new Point(2, 2)).get());
+    }
+
+    @Test
+    public void testMove()
+    {
+        QuadTree<Integer> tree = new QuadTree<>(new Rectangle(0, 0, 100, 100), 4);
+        Random random = new Random(777);
+        Point[] points = new Point[500];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new Point(random.nextDouble() * 100, random.nextDouble() * 100);
+            tree.put(points[i], i);
+        }
+        for (int step = 0; step < 20; step++) {
+            for (int i = 0; i < points.length; i++) {
+                double distance = step % 2 == 0 ? 0.01 : 30;
+                Point newPoint = new Point((points[i].getX() + 100 + (random.nextDouble() - 0.5) * distance) % 100,
+                        (points[i].getY() + 100 + (random.nextDouble() - 0.5) * distance) % 100);
+                tree.move(points[i], newPoint, i);
+                points[i] = newPoint;
+            }
+        }
+        assertEquals(points.length, tree.getCount());
+        for (int i = 0; i < points.length; i++)
+            assertEquals(Integer.valueOf(i), tree.get(points[i]).get());
+        assertEquals(points.length, tree.searchWithin(new Rectangle(0, 0, 100, 100)).count());
+    }
+
+    @Test
+    public void testMoveToOccupiedPoint()
+    {
+        quadTree.move(new Point(0, 0), new Point(2, 2), 100);
+        assertEquals(10, quadTree.getCount());
+        assertFalse(quadTree.contains(new Point(0, 0)));
+        assertEquals(Integer.valueOf(100), quadTree.get(new Point(2, 2)).get());
+    }
+
+    @Test
+    public void testNodeHolder()
+    {
+        QuadTree<Holder> tree = new QuadTree<>(new Rectangle(0, 0, 100, 100), 2);
+        Holder[] holders = new Holder[100];
+        for (int i = 0; i < holders.length; i++) {
+            holders[i] = new Holder(new Point(i, i));
+            tree.put(holders[i].point, holders[i]);
+        }
+        for (Holder holder : holders) {
+            assertTrue(holder.getNode().getNodeType() == NodeType.LEAF);
+            assertTrue(holder.getNode().indexOf(holder.point) >= 0);
+        }
+
+        Holder holder = holders[50];
+        Point newPoint = new Point(50.5, 50.5);
+        tree.move(holder.point, newPoint, holder);
+        holder.point = newPoint;
+        assertTrue(holder.getNode().indexOf(newPoint) >= 0);
+
+        for (Holder removed : holders)
+            assertTrue(tree.remove(removed.point, removed).get() == removed);
+        assertTrue(tree.isEmpty());
+        assertTrue(holder.getNode() == null);
+    }
+
+    @Test
+    public void testNodeHolderAfterBulkLoad()
+    {
+        QuadTree<Holder> tree = new QuadTree<>(new Rectangle(0, 0, 100, 100), 4);
+        List<Holder> holders = new ArrayList<>();
+        for (int i = 0; i < 10000; i++)
+            holders.add(new Holder(new Point(i % 100, i / 100)));
+        tree.putAll(holders, holder -> holder.point);
+        for (Holder holder : holders)
+            assertTrue(holder.getNode().indexOf(holder.point) >= 0);
+
+        //occupant of the point is replaced, its handle is dropped
+        Holder moved = holders.get(0);
+        Holder occupant = holders.get(1);
+        tree.move(moved.point, occupant.point, moved);
+        assertTrue(occupant.getNode() == null);
+        assertTrue(moved.getNode().getValue(moved.getNode().indexOf(occupant.point)) == moved);
+    }
+
+    private static class Holder implements NodeHolder {
+        private Point point;
+        private Node<?> node;
+
+        Holder(Point point) {
+            this.point = point;
+        }
+
+        @Override
+        public Node<?> getNode() {
+            return node;
+        }
+
+        @Override
+        public void setNode(Node<?> node) {
+            this.node = node;
+        }
+    }
+
+    @Test
+    public void testBulkLoad()
+    {
+        Random random = new Random(777);
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < 20000; i++)
+            points.add(new Point(random.nextInt(1000) / 10.0, random.nextInt(1000) / 10.0));
+        points.add(new Point(100, 100));
+
+        List<Integer> values = new ArrayList<>();
+        QuadTree<Integer> sequentialTree = new QuadTree<>(new Rectangle(0, 0, 100, 100), 8);
+        for (int i = 0; i < points.size(); i++) {
+            sequentialTree.put(points.get(i), i);
+            values.add(i);
+        }
+        QuadTree<Integer> bulkTree = new QuadTree<>(new Rectangle(0, 0, 100, 100), 8);
+        bulkTree.putAll(values, points::get);
+
+        assertEquals(sequentialTree.getCount(), bulkTree.getCount());
+        for (Point point : points)
+            assertEquals(sequentialTree.get(point), bulkTree.get(point));
+        assertEquals(sequentialTree.searchWithin(new Point(30, 60), 20).collect(Collectors.toSet()),
+                bulkTree.searchWithin(new Point(30, 60), 20).collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void testNearest()
+    {
+        assertEquals(Optional.of(0), quadTree.nearest(new Point(-1, -1), 5, value -> true));
+        assertEquals(Optional.of(3), quadTree.nearest(new Point(-1, -1), 5, value -> value > 2));
+        assertEquals(Optional.empty(), quadTree.nearest(new Point(30, 30), 5, value -> true));
+        assertEquals(Arrays.asList(3, 1, 2), quadTree.nearest(new Point(2, 3), 3, 10, value -> true));
+        assertEquals(Arrays.asList(3, 1), quadTree.nearest(new Point(2, 3), 3, 2.3, value -> true));
+    }
+
+    @Test
+    public void testNearestMatchesFullScan()
+    {
+        Random random = new Random(777);
+        List<Point> points = new ArrayList<>();
+        QuadTree<Integer> tree = new QuadTree<>(new Rectangle(0, 0, 100, 100), 4);
+        for (int i = 0; i < 5000; i++) {
+            Point point = new Point(random.nextDouble() * 100, random.nextDouble() * 100);
+            points.add(point);
+            tree.put(point, i);
+        }
+        for (int i = 0; i < 100; i++) {
+            Point center = new Point(random.nextDouble() * 100, random.nextDouble() * 100);
+            List<Integer> expected = IntStream.range(0, points.size())
+                    .filter(value -> value % 3 == 0 && points.get(value).withinCircle(center, 10))
+                    .boxed()
+                    .sorted(Comparator.comparingDouble(value -> points.get(value).squareDistance(center)))
+                    .limit(7)
+                    .collect(Collectors.toList());
+            assertEquals(expected, tree.nearest(center, 7, 10, value -> value % 3 == 0));
+            assertEquals(expected.stream().findFirst(), tree.nearest(center, 10, value -> value % 3 == 0));
+        }
+    }
+
+    @Test
+    public void testClone()
+    {
+        QuadTree<Integer> clone = quadTree.clone();
+        assertEquals(quadTree.getCount(), clone.getCount());
+        assertEquals(quadTree.searchWithin(new Rectangle(0, 0, 100, 100)).collect(Collectors.toSet()),
+                clone.searchWithin(new Rectangle(0, 0, 100, 100)).collect(Collectors.toSet()));
+
+        clone.remove(new Point(50, 50));
+        clone.put(new Point(70, 70), 100);
+        assertEquals(Integer.valueOf(6), quadTree.get(new Point(50, 50)).get());
+        assertFalse(quadTree.contains(new Point(70, 70)));
+    }
+}
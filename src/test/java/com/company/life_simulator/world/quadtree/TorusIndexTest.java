@@ -0,0 +1,105 @@
+package com.company.life_simulator.world.quadtree;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TorusIndexTest {
+    private TorusIndex<Integer> torus;
+
+    @Before
+    public void init()
+    {
+        torus = new TorusIndex<>(new QuadTree<>(new Rectangle(0, 0, 100, 100), 4));
+        int count = 0;
+        torus.put(new Point(1, 50), count++);
+        torus.put(new Point(99, 50), count++);
+        torus.put(new Point(99, 99), count++);
+        torus.put(new Point(50, 1), count++);
+        torus.put(new Point(50, 50), count++);
+    }
+
+    @Test
+    public void testSearchAcrossEdge()
+    {
+        Set<Integer> set = torus.searchWithin(new Point(2, 50), 5).collect(Collectors.toSet());
+        assertEquals(2, set.size());
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(1));
+    }
+
+    @Test
+    public void testSearchAcrossCorner()
+    {
+        Set<Integer> set = torus.searchWithin(new Point(1, 1), 5).collect(Collectors.toSet());
+        assertEquals(1, set.size());
+        assertTrue(set.contains(2));
+    }
+
+    @Test
+    public void testVisitorGetsImage()
+    {
+        Map<Integer, Point> points = new HashMap<>();
+        torus.forEachWithin(new Point(2, 50), 5, (point, value) -> points.put(value, point) == null);
+        assertEquals(new Point(1, 50), points.get(0));
+        assertEquals(new Point(-1, 50), points.get(1));
+        assertEquals(new Point(-1, 50), torus.getImage(new Point(2, 50), new Point(99, 50)));
+        assertEquals(new Point(50, 50), torus.getImage(new Point(2, 50), new Point(50, 50)));
+    }
+
+    @Test
+    public void testNearestAcrossEdge()
+    {
+        assertEquals(Optional.of(1), torus.nearest(new Point(97, 50), 5, value -> true));
+        assertEquals(Optional.of(0), torus.nearest(new Point(97, 50), 5, value -> value != 1));
+        assertEquals(Optional.of(3), torus.nearest(new Point(50, 97), 5, value -> true));
+        assertFalse(torus.nearest(new Point(50, 90), 5, value -> true).isPresent());
+    }
+
+    @Test
+    public void testSearchMatchesFullScan()
+    {
+        Random random = new Random(777);
+        TorusIndex<Integer> tree = new TorusIndex<>(new QuadTree<>(new Rectangle(0, 0, 100, 100), 4));
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Point point = new Point(random.nextDouble() * 100, random.nextDouble() * 100);
+            points.add(point);
+            tree.put(point, i);
+        }
+        for (int i = 0; i < 200; i++) {
+            Point center = new Point(random.nextDouble() * 100, random.nextDouble() * 100);
+            Set<Integer> expected = IntStream.range(0, points.size())
+                    .filter(value -> tree.getImage(center, points.get(value)).withinCircle(center, 10))
+                    .boxed()
+                    .collect(Collectors.toSet());
+            List<Integer> found = new ArrayList<>();
+            tree.forEachWithin(center, 10, (point, value) -> found.add(value));
+            assertEquals(expected.size(), found.size());
+            assertEquals(expected, new HashSet<>(found));
+        }
+    }
+
+    @Test
+    public void testLargeRadius()
+    {
+        Set<Integer> set = torus.searchWithin(new Point(1, 50), 50).collect(Collectors.toSet());
+        assertEquals(4, set.size());
+        assertFalse(set.contains(3));
+        assertEquals(5, torus.searchWithin(new Point(1, 50), 1000).count());
+    }
+}
@@ -0,0 +1,62 @@
+package com.company.life_simulator.world.quadtree;
+
+import com.company.life_simulator.util.StreamUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 5, jvmArgs = {"-XX:+AggressiveOpts"})
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+public class UniformGridBenchmark {
+    @Param({"15", "30", "60"})
+    private double cellSize;
+
+    private UniformGrid<Integer> grid;
+    private Random random = new Random(777);
+    private final double worldSize = 1000;
+    private final int points = 100000;
+    private final Point center = new Point(worldSize / 2, worldSize / 2);
+    private final double radius = 30;
+    private Point[] positions;
+    private int moveIndex = 0;
+
+    @Setup
+    public void init()
+    {
+        grid = new UniformGrid<>(new Rectangle(0, 0, worldSize, worldSize), cellSize);
+
+        Stream<Double> xStream = random.doubles(points, 0, worldSize).boxed();
+        Stream<Double> yStream = random.doubles(points, 0, worldSize).boxed();
+        AtomicInteger counter = new AtomicInteger(0);
+        positions = StreamUtil.zip(xStream, yStream, Point::new)
+                .toArray(Point[]::new);
+        for (Point point : positions)
+            grid.put(point, counter.incrementAndGet());
+    }
+
+    @Benchmark
+    public Object[] circleIntersectBenchmark()
+    {
+        return grid.searchWithin(center, radius)
+                .toArray();
+    }
+
+    @Benchmark
+    public int moveBenchmark()
+    {
+        moveIndex = (moveIndex + 1) % points;
+        Point oldPoint = positions[moveIndex];
+        Point newPoint = new Point((oldPoint.getX() + 3) % worldSize, (oldPoint.getY() + 3) % worldSize);
+        Integer value = grid.remove(oldPoint).get();
+        grid.put(newPoint, value);
+        positions[moveIndex] = newPoint;
+        return grid.getCount();
+    }
+}
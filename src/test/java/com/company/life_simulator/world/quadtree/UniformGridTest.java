@@ -0,0 +1,93 @@
+package com.company.life_simulator.world.quadtree;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class UniformGridTest {
+    private UniformGrid<Integer> grid;
+
+    @Before
+    public void init()
+    {
+        grid = new UniformGrid<>(new Rectangle(0, 0, 100, 100), 10);
+        int count = 0;
+        grid.put(new Point(0, 0), count++);
+        grid.put(new Point(0, 2), count++);
+        grid.put(new Point(2, 0), count++);
+        grid.put(new Point(2, 2), count++);
+        grid.put(new Point(100, 100), count++);
+        grid.put(new Point(1, 90), count++);
+        grid.put(new Point(50, 50), count++);
+        grid.put(new Point(8, 54), count++);
+        grid.put(new Point(55, 45), count++);
+        grid.put(new Point(45, 55), count++);
+        grid.put(new Point(50, 57.6), count++);
+    }
+
+    @Test
+    public void testSearchWithinRectangle() throws Exception {
+        Set<Integer> set = grid.searchWithin(new Rectangle(0, 0, 10, 10)).collect(Collectors.toSet());
+
+        assertEquals(4, set.size());
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(1));
+        assertTrue(set.contains(2));
+        assertTrue(set.contains(3));
+    }
+
+    @Test
+    public void testSearchWithinCircle() throws Exception {
+        Set<Integer> set = grid.searchWithin(new Point(50, 50), 7.5).collect(Collectors.toSet());
+
+        assertEquals(3, set.size());
+        assertTrue(set.contains(6));
+        assertTrue(set.contains(8));
+        assertTrue(set.contains(9));
+    }
+
+    @Test
+    public void testSearchOnBorder()
+    {
+        Set<Integer> set = grid.searchWithin(new Point(100, 100), 1).collect(Collectors.toSet());
+        assertEquals(1, set.size());
+        assertTrue(set.contains(4));
+    }
+
+    @Test
+    public void testPutAndRemove()
+    {
+        assertEquals(11, grid.getCount());
+        grid.put(new Point(2, 2), 100);
+        assertEquals(11, grid.getCount());
+        assertEquals(Integer.valueOf(100), grid.get(new Point(2, 2)).get());
+
+        assertEquals(Integer.valueOf(100), grid.remove(new Point(2, 2)).get());
+        assertFalse(grid.contains(new Point(2, 2)));
+        assertFalse(grid.remove(new Point(2, 2)).isPresent());
+        assertEquals(10, grid.getCount());
+    }
+
+    @Test
+    public void testNearest()
+    {
+        assertEquals(Optional.of(6), grid.nearest(new Point(51, 51), 10, value -> true));
+        assertEquals(Optional.of(10), grid.nearest(new Point(51, 51), 10, value -> value != 6));
+        assertEquals(Optional.empty(), grid.nearest(new Point(30, 30), 5, value -> true));
+        assertEquals(Arrays.asList(3, 1, 2), grid.nearest(new Point(2, 3), 3, 10, value -> true));
+    }
+
+    @Test(expected = QuadTreeException.class)
+    public void testOutOfBounds()
+    {
+        grid.put(new Point(101, 0), 0);
+    }
+}